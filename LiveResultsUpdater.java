@@ -1,31 +1,106 @@
 import logic.*;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.ResultsRenderEvent;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import javax.swing.JEditorPane;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JLabel;
 import javax.swing.SwingWorker;
 
-public class LiveResultsUpdater extends SwingWorker<Void, String> {
-    private final JEditorPane resultsDisplay; // Field for storing the editor pane
+public class LiveResultsUpdater extends SwingWorker<Void, ResultsDelta> {
+    private static final long FRAME_MILLIS = 16; // At most one model update per 60 Hz frame during a burst of votes
+    private static final LatencyHistogram renderLatency = Metrics.histogram("results.live.latency");
 
-    public LiveResultsUpdater(JEditorPane resultsPane) {
-        this.resultsDisplay = resultsPane; // Assign the constructor parameter to the field
+    private final ResultsTableModel candidates; // Table models, touched only on the EDT
+    private final ResultsTableModel states;
+    private final ResultsTableModel ageGroups;
+    private final JLabel turnoutLabel;
+
+    public LiveResultsUpdater(ResultsTableModel candidates, ResultsTableModel states, ResultsTableModel ageGroups,
+                              JLabel turnoutLabel) {
+        this.candidates = candidates;
+        this.states = states;
+        this.ageGroups = ageGroups;
+        this.turnoutLabel = turnoutLabel;
     }
 
     @Override
     protected Void doInBackground() throws Exception {
-        while (!isCancelled()) {
-            String results = VotingManager.getFormattedResults();
-            publish(results);
-            Thread.sleep(10000); // Corrected to refresh every 10 seconds (10000 milliseconds)
+        try (ResultsSubscription subscription = VotingManager.subscribe()) {
+            while (!isCancelled()) {
+                ResultsDelta delta = subscription.awaitDelta(1, TimeUnit.SECONDS);
+                // publish even without a delta, so the turnout rates keep moving while results are idle
+                publish(delta);
+                if (delta != null) {
+                    // votes arriving meanwhile are merged into the next delta by the subscription
+                    Thread.sleep(FRAME_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // cancel(true) interrupts the wait, nothing left to do
         }
         return null;
     }
 
     @Override
-    protected void process(List<String> chunks) {
-        if (!chunks.isEmpty()) {
-            String latestResults = chunks.get(chunks.size() - 1);
-            resultsDisplay.setText(latestResults);
+    protected void process(List<ResultsDelta> chunks) {
+        ResultsRenderEvent event = new ResultsRenderEvent();
+        event.begin();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        // deltas carry totals, so within one frame only the last value of each row matters
+        Map<String, Long> candidateTotals = new LinkedHashMap<>();
+        Map<String, Long> stateTotals = new LinkedHashMap<>();
+        ResultsDelta last = null;
+        for (ResultsDelta delta : chunks) {
+            if (delta != null) {
+                candidateTotals.putAll(delta.getCandidateTotals());
+                stateTotals.putAll(delta.getStateTotals());
+                last = delta;
+            }
+        }
+        int rows = candidates.update(candidateTotals) + states.update(stateTotals);
+        if (last != null) {
+            Map<String, Long> ages = new LinkedHashMap<>();
+            if (last.getCountUnder18() != 0) {
+                ages.put("Under 18", last.getCountUnder18());
+            }
+            ages.put("18-30", last.getCount18to30());
+            ages.put("31-60", last.getCount31to60());
+            ages.put("60+", last.getCountOver60());
+            rows += ageGroups.update(ages);
+        }
+        turnoutLabel.setText(turnout());
+        if (Metrics.ENABLED) {
+            renderLatency.record(System.nanoTime() - start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = "live";
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    private static String turnout() {
+        StringBuilder text = new StringBuilder("Last minute (accepted / rejected):");
+        TurnoutSeries turnout = VotingManager.getTurnout();
+        long now = TurnoutSeries.nowSecond();
+        for (VoteChannel channel : VoteChannel.values()) {
+            text.append("  ").append(channel).append(' ')
+                .append(sum(turnout.getCounts(channel, true, TurnoutSeries.Resolution.SECOND, 60, now))).append(" / ")
+                .append(sum(turnout.getCounts(channel, false, TurnoutSeries.Resolution.SECOND, 60, now)));
+        }
+        return text.toString();
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
         }
+        return sum;
     }
 }
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Trieda {@code ResultsTableModel} je model tabuľky súčtov hlasov s riadkom pre každého kandidáta, štát
+ * alebo vekovú skupinu a stĺpcami názov, počet hlasov a podiel.
+ * <p>
+ * Model sa mení iba na EDT cez {@link #update(Map)}, ktorý prepíše len zmenené súčty. Pošle udalosť
+ * o vložení nových riadkov, zmenu bunky počtu hlasov pre každý zmenený riadok a ak sa zmenil celkový
+ * počet, jednu udalosť pre stĺpec podielu. Tabuľka tak prekreslí iba zmenené bunky a zachová posun aj
+ * označenie; {@link javax.swing.table.TableRowSorter} riadky pri zmene iba preusporiada.
+ * </p>
+ */
+public class ResultsTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    static final int NAME_COLUMN = 0;
+    static final int VOTES_COLUMN = 1;
+    static final int SHARE_COLUMN = 2;
+
+    private final String nameColumn;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> rowOf = new HashMap<>();
+    private long[] votes = new long[16];
+    private int[] changedRows = new int[16];
+    private long total;
+
+    /**
+     * @param nameColumn Nadpis stĺpca s názvom, napr. {@code Candidate}.
+     */
+    public ResultsTableModel(String nameColumn) {
+        this.nameColumn = nameColumn;
+    }
+
+    /**
+     * Prepíše súčty, ktoré sa zmenili; riadky, ktoré v {@code totals} nie sú, zostanú bez zmeny.
+     * @param totals Nové celkové počty hlasov podľa názvu.
+     * @return Počet zmenených alebo pridaných riadkov.
+     */
+    public int update(Map<String, Long> totals) {
+        int oldRows = names.size();
+        long oldTotal = total;
+        int changed = 0;
+        int updated = 0;
+        for (Map.Entry<String, Long> entry : totals.entrySet()) {
+            Integer row = rowOf.get(entry.getKey());
+            long value = entry.getValue();
+            if (row == null) {
+                row = names.size();
+                names.add(entry.getKey());
+                rowOf.put(entry.getKey(), row);
+                if (row == votes.length) {
+                    votes = Arrays.copyOf(votes, votes.length * 2);
+                }
+            } else if (votes[row] == value) {
+                continue;
+            }
+            total += value - votes[row];
+            votes[row] = value;
+            changed++;
+            if (row < oldRows) {
+                if (updated == changedRows.length) {
+                    changedRows = Arrays.copyOf(changedRows, updated * 2);
+                }
+                changedRows[updated++] = row;
+            }
+        }
+        // insertions first, so a sorter never sees more model rows than it was told about
+        if (names.size() > oldRows) {
+            fireTableRowsInserted(oldRows, names.size() - 1);
+        }
+        for (int i = 0; i < updated; i++) {
+            fireTableCellUpdated(changedRows[i], VOTES_COLUMN);
+        }
+        // every share depends on the total, so one event repaints the whole column and nothing else
+        if (total != oldTotal && oldRows > 0) {
+            fireTableChanged(new TableModelEvent(this, 0, oldRows - 1, SHARE_COLUMN));
+        }
+        return changed;
+    }
+
+    @Override
+    public int getRowCount() {
+        return names.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 3;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        switch (column) {
+            case NAME_COLUMN:
+                return nameColumn;
+            case VOTES_COLUMN:
+                return "Votes";
+            default:
+                return "Share %";
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case NAME_COLUMN:
+                return String.class;
+            case VOTES_COLUMN:
+                return Long.class;
+            default:
+                return Double.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case NAME_COLUMN:
+                return names.get(row);
+            case VOTES_COLUMN:
+                return votes[row];
+            default:
+                return total == 0 ? 0.0 : Math.round(votes[row] * 1000.0 / total) / 10.0;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.Random;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Enumeration;
-import java.util.Locale;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
@@ -25,47 +31,284 @@ import java.awt.event.WindowEvent;
 import volici.*;
 import hlasovanie.*;
 import logic.*;
+import ingest.VoteHttpServer;
+import cluster.StationReplicator;
+import export.ResultsFormat;
+import export.ResultsPublisher;
+import validation.VoterValidator;
+import metrics.Metrics;
 
 public class VotingApplication {
 
     /**
      * Hlavný vstupný bod aplikácie, ktorý inicializuje grafické používateľské rozhranie.
+     * <p>
+     * S {@code -Dvoting.startup.fast=true} sa nezobrazuje úvodná obrazovka: hlavné okno sa zobrazí hneď,
+     * kým sa načítava žurnál, tlačidlá hlasovania sa povolia, keď je príjem hlasov pripravený, a na pozadí
+     * sa pripraví zoznam štátov a triedy dialógov. Bez grafického prostredia beží iba príjem hlasov cez HTTP.
+     * </p>
      * @param args Argumenty príkazového riadku, ktoré sú pre aplikáciu ignorované.
      */
     public static void main(String[] args) {
-        setLookAndFeel();
-        SwingUtilities.invokeLater(() -> createSplashScreen());
+        boolean headless = GraphicsEnvironment.isHeadless();
+        if (!headless) {
+            setLookAndFeel();
+            if (FAST_STARTUP) {
+                // the frame comes up while the journal replays; voting waits for enableVoting
+                SwingUtilities.invokeLater(() -> createAndShowGUI());
+            }
+        }
+        try {
+            VotingManager.openJournal(Paths.get(JOURNAL_FILE));
+        } catch (IOException e) {
+            startupFailed("Could not open the vote journal: " + e.getMessage(), "Journal Error");
+            return;
+        }
+        String voterRoll = System.getProperty(VOTER_ROLL_PROPERTY);
+        if (voterRoll != null) {
+            try {
+                VotingManager.openVoterRoll(Paths.get(voterRoll));
+            } catch (IOException e) {
+                VotingManager.closeJournal();
+                startupFailed("Could not open the electoral roll: " + e.getMessage(), "Electoral Roll Error");
+                return;
+            }
+        }
+        VoteHttpServer httpServer = startHttpServer();
+        ResultsPublisher resultsPublisher = startResultsPublisher();
+        replicator = startReplication();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // stop accepting online votes before the journal is closed
+            if (httpServer != null) {
+                httpServer.stop();
+            }
+            if (resultsPublisher != null) {
+                try {
+                    resultsPublisher.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to export final results: " + e.getMessage());
+                }
+            }
+            if (replicator != null) {
+                try {
+                    replicator.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to stop replication: " + e.getMessage());
+                }
+            }
+            VotingManager.closeJournal();
+        }));
+        votingEnabledMillis = System.currentTimeMillis();
+        votingEnabled = true;
+        if (FAST_STARTUP) {
+            startWarmUp();
+        }
+        if (headless) {
+            return;
+        }
+        if (FAST_STARTUP) {
+            SwingUtilities.invokeLater(() -> enableVoting());
+        } else {
+            SwingUtilities.invokeLater(() -> createSplashScreen());
+        }
+    }
+
+    /**
+     * Oznámi chybu pri štarte a zatvorí hlavné okno, ak sa už zobrazilo.
+     */
+    private static void startupFailed(String message, String title) {
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println(message);
+            return;
+        }
+        JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE);
+        // queued after createAndShowGUI, so the frame exists by then
+        SwingUtilities.invokeLater(() -> {
+            if (mainFrame != null) {
+                mainFrame.dispose();
+            }
+        });
+    }
+
+    /**
+     * Na pozadí pripraví to, čo by inak spomalilo prvé otvorenie dialógu a prvý hlas: zoznam štátov,
+     * ktorého zostavenie prechádza názvy všetkých krajín, overenie voliča a triedy dialógov. Triedy Swingu
+     * sa iba načítajú, inicializujú sa až v EDT. Pri tréningu archívu CDS aplikácia po príprave skončí.
+     */
+    private static void startWarmUp() {
+        Thread warmUp = new Thread(() -> {
+            CountryRegistry.size();
+            VoterValidator.validateName("Jan Novak");
+            VoterValidator.validateAge(VoterValidator.MIN_AGE);
+            VotingManager.hasAlreadyVoted("");
+            VotingManager.getResultsSnapshot();
+            ClassLoader loader = VotingApplication.class.getClassLoader();
+            for (String name : WARM_UP_CLASSES) {
+                try {
+                    Class.forName(name, false, loader);
+                } catch (ClassNotFoundException e) {
+                    // not in this JDK; it is loaded on demand if it exists at all
+                }
+            }
+            if (TRAINING) {
+                if (!GraphicsEnvironment.isHeadless()) {
+                    try {
+                        SwingUtilities.invokeAndWait(() -> { }); // the frame is queued first, so it is up now
+                    } catch (Exception e) {
+                        // exit anyway; the archive just misses the classes of the frame
+                    }
+                }
+                System.exit(0);
+            }
+        }, "startup-warm-up");
+        warmUp.setDaemon(!TRAINING);
+        warmUp.setPriority(Thread.MIN_PRIORITY);
+        warmUp.start();
+    }
+
+    private static final String JOURNAL_FILE = "votes.journal"; // Súbor so žurnálom prijatých hlasov
+    private static final String VOTER_ROLL_PROPERTY = "voting.roll"; // Súbor zoznamu voličov z ingest.VoterRollBuilder
+    private static final String HTTP_PORT_PROPERTY = "voting.http.port"; // Port HTTP príjmu online hlasov
+    private static final String RESULTS_FILE_PROPERTY = "voting.results.file"; // Súbor s výsledkami v JSON alebo CSV
+    private static final long RESULTS_INTERVAL_MILLIS = 1000;
+    private static final String STATION_PROPERTY = "voting.station"; // Názov volebnej miestnosti pre replikáciu
+    private static final String REPLICATION_PORT_PROPERTY = "voting.replication.port"; // Port replikácie výsledkov
+    private static final String REPLICATION_PEERS_PROPERTY = "voting.replication.peers"; // Susedné miestnosti host:port
+    private static final String REPLICATION_BIND_PROPERTY = "voting.replication.bind"; // Adresa replikácie, inak localhost
+    private static final long REPLICATION_INTERVAL_MILLIS = 1000;
+    private static StationReplicator replicator; // Replikácia výsledkov s ostatnými miestnosťami alebo null
+    // Tréning archívu CDS: rýchly štart, po zobrazení okna a príprave na pozadí aplikácia skončí
+    private static final boolean TRAINING = Boolean.getBoolean("voting.startup.training");
+    // Rýchly štart bez úvodnej obrazovky, s prípravou na pozadí
+    private static final boolean FAST_STARTUP = Boolean.getBoolean("voting.startup.fast") || TRAINING;
+    // Triedy, ktoré prvý otvorený dialóg načíta; s archívom CDS sa mapujú priamo z archívu
+    private static final String[] WARM_UP_CLASSES = {
+        "javax.swing.JDialog", "javax.swing.JComboBox", "javax.swing.JRadioButton", "javax.swing.BoxLayout",
+        "javax.swing.JOptionPane", "javax.swing.JTabbedPane", "javax.swing.JTable", "javax.swing.table.TableRowSorter",
+        "javax.swing.plaf.synth.SynthComboBoxUI", "javax.swing.plaf.synth.SynthRadioButtonUI",
+        "javax.swing.plaf.synth.SynthOptionPaneUI", "javax.swing.plaf.basic.BasicComboPopup",
+        "ResultsTableModel", "LiveResultsUpdater"
+    };
+    private static JFrame mainFrame; // Hlavné okno, vytvára sa v EDT
+    private static volatile boolean votingEnabled; // Príjem hlasov je pripravený, žurnál je načítaný
+    private static final List<JButton> votingButtons = new ArrayList<>(); // Tlačidlá povolené až po načítaní žurnálu
+    private static volatile long firstFrameMillis; // Kedy sa zobrazilo hlavné okno, 0 kým sa nezobrazí
+    private static volatile long votingEnabledMillis; // Kedy bol príjem hlasov pripravený
+
+    static {
+        if (Metrics.ENABLED) {
+            Metrics.gauge("startup.firstFrame.millis", () -> sinceJvmStart(firstFrameMillis));
+            Metrics.gauge("startup.votingEnabled.millis", () -> sinceJvmStart(votingEnabledMillis));
+        }
+    }
+
+    /**
+     * @return Milisekundy od štartu JVM do času {@code millis} alebo -1, ak ešte nenastal.
+     */
+    private static long sinceJvmStart(long millis) {
+        return millis == 0 ? -1 : ProcessHandle.current().info().startInstant()
+            .map(start -> millis - start.toEpochMilli()).orElse(-1L);
+    }
+
+    /**
+     * Ak je nastavená vlastnosť {@code voting.http.port}, spustí HTTP príjem online hlasov na danom porte.
+     * @return Bežiaci server alebo null, ak sa server nespúšťa alebo ho nebolo možné spustiť.
+     */
+    private static VoteHttpServer startHttpServer() {
+        String port = System.getProperty(HTTP_PORT_PROPERTY);
+        if (port == null) {
+            return null;
+        }
+        try {
+            return VoteHttpServer.start(Integer.parseInt(port), candidates);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not start the HTTP vote endpoint on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Ak je nastavená vlastnosť {@code voting.results.file}, každú sekundu zapisuje výsledky do daného súboru.
+     * Formát sa určí podľa prípony, {@code .csv} pre CSV, inak JSON.
+     * @return Bežiaci zapisovač alebo null, ak sa výsledky nezapisujú.
+     */
+    private static ResultsPublisher startResultsPublisher() {
+        String file = System.getProperty(RESULTS_FILE_PROPERTY);
+        if (file == null) {
+            return null;
+        }
+        ResultsFormat format = file.endsWith("." + ResultsFormat.CSV.getExtension()) ? ResultsFormat.CSV : ResultsFormat.JSON;
+        return ResultsPublisher.start(Paths.get(file), format, RESULTS_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Ak je nastavená vlastnosť {@code voting.station}, spustí replikáciu výsledkov s miestnosťami
+     * z vlastnosti {@code voting.replication.peers} na porte {@code voting.replication.port}. Port počúva
+     * na adrese {@code localhost}, ak vlastnosť {@code voting.replication.bind} nezadá inú.
+     * @return Bežiaca replikácia alebo null, ak sa nespúšťa alebo ju nebolo možné spustiť.
+     */
+    private static StationReplicator startReplication() {
+        String station = System.getProperty(STATION_PROPERTY);
+        if (station == null) {
+            return null;
+        }
+        try {
+            String bind = System.getProperty(REPLICATION_BIND_PROPERTY);
+            InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+            return StationReplicator.start(station,
+                new InetSocketAddress(address, Integer.getInteger(REPLICATION_PORT_PROPERTY, 0)),
+                StationReplicator.parsePeers(System.getProperty(REPLICATION_PEERS_PROPERTY, "")),
+                REPLICATION_INTERVAL_MILLIS);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not start replication for station " + station + ": " + e.getMessage());
+            return null;
+        }
     }
 
     // Deklarácie atribútov triedy a metód pre správu kandidátov, validáciu vstupov a správu GUI.
-    private static ArrayList<String> candidates = new ArrayList<>(Arrays.asList("Ivan Prvy", "Alexander Pekny")); // Zoznam kandidátov
+    // Zoznam kandidátov; mení sa v EDT a HTTP príjem z neho číta vo vlastných vláknach
+    private static List<String> candidates = new CopyOnWriteArrayList<>(Arrays.asList("Ivan Prvy", "Alexander Pekny"));
     private static ButtonGroup candidatesGroup = new ButtonGroup(); // Skupina tlačidiel pre výber kandidátov
     private static JPanel candidatePanel; // Panel pre výber kandidátov
 
-    // Textové polia pre zadávanie údajov voliča.
-    private static JTextField txtName = new JTextField(15);
-    private static JTextField txtAge = new JTextField(15);
-    private static JTextField txtID = new JTextField(15);
-    private static JTextField txtZipCode = new JTextField(15);
-    private static JTextField txtAddress = new JTextField(15);
+    // Textové polia pre zadávanie údajov voliča; vytvárajú sa v EDT až po nastavení vzhľadu.
+    private static JTextField txtName;
+    private static JTextField txtAge;
+    private static JTextField txtID;
+    private static JTextField txtZipCode;
+    private static JTextField txtAddress;
     private static JComboBox<String> stateComboBox; // Rozbaľovací zoznam štátov
 
     /**
-     * Validuje, či zadaný reťazec obsahuje iba písmená a medzery.
+     * Validuje, či zadaný reťazec je platné meno, teda obsahuje písmená (aj s diakritikou) a medzery.
      * @param name Meno na validáciu.
      * @return true, ak je vstup platný, inak false.
      */
     private static boolean isAlpha(String name) {
-        return name.matches("[a-zA-Z\\s]+");
+        return VoterValidator.validateName(name) == null;
+    }
+
+    /**
+     * Overí voliča v zozname voličov a pri neúspechu zobrazí dôvod.
+     * @param parent Dialóg, nad ktorým sa zobrazí chybová správa.
+     * @return true, ak volič smie voliť alebo sa zoznam voličov nepoužíva.
+     */
+    private static boolean isOnVoterRoll(Component parent, String id, int age, String state, int zipCode) {
+        Eligibility eligibility = VotingManager.checkEligibility(id, age, state, zipCode);
+        if (eligibility != Eligibility.ELIGIBLE) {
+            JOptionPane.showMessageDialog(parent, eligibility.getMessage(), "Electoral Roll", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        return true;
     }
 
     /**
-     * Kontroluje, či je zadaný reťazec číselný.
+     * Kontroluje, či je zadaný reťazec platné číselné PSČ.
      * @param str Reťazec na overenie.
      * @return true, ak je reťazec číselný, inak false.
      */
     private static boolean isNumeric(String str) {
-        return str.matches("\\d+");
+        return VoterValidator.validatePsc(str) == null;
     }
 
     /**
@@ -74,7 +317,7 @@ public class VotingApplication {
      * @return true, ak je adresa v správnom formáte, inak false.
      */
     private static boolean isValidAddress(String address) {
-        return address.matches("\\p{Alpha}+\\s+\\d+");
+        return VoterValidator.validateAddress(address) == null;
     }
 
     /**
@@ -89,24 +332,59 @@ public class VotingApplication {
     }
 
     /**
-     * Vráti zoznam všetkých dostupných krajín v systéme.
-     * @return Pole reťazcov predstavujúcich krajiny.
+     * Vytvorí model rozbaľovacieho zoznamu krajín. Zoznam krajín sa zostaví iba raz v {@link CountryRegistry}
+     * a modely ho zdieľajú; každý model si pamätá iba vlastný výber.
+     * @return Model so všetkými krajinami.
      */
-    private static String[] getAllCountries() {
-        Locale[] locales = Locale.getAvailableLocales();
-        return Arrays.stream(locales)
-                .map(Locale::getDisplayCountry)
-                .filter(country -> !country.trim().isEmpty())
-                .sorted()
-                .distinct()
-                .toArray(String[]::new);
+    private static ComboBoxModel<String> getAllCountries() {
+        return new CountryComboBoxModel();
+    }
+
+    /**
+     * Model rozbaľovacieho zoznamu nad zdieľaným zoradeným zoznamom krajín z {@link CountryRegistry}.
+     */
+    private static final class CountryComboBoxModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> countries = CountryRegistry.getCountryNames();
+        private Object selected = countries.isEmpty() ? null : countries.get(0);
+
+        @Override
+        public int getSize() {
+            return countries.size();
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return countries.get(index);
+        }
+
+        @Override
+        public void setSelectedItem(Object item) {
+            if (item == null ? selected != null : !item.equals(selected)) {
+                selected = item;
+                fireContentsChanged(this, -1, -1);
+            }
+        }
+
+        @Override
+        public Object getSelectedItem() {
+            return selected;
+        }
     }
 
     /**
      * Inicializuje a zobrazí grafické používateľské rozhranie aplikácie.
      */
     private static void createAndShowGUI() {
+        txtName = new JTextField(15);
+        txtAge = new JTextField(15);
+        txtID = new JTextField(15);
+        txtZipCode = new JTextField(15);
+        txtAddress = new JTextField(15);
+
         JFrame frame = new JFrame("Voting application 2024");
+        mainFrame = frame;
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(600, 400);
         frame.setLocationRelativeTo(null);
@@ -117,9 +395,24 @@ public class VotingApplication {
         frame.add(introPanel, BorderLayout.CENTER);
         frame.add(buttonPanel, BorderLayout.SOUTH);
 
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                firstFrameMillis = System.currentTimeMillis();
+            }
+        });
         frame.setVisible(true);
     }
 
+    /**
+     * Povolí tlačidlá hlasovania po načítaní žurnálu pri rýchlom štarte.
+     */
+    private static void enableVoting() {
+        for (JButton button : votingButtons) {
+            button.setEnabled(true);
+        }
+    }
+
     /**
      * Zobrazí dialógové okno s aktuálnymi výsledkami volieb pre administrátora.
      * @param parent Referencia na rodičovské okno.
@@ -129,21 +422,30 @@ public class VotingApplication {
         resultsDialog.setSize(400, 400);
         resultsDialog.setLayout(new BorderLayout());
 
-        JEditorPane resultsPane = new JEditorPane();
-        resultsPane.setContentType("text/html");
-        resultsPane.setEditable(false);
-        JScrollPane scrollPane = new JScrollPane(resultsPane);
-        resultsDialog.add(scrollPane, BorderLayout.CENTER);
+        ResultsTableModel candidateModel = new ResultsTableModel("Candidate");
+        ResultsTableModel stateModel = new ResultsTableModel("State");
+        ResultsTableModel ageModel = new ResultsTableModel("Age group");
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Candidates", createResultsTable(candidateModel, true));
+        tabs.addTab("States", createResultsTable(stateModel, true));
+        tabs.addTab("Age demographics", createResultsTable(ageModel, false));
+        resultsDialog.add(tabs, BorderLayout.CENTER);
+
+        JLabel turnoutLabel = new JLabel(" ");
+        turnoutLabel.setBorder(new EmptyBorder(4, 6, 4, 6));
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(turnoutLabel, BorderLayout.NORTH);
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
         JButton endResultsButton = new JButton("Stop viewing results");
         buttonPanel.add(endResultsButton);
-        resultsDialog.add(buttonPanel, BorderLayout.SOUTH);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        resultsDialog.add(southPanel, BorderLayout.SOUTH);
 
         resultsDialog.setLocationRelativeTo(parent);
         resultsDialog.setVisible(true);
 
-        final LiveResultsUpdater updater = new LiveResultsUpdater(resultsPane);
+        final LiveResultsUpdater updater = new LiveResultsUpdater(candidateModel, stateModel, ageModel, turnoutLabel);
         updater.execute();
 
         resultsDialog.addWindowListener(new WindowAdapter() {
@@ -160,6 +462,25 @@ public class VotingApplication {
         });
     }
 
+    /**
+     * Vytvorí tabuľku výsledkov nad modelom, ktorý mení {@link LiveResultsUpdater}.
+     * @param model Model tabuľky.
+     * @param sortByVotes true, ak sa majú riadky zoradiť zostupne podľa počtu hlasov; inak zostanú v poradí modelu.
+     * @return Tabuľka v posúvateľnom paneli.
+     */
+    private static JScrollPane createResultsTable(ResultsTableModel model, boolean sortByVotes) {
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        TableRowSorter<ResultsTableModel> sorter = new TableRowSorter<>(model);
+        // re-sort when votes change, the rows are only reordered, not rebuilt
+        sorter.setSortsOnUpdates(true);
+        if (sortByVotes) {
+            sorter.setSortKeys(List.of(new RowSorter.SortKey(ResultsTableModel.VOTES_COLUMN, SortOrder.DESCENDING)));
+        }
+        table.setRowSorter(sorter);
+        return new JScrollPane(table);
+    }
+
     /**
      * Zobrazí okno pre prihlásenie administrátora.
      * @param parent Referencia na rodičovské okno.
@@ -437,7 +758,8 @@ public class VotingApplication {
         btnAssistanceVoting.addActionListener(e -> showAssistanceRequestForm(frame));
         adminButton.addActionListener(e -> showAdminLogin(frame));
         btnEnd.addActionListener(e -> {
-            JOptionPane.showMessageDialog(frame, VotingManager.getFormattedResults(), "Results:", JOptionPane.INFORMATION_MESSAGE);
+            String results = replicator != null ? replicator.getResults().getFormattedResults() : VotingManager.getFormattedResults();
+            JOptionPane.showMessageDialog(frame, results, "Results:", JOptionPane.INFORMATION_MESSAGE);
             System.exit(0);
         });
 
@@ -446,6 +768,11 @@ public class VotingApplication {
         buttonPanel.add(btnAssistanceVoting);
         buttonPanel.add(adminButton);
         buttonPanel.add(btnEnd);
+        // every button reads or changes the results, which are complete only after the journal replays
+        for (JButton button : List.of(btnOnlineVoting, btnPostalVoting, btnAssistanceVoting, adminButton, btnEnd)) {
+            button.setEnabled(votingEnabled);
+            votingButtons.add(button);
+        }
 
         return buttonPanel;
     }
@@ -552,8 +879,12 @@ public class VotingApplication {
 
 
     
+            if (!isOnVoterRoll(dialog, id, age, selectedState, Integer.parseInt(zipCode))) {
+                return;
+            }
+
             // Assuming VotingManager.addVote() processes the vote
-            if (VotingManager.addVote(selectedCandidate, voterName, age, selectedState, id, Integer.parseInt(zipCode))) {
+            if (VotingManager.addVote(selectedCandidate, voterName, age, selectedState, id, Integer.parseInt(zipCode), VoteChannel.ONLINE)) {
                 JOptionPane.showMessageDialog(dialog, "Your vote has been successfully cast for: " + selectedCandidate, "Vote Submitted", JOptionPane.INFORMATION_MESSAGE);
                 dialog.dispose();
             } else {
@@ -714,8 +1045,12 @@ public class VotingApplication {
                 return;
             }
     
+            if (!isOnVoterRoll(votingDialog, confirmedID, age, state, Integer.parseInt(zipCode))) {
+                return;
+            }
+
             // Assuming VotingManager.addVote() correctly processes the vote
-            if (VotingManager.addVote(selectedCandidate, name, age, state, confirmedID, Integer.parseInt(zipCode))) {
+            if (VotingManager.addVote(selectedCandidate, name, age, state, confirmedID, Integer.parseInt(zipCode), VoteChannel.POSTAL)) {
                 JOptionPane.showMessageDialog(votingDialog, "Your vote has been successfully cast for: " + selectedCandidate, "Vote Submitted", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(votingDialog, "You have already voted or there was an error.", "Voting Error", JOptionPane.ERROR_MESSAGE);
@@ -880,8 +1215,11 @@ public class VotingApplication {
             try {
                 age = Integer.parseInt(confirmedAge);
                 if (age >= 18) { // Corrected from 'age > 18' to 'age >= 18'
+                    if (!isOnVoterRoll(votingDialog, confirmedID, age, state, Integer.parseInt(zip))) {
+                        return;
+                    }
                     // Assuming VotingManager.addVote() correctly processes the vote
-                    if (VotingManager.addVote(selectedCandidate, name, age, state, confirmedID, Integer.parseInt(zip))) {
+                    if (VotingManager.addVote(selectedCandidate, name, age, state, confirmedID, Integer.parseInt(zip), VoteChannel.ASSISTANCE)) {
                         JOptionPane.showMessageDialog(votingDialog, "Your vote has been successfully cast for: " + selectedCandidate, "Vote Submitted", JOptionPane.INFORMATION_MESSAGE);
                         votingDialog.dispose();
                     } else {
@@ -0,0 +1,70 @@
+package benchmark;
+
+import logic.VotingManager;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Meria priepustnosť {@link VotingManager#addVote} pri 1 až N súbežných vláknach.
+ * <p>
+ * Každé vlákno odovzdá vopred pripravené unikátne ID, takže sa meria iba deduplikácia a započítanie.
+ * Spustenie: {@code java benchmark.AddVoteThroughputBenchmark [maxVlakien] [hlasovNaVlakno]}
+ * </p>
+ */
+public class AddVoteThroughputBenchmark {
+    private static final String[] CANDIDATES = {"Ivan Prvy", "Alexander Pekny", "Jana Mala", "Peter Novy", "Eva Stara"};
+    private static final String[] STATES = {"Slovakia", "Czechia", "Austria", "Hungary", "Poland", "Germany", "Ukraine", ""};
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int votesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+
+        // warm-up so the first measured run is not dominated by JIT compilation
+        run("warmup", 2, votesPerThread / 2);
+
+        System.out.printf("%8s %14s %10s%n", "threads", "votes/s", "speedup");
+        double single = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double rate = run("t" + threads, threads, votesPerThread);
+            if (threads == 1) {
+                single = rate;
+            }
+            System.out.printf("%8d %14.0f %9.2fx%n", threads, rate, rate / single);
+        }
+    }
+
+    private static double run(String runId, int threads, int votesPerThread) throws InterruptedException {
+        String[][] ids = new String[threads][votesPerThread];
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < votesPerThread; i++) {
+                ids[t][i] = runId + '-' + t + '-' + i;
+            }
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String[] threadIds = ids[t];
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < threadIds.length; i++) {
+                    VotingManager.addVote(CANDIDATES[i % CANDIDATES.length], "Bench Voter", 18 + i % 70,
+                        STATES[i % STATES.length], threadIds[i], 81101);
+                }
+                done.countDown();
+            });
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return (double) threads * votesPerThread / (elapsed / 1e9);
+    }
+}
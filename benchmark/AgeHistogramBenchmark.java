@@ -0,0 +1,56 @@
+package benchmark;
+
+import logic.AgeHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark {@link AgeHistogram}: réžia, ktorú počty podľa veku pridávajú ku každému hlasu,
+ * a dotaz na rozsah vekov pre jedného kandidáta v jednom štáte a pre všetkých kandidátov vo všetkých štátoch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgeHistogramBenchmark {
+    private static final int CANDIDATES = 8;
+    private static final int STATES = 50;
+
+    private final AgeHistogram ages = new AgeHistogram();
+    private int next;
+
+    @Setup
+    public void fill() {
+        for (int i = 0; i < 1_000_000; i++) {
+            ages.add(i % CANDIDATES, i % STATES, 18 + i % 80, 1);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        int i = next++;
+        ages.add(i & (CANDIDATES - 1), i % STATES, 18 + (i & 63), 1);
+    }
+
+    @Benchmark
+    public long candidateInStateRange() {
+        return ages.getVotes(3, 17, 25, 44);
+    }
+
+    @Benchmark
+    public long allCandidatesRange() {
+        return ages.getVotes(AgeHistogram.ANY, AgeHistogram.ANY, 25, 44);
+    }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import ingest.BallotImporter;
+import ingest.ImportReport;
+import logic.Ballot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Vygeneruje veľký CSV a binárny súbor lístkov a zmeria rýchlosť ich importu.
+ * <p>
+ * Približne 1 % riadkov je duplicitných a 1 % neplatných.
+ * Spustenie: {@code java benchmark.BulkImportBenchmark [pocetRiadkov]}, predvolene 2 milióny.
+ * </p>
+ */
+public class BulkImportBenchmark {
+    private static final String[] CANDIDATES = {"Ivan Prvy", "Alexander Pekny", "Jana Mala", "Peter Novy"};
+    private static final String[] STATES = {"Slovakia", "Czechia", "Austria", "Hungary", "Poland"};
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path csv = Files.createTempFile("ballots", ".csv");
+        Path binary = Files.createTempFile("ballots", ".bin");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                writer.write("candidate,voterName,age,state,ID,psc\n");
+                for (int i = 0; i < rows; i++) {
+                    Ballot ballot = ballot("csv", i);
+                    writer.write(ballot.getCandidate() + ',' + ballot.getVoterName() + ',' + ballot.getAge() + ','
+                        + ballot.getState() + ',' + ballot.getID() + ',' + ballot.getPsc() + '\n');
+                }
+            }
+            List<Ballot> generated = new AbstractList<Ballot>() {
+                @Override
+                public Ballot get(int index) {
+                    return ballot("bin", index);
+                }
+
+                @Override
+                public int size() {
+                    return rows;
+                }
+            };
+            try (OutputStream out = Files.newOutputStream(binary)) {
+                BallotImporter.writeBinary(generated, out);
+            }
+
+            BallotImporter importer = new BallotImporter();
+            ImportReport csvReport = importer.importCsv(csv);
+            ImportReport binaryReport = importer.importBinary(binary);
+            System.out.printf("csv    (%.0f MB): %s%n", Files.size(csv) / 1e6, csvReport);
+            System.out.printf("binary (%.0f MB): %s%n", Files.size(binary) / 1e6, binaryReport);
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    private static Ballot ballot(String prefix, int i) {
+        int voter = i % 100 == 99 ? i - 1 : i; // every 100th row repeats the previous voter
+        int age = i % 100 == 50 ? 16 : 18 + i % 80; // and every 100th row is underage
+        return new Ballot(CANDIDATES[i % CANDIDATES.length], "Volič Číslo", age, STATES[i % STATES.length],
+            prefix + voter, 81101 + i % 900);
+    }
+}
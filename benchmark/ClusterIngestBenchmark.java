@@ -0,0 +1,92 @@
+package benchmark;
+
+import cluster.ClusterResults;
+import cluster.LocalCluster;
+import cluster.ShardedVotingManager;
+import logic.Ballot;
+import logic.BatchResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meranie príjmu hlasov zhlukom uzlov {@link cluster.ShardNode} na jednom počítači cez loopback.
+ * <p>
+ * Pre každý počet shardov spustí {@link LocalCluster}, zahreje uzly, a potom niekoľko klientskych vlákien
+ * posiela dávky unikátnych hlasov cez {@link ShardedVotingManager#addVotes(List)}. Vypíše priepustnosť,
+ * zrýchlenie oproti jednému shardu a overí, že zlúčené výsledky obsahujú všetky prijaté hlasy.
+ * Škálovanie je takmer lineárne, iba ak má počítač aspoň toľko voľných jadier ako uzlov a klientov.
+ * Spustenie: {@code java benchmark.ClusterIngestBenchmark [pocetHlasov] [shardy] [klienti] [davka]},
+ * predvolene 2 000 000 hlasov, shardy {@code 1,2,4}, 8 klientov a dávka 1000.
+ * </p>
+ */
+public class ClusterIngestBenchmark {
+    private static final String[] CANDIDATES = {"Ivan Prvy", "Alexander Pekny", "Jana Mala", "Peter Novy", "Eva Stara"};
+    private static final String[] STATES = {"Slovakia", "Czechia", "Hungary", "Austria", "Poland"};
+
+    public static void main(String[] args) throws Exception {
+        int votes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        String[] shardCounts = (args.length > 1 ? args[1] : "1,2,4").split(",");
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        double baseline = 0;
+        for (String shardCount : shardCounts) {
+            int shards = Integer.parseInt(shardCount.trim());
+            try (LocalCluster cluster = LocalCluster.start(shards, List.of(CANDIDATES), "-Xmx1g", "-Dvoting.metrics=false")) {
+                ShardedVotingManager manager = cluster.getManager();
+                run(manager, "warmup" + shards + "-", votes / 4, clients, batchSize);
+                long before = manager.getResults().getTotalVotes();
+                long start = System.nanoTime();
+                long accepted = run(manager, "s" + shards + "-", votes, clients, batchSize);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double rate = votes / seconds;
+                if (baseline == 0) {
+                    baseline = rate;
+                }
+                ClusterResults results = manager.getResults();
+                System.out.printf("%d shard(s): %,d ballots in %.2f s, %,.0f ballots/s, speedup %.2fx%n",
+                    shards, votes, seconds, rate, rate / baseline);
+                if (results.getTotalVotes() - before != accepted || accepted != votes) {
+                    throw new IllegalStateException("Merged results hold " + (results.getTotalVotes() - before)
+                        + " votes, accepted " + accepted + " of " + votes);
+                }
+            }
+        }
+    }
+
+    private static long run(ShardedVotingManager manager, String prefix, int votes, int clients, int batchSize)
+            throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        LongAdder accepted = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Thread client = new Thread(() -> {
+                List<Ballot> batch = new ArrayList<>(batchSize);
+                int first;
+                try {
+                    while ((first = next.getAndAdd(batchSize)) < votes) {
+                        batch.clear();
+                        for (int i = first; i < Math.min(first + batchSize, votes); i++) {
+                            batch.add(new Ballot(CANDIDATES[i % CANDIDATES.length], "Jan Novak", 18 + i % 80,
+                                STATES[i % STATES.length], prefix + i, 81101 + i % 900));
+                        }
+                        BatchResult result = manager.addVotes(batch);
+                        accepted.add(result.getAccepted());
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            client.start();
+            threads.add(client);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return accepted.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import logic.VotingManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark zostavenia výsledkov {@link VotingManager#getFormattedResults()} pri rôznom počte
+ * kandidátov a štátov, bez nových hlasov, keď sa použije už zverejnený obraz výsledkov, a po každom
+ * novom hlase, keď sa obraz vytvára znova. Každá kombinácia parametrov beží vo vlastnom JVM, takže statický stav
+ * {@code VotingManager} obsahuje iba jej hlasy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormattedResultsBenchmark {
+
+    @Param({"2", "10", "50"})
+    public int candidates;
+
+    @Param({"10", "100", "250"})
+    public int states;
+
+    private int voter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int c = 0; c < candidates; c++) {
+            for (int s = 0; s < states; s++) {
+                VotingManager.addVote("Candidate " + c, "Bench Voter", 18 + voter % 80, "State " + s, "ID" + voter, 81101);
+                voter++;
+            }
+        }
+    }
+
+    @Benchmark
+    public String getFormattedResults() {
+        return VotingManager.getFormattedResults();
+    }
+
+    @Benchmark
+    public String getFormattedResultsAfterVote() {
+        VotingManager.addVote("Candidate 0", "Bench Voter", 40, "State 0", "ID" + voter++, 81101);
+        return VotingManager.getFormattedResults();
+    }
+}
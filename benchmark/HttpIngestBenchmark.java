@@ -0,0 +1,165 @@
+package benchmark;
+
+import ingest.VoteHttpServer;
+import metrics.LatencyHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Záťažový test HTTP príjmu hlasov cez loopback.
+ * <p>
+ * Každé spojenie je keep-alive a posiela po {@code hlbka} požiadaviek naraz (pipelining), potom prečíta
+ * rovnaký počet odpovedí. Latencia sa meria pre celú skupinu požiadaviek. Na záver sa zmeria dávkový
+ * {@code POST /votes}.
+ * Spustenie: {@code java benchmark.HttpIngestBenchmark [pocetHlasov] [spojenia] [hlbka]},
+ * predvolene 200 000 hlasov, 16 spojení a hĺbka 16.
+ * </p>
+ */
+public class HttpIngestBenchmark {
+    private static final int BATCH_ROWS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int votes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        VoteHttpServer server = VoteHttpServer.start(0, List.of("Ivan Prvy"));
+        try {
+            runSingleVotes(server.getPort(), votes, connections, depth);
+            runBatches(server.getPort(), votes, connections);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void runSingleVotes(int port, int votes, int connections, int depth) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        LongAdder accepted = new LongAdder();
+        LatencyHistogram latency = new LatencyHistogram();
+        List<Thread> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            Thread client = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                    socket.setTcpNoDelay(true);
+                    OutputStream out = socket.getOutputStream();
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    StringBuilder requests = new StringBuilder();
+                    int first;
+                    while ((first = next.getAndAdd(depth)) < votes) {
+                        int count = Math.min(depth, votes - first);
+                        requests.setLength(0);
+                        for (int i = first; i < first + count; i++) {
+                            String body = "candidate=Ivan+Prvy&name=Jan+Novak&age=" + (18 + i % 80)
+                                + "&state=Slovakia&id=http" + i + "&psc=" + (81101 + i % 900);
+                            requests.append("POST /vote HTTP/1.1\r\nHost: localhost\r\n")
+                                .append("Content-Type: application/x-www-form-urlencoded\r\n")
+                                .append("Content-Length: ").append(body.length()).append("\r\n\r\n").append(body);
+                        }
+                        long begin = System.nanoTime();
+                        out.write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                        for (int i = 0; i < count; i++) {
+                            if (readResponse(in) == 200) {
+                                accepted.increment();
+                            }
+                        }
+                        latency.record(System.nanoTime() - begin);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("POST /vote:  %,d requests in %.2f s, %,.0f req/s, accepted %,d%n",
+            votes, seconds, votes / seconds, accepted.sum());
+        System.out.printf("  round trip of %d pipelined requests: p50 %,d us, p99 %,d us, p99.9 %,d us%n", depth,
+            latency.getValueAtPercentile(50) / 1000, latency.getValueAtPercentile(99) / 1000,
+            latency.getValueAtPercentile(99.9) / 1000);
+    }
+
+    private static void runBatches(int port, int votes, int connections) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        List<Thread> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            Thread client = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                    OutputStream out = socket.getOutputStream();
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    StringBuilder body = new StringBuilder();
+                    int first;
+                    while ((first = next.getAndAdd(BATCH_ROWS)) < votes) {
+                        body.setLength(0);
+                        for (int i = first; i < Math.min(first + BATCH_ROWS, votes); i++) {
+                            body.append("Ivan Prvy,Jan Novak,").append(18 + i % 80).append(",Slovakia,batch")
+                                .append(i).append(',').append(81101 + i % 900).append('\n');
+                        }
+                        byte[] payload = body.toString().getBytes(StandardCharsets.US_ASCII);
+                        out.write(("POST /votes HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                            + "Content-Length: " + payload.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                        out.write(payload);
+                        out.flush();
+                        readResponse(in);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("POST /votes: %,d ballots in %.2f s, %,.0f ballots/s%n", votes, seconds, votes / seconds);
+    }
+
+    /**
+     * Prečíta jednu odpoveď s hlavičkou Content-Length a vráti jej stavový kód.
+     */
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        int length = 0;
+        String header;
+        while (!(header = readLine(in)).isEmpty()) {
+            if (header.regionMatches(true, 0, "Content-length:", 0, 15)) {
+                length = Integer.parseInt(header.substring(15).trim());
+            }
+        }
+        in.skipNBytes(length);
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1) {
+                throw new IOException("Connection closed");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import logic.CandidateRegistry;
+import logic.CountryRegistry;
+import logic.VoteJournal;
+import logic.VoteTally;
+import logic.VoterIdSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Meria rýchlosť zápisu do {@link VoteJournal} a rýchlosť jeho prehratia pri štarte.
+ * <p>
+ * Spustenie: {@code java benchmark.JournalBenchmark [pocetHlasov]}, predvolene 5 miliónov.
+ * </p>
+ */
+public class JournalBenchmark {
+    private static final int[] CANDIDATES = {CandidateRegistry.idOf("Ivan Prvy"), CandidateRegistry.idOf("Alexander Pekny"),
+        CandidateRegistry.idOf("Jana Mala"), CandidateRegistry.idOf("Peter Novy")};
+    private static final int[] STATES = {CountryRegistry.idOf("SK"), CountryRegistry.idOf("CZ"), CountryRegistry.idOf("AT"),
+        CountryRegistry.idOf("HU"), CountryRegistry.idOf("PL"), CountryRegistry.UNDETERMINED};
+
+    public static void main(String[] args) throws IOException {
+        int votes = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path file = Files.createTempFile("votes", ".journal");
+        try {
+            long start = System.nanoTime();
+            try (VoteJournal journal = VoteJournal.open(file, new VoteTally(), new VoterIdSet())) {
+                // one writer thread: queue the votes and let close() wait for the last group commit
+                for (int i = 0; i < votes; i++) {
+                    journal.enqueue(CANDIDATES[i % CANDIDATES.length], STATES[i % STATES.length], 18 + i % 80,
+                        81101 + i % 900, VoterIdSet.hash("SK" + i));
+                }
+            }
+            double appendSeconds = (System.nanoTime() - start) / 1e9;
+            long size = Files.size(file);
+
+            VoteTally tally = new VoteTally();
+            VoterIdSet ids = new VoterIdSet();
+            start = System.nanoTime();
+            try (VoteJournal journal = VoteJournal.open(file, tally, ids)) {
+                double replaySeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("votes:          %d%n", votes);
+                System.out.printf("journal size:   %.1f MB (%.1f bytes/vote)%n", size / 1e6, (double) size / votes);
+                System.out.printf("append + close: %.2f s (%.0f votes/s)%n", appendSeconds, votes / appendSeconds);
+                System.out.printf("replay:         %.2f s (%.0f votes/s), restored %d voters%n",
+                    replaySeconds, votes / replaySeconds, ids.size());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import logic.Leaderboard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark {@link Leaderboard}: réžia pridania hlasu do poradia a dotazy na víťaza a prvých
+ * troch kandidátov v porovnaní s triedením súčtov kandidátov pri každom dotaze, ako sa poradie
+ * zostavovalo predtým.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+    @Param({"8", "200"})
+    public int candidates;
+
+    private final Leaderboard board = new Leaderboard();
+    private long[] votes;
+    private int next;
+
+    @Setup
+    public void fill() {
+        votes = new long[candidates];
+        for (int i = 0; i < 1_000_000; i++) {
+            // skewed so that the ranking is stable, as in a real election
+            int candidateId = (int) ((long) i * i % candidates) % (i % 3 + 1 + candidates / 3);
+            board.add(candidateId, 1);
+            votes[candidateId]++;
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        board.add(next++ % candidates, 1);
+    }
+
+    @Benchmark
+    public String leader() {
+        return board.getLeader();
+    }
+
+    @Benchmark
+    public List<Leaderboard.Standing> top3() {
+        return board.getTop(3);
+    }
+
+    @Benchmark
+    public List<Map.Entry<Integer, Long>> top3BySorting() {
+        List<Map.Entry<Integer, Long>> entries = new ArrayList<>(candidates);
+        for (int candidateId = 0; candidateId < candidates; candidateId++) {
+            entries.add(Map.entry(candidateId, votes[candidateId]));
+        }
+        entries.sort(Map.Entry.<Integer, Long>comparingByValue().reversed());
+        return entries.subList(0, 3);
+    }
+}
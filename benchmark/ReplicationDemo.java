@@ -0,0 +1,138 @@
+package benchmark;
+
+import cluster.ClusterResults;
+import cluster.StationReplicator;
+import logic.Ballot;
+import logic.BatchResult;
+import logic.VotingManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Ukážka replikácie výsledkov medzi volebnými miestnosťami, každou v samostatnej JVM na loopbacku.
+ * <p>
+ * Miestnosti sú prepojené do kruhu, každá sa pýta iba nasledujúcej, takže zmeny musia prejsť aj cez
+ * tretiu miestnosť. Každá miestnosť prijme vlastných voličov a časť spoločných voličov, ktorí sa pokúsia
+ * hlasovať vo všetkých miestnostiach. Ukážka meria, za ako dlho sa miestnosti po poslednom hlase zbehnú
+ * k rovnakým výsledkom, a vypíše, koľko spoločných voličov stihlo hlasovať dvakrát.
+ * Spustenie: {@code java benchmark.ReplicationDemo [miestnosti] [hlasyNaMiestnost] [spolocniVolici]},
+ * predvolene 3 miestnosti, 200 000 hlasov a 10 000 spoločných voličov.
+ * </p>
+ */
+public class ReplicationDemo {
+    private static final String[] CANDIDATES = {"Ivan Prvy", "Alexander Pekny", "Jana Mala"};
+    private static final String[] STATES = {"Slovakia", "Czechia", "Austria"};
+    private static final int BATCH = 1000;
+    private static final long SYNC_INTERVAL_MILLIS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int stations = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int votes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int shared = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        int[] ports = new int[stations];
+        for (int i = 0; i < stations; i++) {
+            try (ServerSocket probe = new ServerSocket(0)) {
+                ports[i] = probe.getLocalPort();
+            }
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < stations; i++) {
+                String peer = InetAddress.getLoopbackAddress().getHostAddress() + ":" + ports[(i + 1) % stations];
+                processes.add(new ProcessBuilder(java, "-Xmx512m", "-Dvoting.metrics=false",
+                    "-cp", System.getProperty("java.class.path"), Station.class.getName(),
+                    "station" + i, Integer.toString(ports[i]), Integer.toString(votes), Integer.toString(shared), peer)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+            }
+            for (Process process : processes) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = reader.readLine();
+                if (line == null || !line.startsWith("DONE")) {
+                    throw new IllegalStateException("Station failed: " + line);
+                }
+                System.out.println(line);
+            }
+            long start = System.nanoTime();
+            ClusterResults[] results = new ClusterResults[stations];
+            while (true) {
+                for (int i = 0; i < stations; i++) {
+                    results[i] = StationReplicator.fetchResults(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), ports[i]));
+                }
+                if (converged(results, (long) stations * votes)) {
+                    break;
+                }
+                Thread.sleep(10);
+            }
+            System.out.printf("Converged %.0f ms after the last vote: %,d votes, %s%n",
+                (System.nanoTime() - start) / 1e6, results[0].getTotalVotes(), results[0].getCandidateVotes());
+            System.out.printf("Extra votes of %,d shared voters accepted before their stations synced: %,d%n",
+                shared, results[0].getTotalVotes() - (long) stations * votes - shared);
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    private static boolean converged(ClusterResults[] results, long ownVotes) {
+        for (ClusterResults result : results) {
+            if (result.getTotalVotes() < ownVotes
+                    || !Objects.equals(result.getCandidateVotes(), results[0].getCandidateVotes())
+                    || !Objects.equals(result.getStateTotals(), results[0].getStateTotals())
+                    || !Arrays.equals(result.getAgeBucketTotals(), results[0].getAgeBucketTotals())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Jedna volebná miestnosť: spustí replikáciu, prijme svoje hlasy a beží, kým ju ukážka neukončí.
+     */
+    public static class Station {
+        public static void main(String[] args) throws Exception {
+            String name = args[0];
+            int votes = Integer.parseInt(args[2]);
+            int shared = Integer.parseInt(args[3]);
+            StationReplicator replicator = StationReplicator.start(name, Integer.parseInt(args[1]),
+                StationReplicator.parsePeers(args[4]), SYNC_INTERVAL_MILLIS);
+            int sharedAccepted = 0;
+            List<Ballot> batch = new ArrayList<>(BATCH);
+            for (int first = 0; first < votes; first += BATCH) {
+                batch.clear();
+                for (int i = first; i < Math.min(first + BATCH, votes); i++) {
+                    batch.add(new Ballot(CANDIDATES[i % CANDIDATES.length], "Jan Novak", 18 + i % 70,
+                        STATES[i % STATES.length], name + "-" + i, 81101 + i % 900));
+                }
+                VotingManager.addVotes(batch);
+                // every station tries the same shared voters at about the same pace
+                int sharedFirst = (int) ((long) first * shared / votes);
+                int sharedLast = (int) ((long) Math.min(first + BATCH, votes) * shared / votes);
+                batch.clear();
+                for (int i = sharedFirst; i < sharedLast; i++) {
+                    batch.add(new Ballot(CANDIDATES[i % CANDIDATES.length], "Eva Mala", 40, STATES[0], "shared-" + i, 81101));
+                }
+                BatchResult result = VotingManager.addVotes(batch);
+                sharedAccepted += result.getAccepted();
+                Thread.sleep(2);
+            }
+            System.out.println("DONE " + name + ": " + votes + " own votes, " + sharedAccepted + " shared voters accepted");
+            System.out.flush();
+            Thread.currentThread().join();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import export.ResultsExporter;
+import export.ResultsFormat;
+import logic.ResultsSnapshot;
+import logic.VotingManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark exportu výsledkov cez {@link ResultsExporter} do prúdu, ktorý výstup zahodí,
+ * pri 50 kandidátoch a rôznom počte štátov; každý kandidát má hlasy v každom štáte.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultsExportBenchmark {
+    private static final int CANDIDATES = 50;
+
+    @Param({"10", "250"})
+    public int states;
+
+    @Param({"JSON", "CSV"})
+    public ResultsFormat format;
+
+    private ResultsSnapshot results;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int voter = 0;
+        for (int c = 0; c < CANDIDATES; c++) {
+            for (int s = 0; s < states; s++) {
+                VotingManager.addVote("Candidate " + c, "Bench Voter", 18 + voter % 80, "State " + s, "ID" + voter, 81101);
+                voter++;
+            }
+        }
+        results = VotingManager.getResultsSnapshot();
+    }
+
+    @Benchmark
+    public void export() throws IOException {
+        ResultsExporter.write(results, format, OutputStream.nullOutputStream());
+    }
+}
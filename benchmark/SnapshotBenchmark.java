@@ -0,0 +1,93 @@
+package benchmark;
+
+import logic.CandidateRegistry;
+import logic.CountryRegistry;
+import logic.VoteJournal;
+import logic.VoteSnapshotter;
+import logic.VoteTally;
+import logic.VoterIdSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Meria čas zápisu snapshotu a čas obnovy stavu so snapshotom a bez neho.
+ * <p>
+ * Spustenie: {@code java -Xmx4g benchmark.SnapshotBenchmark [pocetVolicov]}, predvolene 10 miliónov.
+ * </p>
+ */
+public class SnapshotBenchmark {
+    private static final int[] CANDIDATES = {CandidateRegistry.idOf("Ivan Prvy"), CandidateRegistry.idOf("Alexander Pekny"),
+        CandidateRegistry.idOf("Jana Mala"), CandidateRegistry.idOf("Peter Novy")};
+    private static final int[] STATES = {CountryRegistry.idOf("SK"), CountryRegistry.idOf("CZ"), CountryRegistry.idOf("AT"),
+        CountryRegistry.idOf("HU"), CountryRegistry.idOf("PL"), CountryRegistry.UNDETERMINED};
+
+    public static void main(String[] args) throws IOException {
+        int voters = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path dir = Files.createTempDirectory("vote-snapshot");
+        Path journalPath = dir.resolve("votes.journal");
+        try {
+            double firstSeconds;
+            double writeSeconds;
+            VoteTally tally = new VoteTally();
+            VoterIdSet ids = new VoterIdSet();
+            try (VoteJournal journal = VoteJournal.open(journalPath, tally, ids)) {
+                VoteSnapshotter snapshotter = VoteSnapshotter.start(journalPath, journal, tally, ids, Long.MAX_VALUE);
+                // one writer thread recording votes the way VotingManager does, waiting once at the end
+                long ticket = 0;
+                for (int i = 0; i < voters; i++) {
+                    long idHash = VoterIdSet.hash("SK" + i);
+                    ids.addHash(idHash);
+                    ticket = journal.enqueue(CANDIDATES[i % CANDIDATES.length], STATES[i % STATES.length], 18 + i % 80,
+                        81101 + i % 900, idHash);
+                    tally.record(CANDIDATES[i % CANDIDATES.length], 18 + i % 80, STATES[i % STATES.length], 81101 + i % 900);
+                }
+                journal.awaitDurable(ticket);
+
+                long start = System.nanoTime();
+                snapshotter.checkpoint();
+                firstSeconds = (System.nanoTime() - start) / 1e9;
+
+                long extra = VoterIdSet.hash("SK-extra");
+                ids.addHash(extra);
+                journal.append(CANDIDATES[0], STATES[0], 40, 81101, extra);
+                tally.record(CANDIDATES[0], 40, STATES[0], 81101);
+                start = System.nanoTime();
+                snapshotter.checkpoint();
+                writeSeconds = (System.nanoTime() - start) / 1e9;
+                snapshotter.close();
+            }
+
+            double snapshotRestore = restore(journalPath);
+            Files.delete(dir.resolve("votes.journal.snapshot"));
+            double journalRestore = restore(journalPath);
+
+            System.out.printf("voters:                      %d%n", voters + 1);
+            System.out.printf("first snapshot:              %.2f s%n", firstSeconds);
+            System.out.printf("snapshot after one vote:     %.2f s%n", writeSeconds);
+            System.out.printf("restore from snapshot:       %.2f s%n", snapshotRestore);
+            System.out.printf("restore from journal only:   %.2f s%n", journalRestore);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static double restore(Path journalPath) throws IOException {
+        VoterIdSet ids = new VoterIdSet();
+        long start = System.nanoTime();
+        try (VoteJournal journal = VoteJournal.open(journalPath, new VoteTally(), ids)) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (ids.size() == 0) {
+                throw new IllegalStateException("nothing was restored");
+            }
+            return seconds;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package benchmark;
+
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Meranie štartu aplikácie: čas do zobrazenia hlavného okna a čas do prvého prijatého hlasu.
+ * <p>
+ * Každý beh spustí zabalenú aplikáciu v novej JVM s prázdnym žurnálom a HTTP príjmom hlasov a posiela
+ * jej hlas, kým ho neprijme; čas sa meria od spustenia procesu. Čas do zobrazenia okna ohlási aplikácia
+ * na {@code GET /metrics}, bez grafického prostredia sa okno nezobrazuje. Porovnáva sa predvolený štart,
+ * rýchly štart a rýchly štart s archívom CDS z profilu {@code cds}, ak archív existuje.
+ * Spustenie po {@code mvn -Pcds package}:
+ * {@code java benchmark.StartupBenchmark [behy] [jar] [archív]}, predvolene 5 behov,
+ * {@code target/voting-application-1.0.jar} a {@code target/voting-application.jsa}.
+ * </p>
+ */
+public class StartupBenchmark {
+    private static final String VOTE = "candidate=Ivan+Prvy&name=Jan+Novak&age=30&state=Slovakia&id=startup1&psc=81101";
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path jar = Paths.get(args.length > 1 ? args[1] : "target/voting-application-1.0.jar").toAbsolutePath();
+        Path archive = Paths.get(args.length > 2 ? args[2] : "target/voting-application.jsa").toAbsolutePath();
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Build the jar first with mvn package: " + jar);
+        }
+
+        System.out.printf("%-16s %16s %16s%n", "mode", "first frame ms", "first vote ms");
+        run("default", runs, jar);
+        run("fast", runs, jar, "-Dvoting.startup.fast=true");
+        if (Files.exists(archive)) {
+            run("fast + CDS", runs, jar, "-XX:SharedArchiveFile=" + archive, "-Dvoting.startup.fast=true");
+        } else {
+            System.out.println("No CDS archive at " + archive + ", build it with mvn -Pcds package");
+        }
+    }
+
+    private static void run(String mode, int runs, Path jar, String... options) throws Exception {
+        long[] frames = new long[runs];
+        long[] votes = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] result = startOnce(jar, options);
+            frames[i] = result[0];
+            votes[i] = result[1];
+        }
+        long frame = median(frames);
+        System.out.printf("%-16s %16s %16d%n", mode, frame < 0 ? "-" : Long.toString(frame), median(votes));
+    }
+
+    /**
+     * @return Čas do zobrazenia okna podľa aplikácie (-1 bez okna) a čas do prvého prijatého hlasu v ms.
+     */
+    private static long[] startOnce(Path jar, String... options) throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        Path directory = Files.createTempDirectory("voting-startup");
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options));
+        if (GraphicsEnvironment.isHeadless()) {
+            command.add("-Djava.awt.headless=true");
+        }
+        command.add("-Dvoting.http.port=" + port);
+        command.add("-jar");
+        command.add(jar.toString());
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(directory.toFile())
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try {
+            String status;
+            while (!(status = request(port, "POST /vote", VOTE)).startsWith("HTTP/1.1 200")) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The application exited with " + process.exitValue());
+                }
+                if (!status.isEmpty()) {
+                    throw new IllegalStateException("The vote was not accepted: " + status);
+                }
+                Thread.sleep(1);
+            }
+            long vote = (System.nanoTime() - start) / 1_000_000;
+            long frame = -1;
+            while (!GraphicsEnvironment.isHeadless() && (frame = firstFrame(port)) < 0) {
+                Thread.sleep(10);
+            }
+            return new long[] {frame, vote};
+        } finally {
+            process.destroy();
+            process.waitFor();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static long firstFrame(int port) throws IOException {
+        for (String line : request(port, "GET /metrics", null).split("\n")) {
+            if (line.startsWith("gauge startup.firstFrame.millis ")) {
+                return Long.parseLong(line.substring(line.lastIndexOf(' ') + 1).trim());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pošle jednu požiadavku.
+     * @return Stavový riadok, pri {@code GET} celá odpoveď; prázdny reťazec, kým server nepočúva.
+     */
+    private static String request(int port, String request, String form) throws IOException {
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        } catch (IOException e) {
+            return "";
+        }
+        try (socket) {
+            StringBuilder message = new StringBuilder(request).append(" HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n");
+            if (form != null) {
+                message.append("Content-Type: application/x-www-form-urlencoded\r\nContent-Length: ")
+                    .append(form.length()).append("\r\n\r\n").append(form);
+            } else {
+                message.append("\r\n");
+            }
+            OutputStream out = socket.getOutputStream();
+            out.write(message.toString().getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            if (form != null) {
+                String status = in.readLine();
+                return status == null ? "" : status;
+            }
+            StringBuilder response = new StringBuilder();
+            for (String line; (line = in.readLine()) != null; ) {
+                response.append(line).append('\n');
+            }
+            return response.toString();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
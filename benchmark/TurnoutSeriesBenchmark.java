@@ -0,0 +1,48 @@
+package benchmark;
+
+import logic.TurnoutSeries;
+import logic.VoteChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark záznamu lístka do {@link TurnoutSeries}, teda réžie, ktorú priebeh účasti pridáva
+ * ku každému {@code addVote}, a čítania poslednej hodiny po minútach. {@code recordContended} meria
+ * záznam z ôsmich vlákien naraz do toho istého spôsobu hlasovania a tej istej sekundy, ako pri súbežnom
+ * príjme hlasov; čas je priemer na jedno volanie jedného vlákna.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TurnoutSeriesBenchmark {
+    private final TurnoutSeries turnout = new TurnoutSeries();
+
+    @Benchmark
+    public void record() {
+        turnout.record(VoteChannel.ONLINE, true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended() {
+        turnout.record(VoteChannel.ONLINE, true);
+    }
+
+    @Benchmark
+    public long[] lastHourByMinute() {
+        return turnout.getCounts(VoteChannel.ONLINE, true, TurnoutSeries.Resolution.MINUTE, 60);
+    }
+}
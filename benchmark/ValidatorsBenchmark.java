@@ -0,0 +1,82 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import validation.ValidationError;
+import validation.VoterValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark validátorov vstupu: pôvodné regulárne výrazy z {@code VotingApplication}
+ * ({@code String.matches}) oproti {@link VoterValidator} pre každé pole zvlášť.
+ * <p>
+ * Meno s diakritikou regulárny výraz odmietne už pri prvom znaku, kým {@link VoterValidator} ho
+ * prejde celé a prijme.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class ValidatorsBenchmark {
+    public String name = "Alexander Pekny";
+    public String slovakName = "Ľudmila Šťastná";
+    public String id = "855101/1234";
+    public String zipCode = "81101";
+    public String address = "Hlavna 12";
+
+    @Benchmark
+    public boolean regexName() {
+        return name.matches("[a-zA-Z\\s]+");
+    }
+
+    @Benchmark
+    public ValidationError validatorName() {
+        return VoterValidator.validateName(name);
+    }
+
+    @Benchmark
+    public boolean regexSlovakName() {
+        return slovakName.matches("[a-zA-Z\\s]+");
+    }
+
+    @Benchmark
+    public ValidationError validatorSlovakName() {
+        return VoterValidator.validateName(slovakName);
+    }
+
+    @Benchmark
+    public ValidationError validatorId() {
+        return VoterValidator.validateId(id);
+    }
+
+    @Benchmark
+    public boolean regexPsc() {
+        return zipCode.matches("\\d+");
+    }
+
+    @Benchmark
+    public ValidationError validatorPsc() {
+        return VoterValidator.validatePsc(zipCode);
+    }
+
+    @Benchmark
+    public boolean regexAddress() {
+        return address.matches("\\p{Alpha}+\\s+\\d+");
+    }
+
+    @Benchmark
+    public ValidationError validatorAddress() {
+        return VoterValidator.validateAddress(address);
+    }
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import logic.VoterIdSet;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Porovnáva pamäťovú náročnosť a rýchlosť {@link VoterIdSet} s pôvodnou {@code HashSet<String>}.
+ * <p>
+ * Spustenie: {@code java -Xmx12g benchmark.VoterIdSetBenchmark [pocty oddelene ciarkou]},
+ * predvolene 1M, 10M a 50M ID. Pre 50M ID potrebuje {@code HashSet} približne 5 GB haldy.
+ * </p>
+ */
+public class VoterIdSetBenchmark {
+
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "1000000,10000000,50000000";
+        System.out.printf("%10s %-12s %12s %12s %12s%n", "ids", "structure", "insert ms", "lookup ns", "bytes/id");
+        for (String size : sizes.split(",")) {
+            int count = Integer.parseInt(size.trim());
+            measureHashSet(count);
+            measureVoterIdSet(count);
+        }
+    }
+
+    private static String id(int i) {
+        return "SK" + (100_000_000 + i);
+    }
+
+    private static void measureHashSet(int count) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        Set<String> set = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            set.add(id(i));
+        }
+        long insertMs = (System.nanoTime() - start) / 1_000_000;
+        double bytesPerId = (double) (usedHeap() - before) / count;
+        double lookupNs = lookup(set::contains, count);
+        System.out.printf("%10d %-12s %12d %12.1f %12.1f%n", count, "HashSet", insertMs, lookupNs, bytesPerId);
+    }
+
+    private static void measureVoterIdSet(int count) {
+        long start = System.nanoTime();
+        VoterIdSet set = new VoterIdSet();
+        for (int i = 0; i < count; i++) {
+            set.add(id(i));
+        }
+        long insertMs = (System.nanoTime() - start) / 1_000_000;
+        double lookupNs = lookup(set::contains, count);
+        System.out.printf("%10d %-12s %12d %12.1f %12.1f%n", count, "VoterIdSet", insertMs, lookupNs, set.bytesPerEntry());
+    }
+
+    private static double lookup(Predicate<String> contains, int count) {
+        int probes = Math.min(count, 1_000_000);
+        String[] ids = new String[probes];
+        for (int i = 0; i < probes; i++) {
+            ids[i] = id((int) ((i * 2_654_435_761L) % count));
+        }
+        int hits = 0;
+        long start = System.nanoTime();
+        for (String id : ids) {
+            if (contains.test(id)) {
+                hits++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (hits != probes) {
+            throw new IllegalStateException("lookup missed " + (probes - hits) + " ids");
+        }
+        return (double) elapsed / probes;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
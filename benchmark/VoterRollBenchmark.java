@@ -0,0 +1,144 @@
+package benchmark;
+
+import ingest.VoterRollBuilder;
+import logic.CountryRegistry;
+import logic.Eligibility;
+import logic.VoterIdSet;
+import logic.VoterRoll;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Meria vytvorenie zoznamu voličov {@link VoterRoll}, čas od otvorenia súboru po prvé overenie voliča
+ * a latenciu overenia registrovaného a neregistrovaného voliča.
+ * <p>
+ * Pre porovnanie času štartu načíta rovnaký zoznam z CSV do {@code HashMap}, čo je to, čo by aplikácia
+ * bez namapovaného súboru musela urobiť pri každom spustení. Súbor zoznamu je po vytvorení v cache
+ * operačného systému, čas otvorenia teda nezahŕňa čítanie z disku.
+ * Spustenie: {@code java -Xmx4g benchmark.VoterRollBenchmark [pocty oddelene ciarkou]},
+ * predvolene 1M a 10M voličov.
+ * </p>
+ */
+public class VoterRollBenchmark {
+    private static final String[] STATES = {"SK", "CZ", "AT", "HU", "PL"};
+
+    public static void main(String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : "1000000,10000000";
+        System.out.printf("%10s %10s %12s %12s %10s %10s %12s%n",
+            "voters", "build ms", "open+1st us", "HashMap ms", "hit ns", "miss ns", "file MiB");
+        for (String size : sizes.split(",")) {
+            measure(Integer.parseInt(size.trim()));
+        }
+    }
+
+    private static String id(int i) {
+        return "SK" + (100_000_000 + i);
+    }
+
+    private static void measure(int count) throws IOException {
+        Path csv = Files.createTempFile("voters", ".csv");
+        Path file = Files.createTempFile("voters", ".roll");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                writer.write("ID,age,state,psc\n");
+                for (int i = 0; i < count; i++) {
+                    writer.write(id(i) + ',' + age(i) + ',' + STATES[i % STATES.length] + ',' + psc(i) + '\n');
+                }
+            }
+            long start = System.nanoTime();
+            VoterRollBuilder.build(csv, file);
+            long buildMs = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            double openUs;
+            double hitNs;
+            double missNs;
+            try (VoterRoll roll = VoterRoll.open(file)) {
+                if (roll.check(id(count / 2), age(count / 2), STATES[count / 2 % STATES.length], psc(count / 2))
+                        != Eligibility.ELIGIBLE) {
+                    throw new IllegalStateException("Voter missing from the roll");
+                }
+                openUs = (System.nanoTime() - start) / 1e3;
+                hitNs = lookup(roll, count, 0);
+                missNs = lookup(roll, count, count);
+            }
+            long hashMapMs = loadHashMap(csv, count);
+            System.out.printf("%10d %10d %12.1f %12d %10.1f %10.1f %12.1f%n", count, buildMs, openUs, hashMapMs,
+                hitNs, missNs, Files.size(file) / (1024.0 * 1024.0));
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int age(int i) {
+        return 18 + i % 80;
+    }
+
+    private static int psc(int i) {
+        return 81101 + i % 900;
+    }
+
+    /**
+     * @return Priemerný čas jedného overenia v ns; ID sa vopred prevedú na odtlačky a štáty na ID.
+     */
+    private static double lookup(VoterRoll roll, int count, int offset) {
+        int probes = Math.min(count, 1_000_000);
+        long[] hashes = new long[probes];
+        int[] ages = new int[probes];
+        int[] states = new int[probes];
+        int[] pscs = new int[probes];
+        for (int i = 0; i < probes; i++) {
+            int voter = (int) ((i * 2_654_435_761L) % count);
+            hashes[i] = VoterIdSet.hash(id(voter + offset));
+            ages[i] = age(voter);
+            states[i] = CountryRegistry.idOf(STATES[voter % STATES.length]);
+            pscs[i] = psc(voter);
+        }
+        Eligibility expected = offset == 0 ? Eligibility.ELIGIBLE : Eligibility.NOT_REGISTERED;
+        for (int i = 0; i < probes; i++) {
+            // warm-up and correctness check in one pass
+            if (roll.check(hashes[i], ages[i], states[i], pscs[i]) != expected) {
+                throw new IllegalStateException("Unexpected result for voter " + i);
+            }
+        }
+        int unexpected = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < probes; i++) {
+                if (roll.check(hashes[i], ages[i], states[i], pscs[i]) != expected) {
+                    unexpected++;
+                }
+            }
+        }
+        double ns = (System.nanoTime() - start) / (5.0 * probes);
+        if (unexpected != 0) {
+            throw new IllegalStateException(unexpected + " unexpected results");
+        }
+        return ns;
+    }
+
+    private static long loadHashMap(Path csv, int count) throws IOException {
+        long start = System.nanoTime();
+        Map<String, int[]> voters = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                voters.put(fields[0], new int[] {Integer.parseInt(fields[1]), Integer.parseInt(fields[3])});
+            }
+        }
+        if (voters.size() != count) {
+            throw new IllegalStateException("Unexpected voter count " + voters.size());
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import logic.VotingManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMH benchmark hlasovania cez {@link VotingManager#addVote} a kontroly {@link VotingManager#hasAlreadyVoted}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VotingManagerBenchmark {
+    private static final String[] CANDIDATES = {"Ivan Prvy", "Alexander Pekny", "Jana Mala", "Peter Novy"};
+    private static final String[] STATES = {"Slovakia", "Czechia", "Austria", "Hungary", "Poland", "Undetermined"};
+    private static final int REGISTERED = 1_000_000;
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    /**
+     * Stav vlákna, ktoré odovzdáva hlasy s vlastnými, nikdy sa neopakujúcimi ID.
+     */
+    @State(Scope.Thread)
+    public static class Voter {
+        String prefix;
+        long next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            prefix = "jmh-" + THREAD_IDS.incrementAndGet() + '-';
+        }
+    }
+
+    /**
+     * Milión voličov, ktorí už hlasovali, pre meranie kontroly duplicity.
+     */
+    @State(Scope.Benchmark)
+    public static class Registered {
+        String[] voted;
+        String[] notVoted;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            voted = new String[REGISTERED];
+            notVoted = new String[REGISTERED];
+            for (int i = 0; i < REGISTERED; i++) {
+                voted[i] = "SK" + (100_000_000 + i);
+                notVoted[i] = "CZ" + (100_000_000 + i);
+                VotingManager.addVote(CANDIDATES[i % CANDIDATES.length], "Registered Voter", 18 + i % 80,
+                    STATES[i % STATES.length], voted[i], 81101);
+            }
+        }
+
+        int next() {
+            cursor = cursor + 1 == REGISTERED ? 0 : cursor + 1;
+            return cursor;
+        }
+    }
+
+    private static boolean vote(Voter voter) {
+        long n = voter.next++;
+        return VotingManager.addVote(CANDIDATES[(int) (n & 3)], "Bench Voter", 18 + (int) (n % 80),
+            STATES[(int) (n % STATES.length)], voter.prefix + n, 81101);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean addVoteSingleThreaded(Voter voter) {
+        return vote(voter);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean addVoteContended(Voter voter) {
+        return vote(voter);
+    }
+
+    @Benchmark
+    public boolean hasAlreadyVotedHit(Registered registered) {
+        return VotingManager.hasAlreadyVoted(registered.voted[registered.next()]);
+    }
+
+    @Benchmark
+    public boolean hasAlreadyVotedMiss(Registered registered) {
+        return VotingManager.hasAlreadyVoted(registered.notVoted[registered.next()]);
+    }
+}
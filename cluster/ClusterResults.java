@@ -0,0 +1,101 @@
+package cluster;
+
+import logic.VoteTally;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trieda {@code ClusterResults} obsahuje výsledky zlúčené z čiastkových súčtov všetkých uzlov zhluku.
+ * <p>
+ * Každý uzol pošle nenulové bunky kandidát × štát × veková skupina a koordinátor ich sčíta. Výsledok
+ * sa po vytvorení nemení; novšie hlasy obsahuje až ďalšie volanie {@link ShardedVotingManager#getResults()}.
+ * </p>
+ */
+public final class ClusterResults {
+    private final Map<String, Long> candidateVotes = new LinkedHashMap<>();
+    private final Map<String, Long> stateTotals = new TreeMap<>();
+    private final Map<String, Map<String, Long>> stateVotes = new TreeMap<>();
+    private final long[] ageBuckets = new long[VoteTally.AGE_BUCKETS];
+    private long totalVotes;
+
+    ClusterResults() {
+    }
+
+    void add(String candidate, String state, int bucket, long votes) {
+        candidateVotes.merge(candidate, votes, Long::sum);
+        stateTotals.merge(state, votes, Long::sum);
+        stateVotes.computeIfAbsent(state, s -> new LinkedHashMap<>()).merge(candidate, votes, Long::sum);
+        ageBuckets[bucket] += votes;
+        totalVotes += votes;
+    }
+
+    /**
+     * @param candidate Meno kandidáta.
+     * @return Počet hlasov kandidáta vo všetkých uzloch.
+     */
+    public long getCandidateVotes(String candidate) {
+        return candidateVotes.getOrDefault(candidate, 0L);
+    }
+
+    /**
+     * @return Počet hlasov podľa kandidáta v poradí, v akom ho uzly prvýkrát poslali.
+     */
+    public Map<String, Long> getCandidateVotes() {
+        return Collections.unmodifiableMap(candidateVotes);
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @return Počet hlasov odovzdaných v štáte.
+     */
+    public long getStateTotal(String state) {
+        return stateTotals.getOrDefault(state, 0L);
+    }
+
+    /**
+     * @return Počet hlasov podľa štátu zoradený podľa názvu štátu.
+     */
+    public Map<String, Long> getStateTotals() {
+        return Collections.unmodifiableMap(stateTotals);
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @param candidate Meno kandidáta.
+     * @return Počet hlasov kandidáta v štáte.
+     */
+    public long getStateVotes(String state, String candidate) {
+        return stateVotes.getOrDefault(state, Collections.emptyMap()).getOrDefault(candidate, 0L);
+    }
+
+    /**
+     * @return Počty hlasov podľa vekovej skupiny, indexované ako {@link VoteTally#getAgeBucketTotals()}.
+     */
+    public long[] getAgeBucketTotals() {
+        return ageBuckets.clone();
+    }
+
+    public long getTotalVotes() {
+        return totalVotes;
+    }
+
+    /**
+     * @return Výsledky v tvare HTML ako {@link logic.VotingManager#getFormattedResults()}.
+     */
+    public String getFormattedResults() {
+        StringBuilder results = new StringBuilder("<html>");
+        candidateVotes.forEach((candidate, votes) -> results.append("Candidate: ").append(candidate)
+            .append(", Total number of votes: ").append(votes).append("<br>"));
+        results.append("Age demographics:<br>")
+            .append("18-30: ").append(ageBuckets[VoteTally.FROM_18_TO_30]).append("<br>")
+            .append("31-60: ").append(ageBuckets[VoteTally.FROM_31_TO_60]).append("<br>")
+            .append("60+: ").append(ageBuckets[VoteTally.OVER_60]).append("<br>");
+        results.append("Votes by state:<br>");
+        stateTotals.forEach((state, votes) -> results.append("State: ").append(state)
+            .append(", Total votes: ").append(votes).append("<br>"));
+        return results.append("</html>").toString();
+    }
+}
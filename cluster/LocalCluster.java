@@ -0,0 +1,111 @@
+package cluster;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trieda {@code LocalCluster} spustí zhluk uzlov {@link ShardNode} ako samostatné JVM na tomto počítači
+ * a pripojí k nim {@link ShardedVotingManager} cez loopback. Slúži na skúšanie a meranie zhlukovaného
+ * režimu bez ďalších strojov.
+ * <p>
+ * Uzly sa spúšťajú s rovnakou cestou tried ako aktuálna JVM a každý si zvolí voľný port. Ich chybový
+ * výstup sa presmeruje do chybového výstupu aktuálnej JVM. Zatvorenie zhluku uzly ukončí.
+ * </p>
+ */
+public final class LocalCluster implements Closeable {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final List<Process> processes;
+    private final ShardedVotingManager manager;
+
+    private LocalCluster(List<Process> processes, ShardedVotingManager manager) {
+        this.processes = processes;
+        this.manager = manager;
+    }
+
+    /**
+     * Spustí uzly a počká, kým všetky neotvoria port.
+     * @param shards Počet uzlov.
+     * @param candidates Kandidáti, za ktorých uzly prijmú hlas.
+     * @param jvmOptions Ďalšie voľby JVM uzlov, napr. {@code -Xmx1g}.
+     * @return Bežiaci zhluk s pripojeným koordinátorom.
+     * @throws IOException ak niektorý uzol nemožno spustiť.
+     */
+    public static LocalCluster start(int shards, Collection<String> candidates, String... jvmOptions)
+            throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.addAll(Arrays.asList(jvmOptions));
+                command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"),
+                    ShardNode.class.getName(), "0", Integer.toString(shard), Integer.toString(shards),
+                    String.join(",", candidates)));
+                processes.add(new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+            }
+            // all nodes start in parallel; only now wait for each one to report its port
+            List<InetSocketAddress> nodes = new ArrayList<>();
+            for (Process process : processes) {
+                nodes.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), readPort(process)));
+            }
+            return new LocalCluster(processes, ShardedVotingManager.connect(nodes));
+        } catch (IOException | RuntimeException e) {
+            destroy(processes);
+            throw e;
+        }
+    }
+
+    private static int readPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        if (line == null || !line.startsWith("READY ")) {
+            throw new IOException("Shard node did not start: " + line);
+        }
+        return Integer.parseInt(line.substring("READY ".length()).trim());
+    }
+
+    /**
+     * @return Koordinátor pripojený ku všetkým uzlom zhluku.
+     */
+    public ShardedVotingManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Zatvorí spojenia koordinátora a ukončí uzly.
+     */
+    @Override
+    public void close() {
+        manager.close();
+        destroy(processes);
+    }
+
+    private static void destroy(List<Process> processes) {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
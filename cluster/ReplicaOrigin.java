@@ -0,0 +1,211 @@
+package cluster;
+
+import logic.CandidateRegistry;
+import logic.CountryRegistry;
+import logic.VoteTally;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Príspevok jedného behu jednej volebnej miestnosti ku replikovanému stavu {@link StationReplicator}.
+ * <p>
+ * Obsahuje dve časti CRDT. Prvá je zložka G-countera: počty hlasov tohto behu podľa kandidáta, štátu
+ * a vekovej skupiny, ktoré iba rastú a pri zlúčení sa berie väčšia hodnota. Druhá je časť G-setu
+ * odtlačkov ID: zoznam, do ktorého sa iba pridáva, v poradí, v akom miestnosť hlasy prijala.
+ * </p>
+ * <p>
+ * Verziou zoznamu je jeho dĺžka a každá bunka počtov nesie verziu, pri ktorej sa naposledy zmenila.
+ * Miestnosť, ktorá pozná verzie {@code (h, c)}, tak dostane iba odtlačky od pozície {@code h} a bunky
+ * s verziou väčšou ako {@code c}. Cena zlúčenia je úmerná počtu zmien. Delty sa dajú posielať ďalej
+ * bez ohľadu na to, od koho prišli, pretože verzie určuje iba pôvodná miestnosť.
+ * </p>
+ */
+final class ReplicaOrigin {
+    private static final int MAX_HASHES_PER_DELTA = 1 << 18;
+    private static final int MAX_CELLS_PER_DELTA = 1 << 18;
+
+    final String id;
+    final String station;
+    private long[] hashes = new long[1024];
+    private int hashCount;
+    private final Map<Long, long[]> cells = new HashMap<>(); // cell key -> {votes, version}
+    private long cellVersion;
+
+    ReplicaOrigin(String id) {
+        this.id = id;
+        int separator = id.lastIndexOf('#');
+        this.station = separator < 0 ? id : id.substring(0, separator);
+    }
+
+    static long cellKey(int candidateId, int stateId, int bucket) {
+        return (long) candidateId << 32 | (long) stateId << 2 | bucket;
+    }
+
+    static int candidateOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int stateOf(long key) {
+        return (int) key >>> 2;
+    }
+
+    static int bucketOf(long key) {
+        return (int) key & 3;
+    }
+
+    synchronized int getHashCount() {
+        return hashCount;
+    }
+
+    synchronized long getCellVersion() {
+        return cellVersion;
+    }
+
+    /**
+     * Pridá odtlačok ID hlasu prijatého v tomto behu.
+     */
+    synchronized void appendHash(long hash) {
+        if (hashCount == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        hashes[hashCount++] = hash;
+    }
+
+    /**
+     * Nastaví počet hlasov bunky tohto behu; volá sa iba pre vlastný beh miestnosti.
+     */
+    synchronized void setCell(long key, long votes) {
+        long[] cell = cells.get(key);
+        if (cell == null) {
+            cells.put(key, new long[] {votes, ++cellVersion});
+        } else if (cell[0] != votes) {
+            cell[0] = votes;
+            cell[1] = ++cellVersion;
+        }
+    }
+
+    /**
+     * Pripočíta počty hlasov tohto behu k {@code totals} podľa kľúča bunky.
+     */
+    synchronized void addTo(Map<Long, Long> totals) {
+        cells.forEach((key, cell) -> totals.merge(key, cell[0], Long::sum));
+    }
+
+    /**
+     * @return true, ak má tento beh zmeny, ktoré miestnosť s danými verziami ešte nevidela.
+     */
+    synchronized boolean isNewerThan(int knownHashes, long knownCellVersion) {
+        return hashCount > knownHashes || cellVersion > knownCellVersion;
+    }
+
+    /**
+     * Zapíše deltu voči verziám {@code knownHashes} a {@code knownCellVersion}. Odtlačkov sa pošle
+     * najviac {@link #MAX_HASHES_PER_DELTA} a buniek najviac {@link #MAX_CELLS_PER_DELTA}, zvyšok príde
+     * pri ďalšej synchronizácii.
+     */
+    void writeDelta(DataOutput out, ShardProtocol.SymbolWriter symbols, int knownHashes, long knownCellVersion)
+            throws IOException {
+        long[] hashDelta;
+        int start;
+        long version;
+        List<long[]> changed = new ArrayList<>();
+        // copy under the lock, write after it, so a slow peer never blocks accepted votes
+        synchronized (this) {
+            start = Math.min(knownHashes, hashCount);
+            hashDelta = Arrays.copyOfRange(hashes, start, Math.min(hashCount, start + MAX_HASHES_PER_DELTA));
+            version = cellVersion;
+            cells.forEach((key, cell) -> {
+                if (cell[1] > knownCellVersion) {
+                    changed.add(new long[] {key, cell[0], cell[1]});
+                }
+            });
+        }
+        List<long[]> sent = changed;
+        if (changed.size() > MAX_CELLS_PER_DELTA) {
+            // versions are unique per run, so the oldest cells go first and the peer asks from the last one sent
+            changed.sort((a, b) -> Long.compare(a[2], b[2]));
+            sent = changed.subList(0, MAX_CELLS_PER_DELTA);
+            version = sent.get(MAX_CELLS_PER_DELTA - 1)[2];
+        }
+        ShardProtocol.writeVarInt(out, start);
+        ShardProtocol.writeVarInt(out, hashDelta.length);
+        for (long hash : hashDelta) {
+            out.writeLong(hash);
+        }
+        ShardProtocol.writeVarLong(out, version);
+        ShardProtocol.writeVarInt(out, sent.size());
+        for (long[] cell : sent) {
+            symbols.write(out, CandidateRegistry.nameOf(candidateOf(cell[0])));
+            symbols.write(out, CountryRegistry.isoCodeOf(stateOf(cell[0])));
+            out.writeByte(bucketOf(cell[0]));
+            ShardProtocol.writeVarLong(out, cell[1]);
+            ShardProtocol.writeVarLong(out, cell[2]);
+        }
+    }
+
+    /**
+     * Prečíta deltu zapísanú {@link #writeDelta} a zlúči ju s týmto behom.
+     * @param newHash Volá sa pre každý odtlačok, ktorý tento beh ešte nemal.
+     */
+    void readDelta(DataInput in, ShardProtocol.SymbolReader symbols, LongConsumer newHash) throws IOException {
+        int start = ShardProtocol.readVarInt(in);
+        int count = ShardProtocol.readVarInt(in);
+        if (count > MAX_HASHES_PER_DELTA) {
+            throw new IOException("Malformed replication delta");
+        }
+        long[] hashDelta = new long[count];
+        for (int i = 0; i < count; i++) {
+            hashDelta[i] = in.readLong();
+        }
+        long version = ShardProtocol.readVarLong(in);
+        int cellCount = ShardProtocol.readVarInt(in);
+        if (cellCount > MAX_CELLS_PER_DELTA) {
+            throw new IOException("Malformed replication delta");
+        }
+        long[] keys = new long[cellCount];
+        long[] votes = new long[cellCount];
+        long[] versions = new long[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            int candidateId = CandidateRegistry.idOf(symbols.read(in));
+            int stateId = CountryRegistry.idOfIsoCode(symbols.read(in));
+            int bucket = in.readUnsignedByte();
+            if (bucket >= VoteTally.AGE_BUCKETS) {
+                throw new IOException("Unknown age bucket " + bucket);
+            }
+            keys[i] = cellKey(candidateId, stateId, bucket);
+            votes[i] = ShardProtocol.readVarLong(in);
+            versions[i] = ShardProtocol.readVarLong(in);
+        }
+        merge(start, hashDelta, version, keys, votes, versions, newHash);
+    }
+
+    private synchronized void merge(int start, long[] hashDelta, long version, long[] keys, long[] votes,
+                                    long[] versions, LongConsumer newHash) {
+        // a delta that starts past the end would leave a gap; the next sync asks from the right position
+        if (start <= hashCount) {
+            for (int i = hashCount - start; i < hashDelta.length; i++) {
+                newHash.accept(hashDelta[i]);
+                appendHash(hashDelta[i]);
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            long[] cell = cells.get(keys[i]);
+            if (cell == null) {
+                cells.put(keys[i], new long[] {votes[i], versions[i]});
+            } else if (versions[i] > cell[1]) {
+                // counts of one run only grow, so the newer version carries the larger count
+                cell[0] = votes[i];
+                cell[1] = versions[i];
+            }
+        }
+        cellVersion = Math.max(cellVersion, version);
+    }
+}
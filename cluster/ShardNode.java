@@ -0,0 +1,240 @@
+package cluster;
+
+import logic.Ballot;
+import logic.BatchResult;
+import logic.CandidateRegistry;
+import logic.CountryRegistry;
+import logic.VirtualThreads;
+import logic.VoteChannel;
+import logic.VotingManager;
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Trieda {@code ShardNode} je jeden uzol zhlukovaného hlasovania. Vlastní tú časť voličov, ktorých ID
+ * {@link ShardedVotingManager#shardOf(String, int)} priradí jeho poradiu, a ich hlasy započítava do
+ * {@link VotingManager} vlastnej JVM, teda do vlastnej množiny ID aj vlastných čiastkových súčtov.
+ * <p>
+ * Uzol počúva na TCP porte a každé spojenie od koordinátora obsluhuje vo vlastnom vlákne podľa
+ * {@link ShardProtocol}. Keďže každé ID patrí práve jednému uzlu, deduplikácia v rámci uzla stačí na
+ * odmietnutie opakovaného hlasu v celom zhluku.
+ * </p>
+ * <p>
+ * Spustenie: {@code java cluster.ShardNode port poradie pocetShardov kandidat,kandidat... [zurnal]};
+ * port 0 zvolí voľný port. Po otvorení portu uzol vypíše na štandardný výstup riadok {@code READY port}.
+ * Hlas za kandidáta mimo zoznamu, s ktorým sa uzol spustil, odmietne ako {@code REJECTED}, takže cez sieť
+ * nepribúdajú nové mená v {@link CandidateRegistry}.
+ * </p>
+ * <p>
+ * Protokol nemá overovanie, preto uzol počúva iba na adrese {@code localhost}. Uzol na inom stroji treba
+ * spustiť s adresou v {@link #BIND_ADDRESS_PROPERTY} alebo cez {@link #start(InetSocketAddress, int, int, Collection)}
+ * a port chrániť na úrovni siete.
+ * </p>
+ */
+public final class ShardNode implements Closeable {
+    /** Systémová vlastnosť s adresou, na ktorej počúva uzol spustený cez {@link #main(String[])}. */
+    public static final String BIND_ADDRESS_PROPERTY = "voting.shard.bind";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BATCH = 1 << 20;
+
+    private final ServerSocket server;
+    private final int shard;
+    private final int shards;
+    private final Set<String> candidates;
+    private final ExecutorService executor;
+    private final Thread acceptor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Counter batches = Metrics.counter("cluster.node.batches");
+    private volatile boolean closed;
+
+    private ShardNode(ServerSocket server, int shard, int shards, Collection<String> candidates) {
+        this.server = server;
+        this.shard = shard;
+        this.shards = shards;
+        this.candidates = Set.copyOf(candidates);
+        this.executor = VirtualThreads.newPerTaskExecutor(64);
+        this.acceptor = new Thread(this::acceptLoop, "shard-node-" + shard);
+    }
+
+    /**
+     * Otvorí port na adrese {@code localhost} a začne prijímať spojenia koordinátora.
+     * @see #start(InetSocketAddress, int, int, Collection)
+     */
+    public static ShardNode start(int port, int shard, int shards, Collection<String> candidates) throws IOException {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), shard, shards, candidates);
+    }
+
+    /**
+     * Otvorí port a začne prijímať spojenia koordinátora.
+     * @param address Adresa a port, na ktorých uzol počúva; port 0 zvolí voľný port.
+     * @param shard Poradie uzla od 0.
+     * @param shards Počet uzlov zhluku.
+     * @param candidates Kandidáti, za ktorých uzol prijme hlas.
+     * @return Bežiaci uzol.
+     * @throws IOException ak port nemožno otvoriť.
+     */
+    public static ShardNode start(InetSocketAddress address, int shard, int shards, Collection<String> candidates)
+            throws IOException {
+        if (shards < 1 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("Invalid shard " + shard + " of " + shards);
+        }
+        ShardNode node = new ShardNode(new ServerSocket(address.getPort(), 1024, address.getAddress()), shard, shards,
+            candidates);
+        node.acceptor.start();
+        return node;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: java cluster.ShardNode port shard shards candidate,candidate... [journal]");
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+        if (args.length > 4) {
+            VotingManager.openJournal(Paths.get(args[4]));
+            Runtime.getRuntime().addShutdownHook(new Thread(VotingManager::closeJournal, "journal-close"));
+        }
+        String bind = System.getProperty(BIND_ADDRESS_PROPERTY);
+        InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+        ShardNode node = start(new InetSocketAddress(address, Integer.parseInt(args[0])), Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]), List.of(args[3].split("\\s*,\\s*")));
+        System.out.println("READY " + node.getPort());
+        System.out.flush();
+        node.acceptor.join();
+    }
+
+    /**
+     * @return Port, na ktorom uzol počúva.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Prestane prijímať spojenia a zatvorí otvorené spojenia.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+        executor.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                connections.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Shard node failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            if (in.readInt() != ShardProtocol.MAGIC || in.readInt() != ShardProtocol.VERSION) {
+                throw new IOException("Unsupported protocol");
+            }
+            out.writeInt(ShardProtocol.MAGIC);
+            out.writeInt(ShardProtocol.VERSION);
+            out.writeInt(shard);
+            out.writeInt(shards);
+            out.flush();
+
+            ShardProtocol.SymbolReader requestSymbols = new ShardProtocol.SymbolReader();
+            ShardProtocol.SymbolWriter replySymbols = new ShardProtocol.SymbolWriter();
+            int operation;
+            while ((operation = in.read()) >= 0) {
+                switch (operation) {
+                    case ShardProtocol.OP_VOTES:
+                        handleVotes(in, out, requestSymbols);
+                        break;
+                    case ShardProtocol.OP_HAS_VOTED:
+                        out.writeBoolean(VotingManager.hasAlreadyVoted(in.readUTF()));
+                        break;
+                    case ShardProtocol.OP_RESULTS:
+                        handleResults(out, replySymbols);
+                        break;
+                    default:
+                        throw new IOException("Unknown operation " + operation);
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            // the coordinator closed the connection in the middle of a request
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Shard connection failed: " + e.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private void handleVotes(DataInputStream in, DataOutputStream out, ShardProtocol.SymbolReader symbols)
+            throws IOException {
+        int channel = in.readUnsignedByte();
+        int count = ShardProtocol.readVarInt(in);
+        if (channel >= VoteChannel.values().length || count > MAX_BATCH) {
+            throw new IOException("Malformed vote batch");
+        }
+        List<Ballot> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String candidate = symbols.read(in);
+            String state = symbols.read(in);
+            int age = ShardProtocol.readVarInt(in);
+            int psc = ShardProtocol.readVarInt(in);
+            String id = in.readUTF();
+            // a null ballot comes back REJECTED; unknown names never reach CandidateRegistry
+            batch.add(candidates.contains(candidate) ? new Ballot(candidate, null, age, state, id, psc) : null);
+        }
+        BatchResult result = VotingManager.addVotes(batch, VoteChannel.values()[channel]);
+        for (int i = 0; i < count; i++) {
+            out.writeByte(result.getOutcome(i).ordinal());
+        }
+        batches.increment();
+    }
+
+    private static void handleResults(DataOutputStream out, ShardProtocol.SymbolWriter symbols) throws IOException {
+        // the cells are collected first so the count can precede them
+        List<long[]> cells = new ArrayList<>();
+        VotingManager.forEachResultCell((candidateId, stateId, bucket, votes) ->
+            cells.add(new long[] {candidateId, stateId, bucket, votes}));
+        ShardProtocol.writeVarInt(out, cells.size());
+        for (long[] cell : cells) {
+            symbols.write(out, CandidateRegistry.nameOf((int) cell[0]));
+            symbols.write(out, CountryRegistry.isoCodeOf((int) cell[1]));
+            out.writeByte((int) cell[2]);
+            ShardProtocol.writeVarLong(out, cell[3]);
+        }
+    }
+}
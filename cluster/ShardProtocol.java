@@ -0,0 +1,123 @@
+package cluster;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trieda {@code ShardProtocol} opisuje binárny protokol medzi {@link ShardedVotingManager} a {@link ShardNode}.
+ * <p>
+ * Spojenie začína pozdravom: koordinátor pošle {@link #MAGIC} a {@link #VERSION}, uzol odpovie rovnakými
+ * hodnotami, svojím poradím a počtom shardov. Potom koordinátor posiela požiadavky a uzol na každú odpovie
+ * v poradí, v akom prišli. Požiadavka je jeden bajt operácie a jej údaje:
+ * </p>
+ * <ul>
+ *     <li>{@link #OP_VOTES}: spôsob hlasovania (bajt), počet lístkov a za každý lístok kandidát, štát, vek,
+ *     PSČ a ID voliča; odpoveď je jeden bajt {@link logic.VoteOutcome} na lístok,</li>
+ *     <li>{@link #OP_HAS_VOTED}: ID voliča; odpoveď je jeden bajt 0 alebo 1,</li>
+ *     <li>{@link #OP_RESULTS}: bez údajov; odpoveď je počet buniek a za každú kandidát, štát, veková
+ *     skupina (bajt) a počet hlasov.</li>
+ * </ul>
+ * <p>
+ * Celé čísla sa posielajú ako varint (7 bitov na bajt). Štát sa posiela ako kód ISO
+ * ({@link logic.CountryRegistry#isoCodeOf(int)}), nie názvom v jazyku uzla, a neurčený štát ako null.
+ * Mená kandidátov a kódy štátov sa posielajú cez
+ * slovník spojenia ({@link SymbolWriter}, {@link SymbolReader}): prvý výskyt mena nesie jeho nový kód
+ * aj text, ďalšie už iba kód, ktorý má zvyčajne jeden bajt. ID voliča sa posiela ako reťazec
+ * {@link DataOutput#writeUTF(String)}, pretože uzol z neho počíta odtlačok do žurnálu aj deduplikácie.
+ * </p>
+ */
+final class ShardProtocol {
+    static final int MAGIC = 0x564F5445; // "VOTE"
+    static final int VERSION = 2;
+
+    static final int OP_VOTES = 1;
+    static final int OP_HAS_VOTED = 2;
+    static final int OP_RESULTS = 3;
+
+    private ShardProtocol() {
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFF_FFFFL);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        if (value >>> 32 != 0) {
+            throw new IOException("Malformed varint");
+        }
+        return (int) value;
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Kóduje mená do slovníka jedného smeru spojenia. Kód 0 znamená null.
+     */
+    static final class SymbolWriter {
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        void write(DataOutput out, String symbol) throws IOException {
+            if (symbol == null) {
+                writeVarInt(out, 0);
+                return;
+            }
+            Integer code = codes.get(symbol);
+            if (code != null) {
+                writeVarInt(out, code);
+                return;
+            }
+            int next = codes.size() + 1;
+            codes.put(symbol, next);
+            writeVarInt(out, next);
+            out.writeUTF(symbol);
+        }
+    }
+
+    /**
+     * Dekóduje mená zapísané {@link SymbolWriter}. Kód, ktorý ešte nebol videný, musí byť nasledujúci
+     * v poradí a za ním nasleduje text mena.
+     */
+    static final class SymbolReader {
+        private final List<String> symbols = new ArrayList<>();
+
+        String read(DataInput in) throws IOException {
+            int code = readVarInt(in);
+            if (code == 0) {
+                return null;
+            }
+            if (code <= symbols.size()) {
+                return symbols.get(code - 1);
+            }
+            if (code != symbols.size() + 1) {
+                throw new IOException("Unknown symbol code " + code);
+            }
+            String symbol = in.readUTF();
+            symbols.add(symbol);
+            return symbol;
+        }
+    }
+}
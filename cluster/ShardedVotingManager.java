@@ -0,0 +1,407 @@
+package cluster;
+
+import logic.Ballot;
+import logic.BatchResult;
+import logic.CountryRegistry;
+import logic.VoteChannel;
+import logic.VoteOutcome;
+import logic.VoteTally;
+import logic.VoterIdSet;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Trieda {@code ShardedVotingManager} je koordinátor zhlukovaného hlasovania. Rozdeľuje voličov podľa
+ * odtlačku ID medzi uzly {@link ShardNode}, takže každý uzol drží iba svoju časť množiny ID a čiastkové
+ * súčty, a pri čítaní výsledky všetkých uzlov zlúči.
+ * <p>
+ * Na každý uzol má koordinátor niekoľko TCP spojení; vlákno používa spojenie podľa svojho ID, takže
+ * súbežné volania sa na jednom spojení stretnú len výnimočne. Dávka sa rozdelí podľa uzlov, časti sa
+ * najprv odošlú všetkým uzlom a až potom sa čítajú odpovede, takže uzly ju spracúvajú súbežne.
+ * </p>
+ * <p>
+ * Ak spojenie počas požiadavky zlyhá, metóda vyhodí {@link IOException} a výsledok lístkov nie je známy;
+ * časť z nich už mohla byť započítaná. Dávku možno bezpečne poslať znova, započítané lístky sa
+ * vrátia ako {@link VoteOutcome#DUPLICATE}. Pokazené spojenie sa pri ďalšom použití otvorí nanovo.
+ * </p>
+ */
+public final class ShardedVotingManager implements Closeable {
+    private static final int DEFAULT_CONNECTIONS_PER_NODE = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress[] nodes;
+    private final Connection[][] connections;
+    private final LatencyHistogram addVotesLatency = Metrics.histogram("cluster.addVotes.latency");
+
+    private ShardedVotingManager(InetSocketAddress[] nodes, int connectionsPerNode) {
+        this.nodes = nodes;
+        this.connections = new Connection[nodes.length][connectionsPerNode];
+        for (int shard = 0; shard < nodes.length; shard++) {
+            for (int i = 0; i < connectionsPerNode; i++) {
+                connections[shard][i] = new Connection(nodes[shard], shard, nodes.length);
+            }
+        }
+    }
+
+    /**
+     * Pripojí sa k uzlom zhluku.
+     * @param nodes Adresy uzlov v poradí ich shardov.
+     * @return Koordinátor pripojený ku všetkým uzlom.
+     * @throws IOException ak sa k niektorému uzlu nedá pripojiť alebo uzol hlási iné poradie.
+     */
+    public static ShardedVotingManager connect(List<InetSocketAddress> nodes) throws IOException {
+        return connect(nodes, DEFAULT_CONNECTIONS_PER_NODE);
+    }
+
+    /**
+     * @param connectionsPerNode Počet spojení na jeden uzol.
+     * @see #connect(List)
+     */
+    public static ShardedVotingManager connect(List<InetSocketAddress> nodes, int connectionsPerNode) throws IOException {
+        if (nodes.isEmpty() || connectionsPerNode < 1) {
+            throw new IllegalArgumentException("At least one node and one connection per node are required");
+        }
+        ShardedVotingManager manager = new ShardedVotingManager(nodes.toArray(new InetSocketAddress[0]), connectionsPerNode);
+        try {
+            for (Connection[] shardConnections : manager.connections) {
+                // fail fast on an unreachable or misordered node; the other connections open on first use
+                shardConnections[0].open();
+            }
+        } catch (IOException e) {
+            manager.close();
+            throw e;
+        }
+        return manager;
+    }
+
+    /**
+     * Vráti shard, ktorý vlastní voliča s daným ID.
+     * @param ID Identifikačné číslo voliča.
+     * @param shards Počet shardov.
+     * @return Poradie shardu od 0.
+     */
+    public static int shardOf(String ID, int shards) {
+        return shardOf(VoterIdSet.hash(ID), shards);
+    }
+
+    private static int shardOf(long idHash, int shards) {
+        // the middle bits, since VoterIdSet picks segments by the top bits and slots by the low ones
+        return (int) (((idHash >>> 16) & 0xFFFF_FFFFL) * shards >>> 32);
+    }
+
+    public int getShardCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Započíta hlas voliča v uzle, ktorý vlastní jeho ID.
+     * @return true, ak bol hlas prijatý; false, ak volič s rovnakým ID už hlasoval.
+     * @throws IOException ak spojenie s uzlom zlyhalo.
+     */
+    public boolean addVote(String candidate, String voterName, int age, String state, String ID, int psc)
+            throws IOException {
+        return addVote(candidate, voterName, age, state, ID, psc, VoteChannel.UNSPECIFIED);
+    }
+
+    /**
+     * Započíta hlas voliča odovzdaný zadaným spôsobom hlasovania.
+     * @see #addVote(String, String, int, String, String, int)
+     */
+    public boolean addVote(String candidate, String voterName, int age, String state, String ID, int psc,
+                           VoteChannel channel) throws IOException {
+        Ballot ballot = new Ballot(candidate, voterName, age, state, ID, psc);
+        return addVotes(Collections.singletonList(ballot), channel).getOutcome(0) == VoteOutcome.ACCEPTED;
+    }
+
+    /**
+     * Spracuje dávku lístkov; každý uzol dostane naraz všetky lístky svojich voličov.
+     * Lístok bez kandidáta alebo ID sa odmietne bez odoslania.
+     * @param batch Dávka lístkov.
+     * @return Výsledok spracovania každého lístka a súhrnné počty.
+     * @throws IOException ak spojenie s niektorým uzlom zlyhalo.
+     */
+    public BatchResult addVotes(List<Ballot> batch) throws IOException {
+        return addVotes(batch, VoteChannel.UNSPECIFIED);
+    }
+
+    /**
+     * Spracuje dávku lístkov odovzdaných zadaným spôsobom hlasovania.
+     * @see #addVotes(List)
+     */
+    public BatchResult addVotes(List<Ballot> batch, VoteChannel channel) throws IOException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int size = batch.size();
+        VoteOutcome[] outcomes = new VoteOutcome[size];
+        int[] owners = new int[size];
+        int[] counts = new int[nodes.length];
+        for (int i = 0; i < size; i++) {
+            Ballot ballot = batch.get(i);
+            if (ballot == null || ballot.getCandidate() == null || ballot.getCandidate().isEmpty()
+                    || ballot.getID() == null || ballot.getID().isEmpty()) {
+                outcomes[i] = VoteOutcome.REJECTED;
+                owners[i] = -1;
+            } else {
+                owners[i] = shardOf(VoterIdSet.hash(ballot.getID()), nodes.length);
+                counts[owners[i]]++;
+            }
+        }
+
+        // locks are taken in shard order, so two batches never wait for each other in a cycle
+        Connection[] used = lock(counts);
+        try {
+            for (int shard = 0; shard < nodes.length; shard++) {
+                if (used[shard] != null) {
+                    used[shard].sendVotes(batch, owners, shard, counts[shard], channel);
+                }
+            }
+            for (int shard = 0; shard < nodes.length; shard++) {
+                if (used[shard] != null) {
+                    used[shard].readOutcomes(owners, shard, outcomes);
+                }
+            }
+        } catch (IOException e) {
+            fail(used);
+            throw e;
+        } finally {
+            unlock(used);
+        }
+        if (Metrics.ENABLED) {
+            addVotesLatency.record(System.nanoTime() - start);
+        }
+        return new BatchResult(outcomes);
+    }
+
+    /**
+     * @param ID Identifikačné číslo voliča.
+     * @return true, ak volič s daným ID už hlasoval.
+     * @throws IOException ak spojenie s uzlom zlyhalo.
+     */
+    public boolean hasAlreadyVoted(String ID) throws IOException {
+        Connection connection = connections[shardOf(ID, nodes.length)][stripe()];
+        connection.lock.lock();
+        try {
+            connection.open();
+            connection.out.writeByte(ShardProtocol.OP_HAS_VOTED);
+            connection.out.writeUTF(ID);
+            connection.out.flush();
+            return connection.in.readBoolean();
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        } finally {
+            connection.lock.unlock();
+        }
+    }
+
+    /**
+     * Vyžiada si čiastkové súčty od všetkých uzlov a zlúči ich.
+     * @return Výsledky celého zhluku.
+     * @throws IOException ak spojenie s niektorým uzlom zlyhalo.
+     */
+    public ClusterResults getResults() throws IOException {
+        int[] all = new int[nodes.length];
+        Arrays.fill(all, 1);
+        Connection[] used = lock(all);
+        ClusterResults results = new ClusterResults();
+        try {
+            for (Connection connection : used) {
+                connection.out.writeByte(ShardProtocol.OP_RESULTS);
+                connection.out.flush();
+            }
+            for (Connection connection : used) {
+                connection.readResults(results);
+            }
+        } catch (IOException e) {
+            fail(used);
+            throw e;
+        } finally {
+            unlock(used);
+        }
+        return results;
+    }
+
+    /**
+     * Zatvorí všetky spojenia; uzly bežia ďalej.
+     */
+    @Override
+    public void close() {
+        for (Connection[] shardConnections : connections) {
+            for (Connection connection : shardConnections) {
+                connection.lock.lock();
+                try {
+                    connection.close();
+                } finally {
+                    connection.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private int stripe() {
+        return (int) (Thread.currentThread().getId() % connections[0].length);
+    }
+
+    /**
+     * Zamkne a otvorí spojenie pre každý shard s nenulovým počtom lístkov.
+     */
+    private Connection[] lock(int[] counts) throws IOException {
+        Connection[] used = new Connection[nodes.length];
+        int stripe = stripe();
+        try {
+            for (int shard = 0; shard < nodes.length; shard++) {
+                if (counts[shard] > 0) {
+                    Connection connection = connections[shard][stripe];
+                    connection.lock.lock();
+                    used[shard] = connection;
+                    connection.open();
+                }
+            }
+        } catch (IOException e) {
+            fail(used);
+            unlock(used);
+            throw e;
+        }
+        return used;
+    }
+
+    private static void fail(Connection[] used) {
+        for (Connection connection : used) {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private static void unlock(Connection[] used) {
+        for (Connection connection : used) {
+            if (connection != null) {
+                connection.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Jedno spojenie s uzlom. Slovníky mien patria spojeniu, preto sa pri novom spojení začínajú odznova.
+     * Všetky metódy sa volajú pod {@link #lock}.
+     */
+    private static final class Connection {
+        final ReentrantLock lock = new ReentrantLock();
+        private final InetSocketAddress address;
+        private final int shard;
+        private final int shards;
+        private Socket socket;
+        DataInputStream in;
+        DataOutputStream out;
+        private ShardProtocol.SymbolWriter requestSymbols;
+        private ShardProtocol.SymbolReader replySymbols;
+
+        Connection(InetSocketAddress address, int shard, int shards) {
+            this.address = address;
+            this.shard = shard;
+            this.shards = shards;
+        }
+
+        void open() throws IOException {
+            if (socket != null) {
+                return;
+            }
+            Socket opened = new Socket(address.getAddress(), address.getPort());
+            try {
+                opened.setTcpNoDelay(true);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(opened.getInputStream(), BUFFER_SIZE));
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(opened.getOutputStream(), BUFFER_SIZE));
+                output.writeInt(ShardProtocol.MAGIC);
+                output.writeInt(ShardProtocol.VERSION);
+                output.flush();
+                if (input.readInt() != ShardProtocol.MAGIC || input.readInt() != ShardProtocol.VERSION) {
+                    throw new IOException("Node " + address + " speaks an unsupported protocol");
+                }
+                int nodeShard = input.readInt();
+                int nodeShards = input.readInt();
+                if (nodeShard != shard || nodeShards != shards) {
+                    throw new IOException("Node " + address + " owns shard " + nodeShard + " of " + nodeShards
+                        + ", expected " + shard + " of " + shards);
+                }
+                socket = opened;
+                in = input;
+                out = output;
+                requestSymbols = new ShardProtocol.SymbolWriter();
+                replySymbols = new ShardProtocol.SymbolReader();
+            } catch (IOException e) {
+                opened.close();
+                throw e;
+            }
+        }
+
+        void sendVotes(List<Ballot> batch, int[] owners, int shard, int count, VoteChannel channel)
+                throws IOException {
+            out.writeByte(ShardProtocol.OP_VOTES);
+            out.writeByte(channel.ordinal());
+            ShardProtocol.writeVarInt(out, count);
+            for (int i = 0; i < owners.length; i++) {
+                if (owners[i] == shard) {
+                    Ballot ballot = batch.get(i);
+                    requestSymbols.write(out, ballot.getCandidate());
+                    requestSymbols.write(out, CountryRegistry.isoCodeOf(CountryRegistry.idOf(ballot.getState())));
+                    ShardProtocol.writeVarInt(out, ballot.getAge());
+                    ShardProtocol.writeVarInt(out, ballot.getPsc());
+                    out.writeUTF(ballot.getID());
+                }
+            }
+            out.flush();
+        }
+
+        void readOutcomes(int[] owners, int shard, VoteOutcome[] outcomes) throws IOException {
+            VoteOutcome[] values = VoteOutcome.values();
+            for (int i = 0; i < owners.length; i++) {
+                if (owners[i] == shard) {
+                    int outcome = in.readUnsignedByte();
+                    if (outcome >= values.length) {
+                        throw new IOException("Unknown vote outcome " + outcome);
+                    }
+                    outcomes[i] = values[outcome];
+                }
+            }
+        }
+
+        void readResults(ClusterResults results) throws IOException {
+            int cells = ShardProtocol.readVarInt(in);
+            for (int i = 0; i < cells; i++) {
+                String candidate = replySymbols.read(in);
+                String state = CountryRegistry.nameOf(CountryRegistry.idOfIsoCode(replySymbols.read(in)));
+                int bucket = in.readUnsignedByte();
+                long votes = ShardProtocol.readVarLong(in);
+                if (bucket >= VoteTally.AGE_BUCKETS) {
+                    throw new IOException("Unknown age bucket " + bucket);
+                }
+                results.add(candidate, state, bucket, votes);
+            }
+        }
+
+        void close() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // the connection is dropped either way
+                }
+                socket = null;
+                in = null;
+                out = null;
+            }
+        }
+    }
+}
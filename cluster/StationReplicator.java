@@ -0,0 +1,489 @@
+package cluster;
+
+import logic.CandidateRegistry;
+import logic.CountryRegistry;
+import logic.VirtualThreads;
+import logic.VotingManager;
+import metrics.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trieda {@code StationReplicator} replikuje výsledky medzi volebnými miestnosťami, z ktorých každá
+ * spúšťa vlastný {@link VotingManager}. Miestnosti sa zbiehajú k rovnakým výsledkom bez centrálneho
+ * uzla a bez zámku naprieč miestnosťami.
+ * <p>
+ * Replikovaný stav je CRDT zložený z príspevkov {@link ReplicaOrigin}, jeden za každý beh každej
+ * miestnosti. Počty hlasov podľa kandidáta, štátu a vekovej skupiny tvoria G-counter: každý beh mení iba
+ * svoje počty a pri zlúčení sa berie väčšia hodnota. Odtlačky ID voličov tvoria G-set, do ktorého sa iba
+ * pridáva. Odtlačky z ostatných miestností sa vložia do množiny ID miestneho {@link VotingManager},
+ * takže volič, ktorý už hlasoval inde, je tu odmietnutý.
+ * </p>
+ * <p>
+ * Vlákno na pozadí sa v pravidelnom intervale spýta každej susednej miestnosti na zmeny: pošle verzie
+ * všetkých behov, ktoré pozná, a dostane iba novšie odtlačky a zmenené bunky. Miestnosť odovzdáva aj
+ * zmeny, ktoré sa dozvedela od iných, takže stačí, aby boli miestnosti prepojené aspoň nepriamo.
+ * </p>
+ * <p>
+ * Replikačný port počúva predvolene iba na adrese {@code localhost}; miestnosti na rôznych počítačoch
+ * musia adresu zadať výslovne cez {@link #start(String, InetSocketAddress, List, long)}.
+ * </p>
+ * <p>
+ * Ak ten istý volič hlasuje v dvoch miestnostiach skôr, než sa stihnú synchronizovať, oba hlasy sa
+ * započítajú; pri zlúčení sa to zistí a započíta do {@link #getConflicts()}. Replikovaný stav je iba
+ * v pamäti. Po reštarte začne miestnosť nový beh a hlasy obnovené zo žurnálu sa už neposielajú, preto
+ * sa hlasy, ktoré pred pádom nestihla odoslať, ostatné miestnosti nedozvedia.
+ * </p>
+ */
+public final class StationReplicator implements Closeable {
+    static final int MAGIC = 0x43524454; // "CRDT"
+    static final int VERSION = 2;
+    static final int OP_PULL = 1;
+    static final int OP_RESULTS = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SOCKET_TIMEOUT_MILLIS = 30_000;
+
+    private static StationReplicator running;
+
+    private final String station;
+    private final ReplicaOrigin self;
+    private final Map<String, ReplicaOrigin> origins = new ConcurrentHashMap<>();
+    private final Map<Long, Long> baseline = new HashMap<>(); // local votes from before this run
+    private final List<Peer> peers = new ArrayList<>();
+    private final long intervalMillis;
+    private final LongAdder conflicts = new LongAdder();
+
+    private final ServerSocket server;
+    private final ExecutorService executor = VirtualThreads.newPerTaskExecutor(16);
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private final Thread syncer;
+    private final Object sleepLock = new Object();
+    private volatile boolean closed;
+
+    private StationReplicator(String station, ServerSocket server, List<InetSocketAddress> peers, long intervalMillis) {
+        this.station = station;
+        this.self = new ReplicaOrigin(station + '#' + Long.toHexString(System.currentTimeMillis()));
+        this.origins.put(self.id, self);
+        this.server = server;
+        for (InetSocketAddress address : peers) {
+            this.peers.add(new Peer(address));
+        }
+        this.intervalMillis = intervalMillis;
+        this.acceptor = new Thread(this::acceptLoop, "replication-accept");
+        this.acceptor.setDaemon(true);
+        this.syncer = new Thread(this::syncLoop, "replication-sync");
+        this.syncer.setDaemon(true);
+        Metrics.gauge("replication.conflicts", conflicts::sum);
+    }
+
+    /**
+     * Začne replikovať hlasy tejto miestnosti s replikačným portom na adrese {@code localhost}.
+     * @see #start(String, InetSocketAddress, List, long)
+     */
+    public static StationReplicator start(String station, int port, List<InetSocketAddress> peers,
+                                          long intervalMillis) throws IOException {
+        return start(station, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), peers, intervalMillis);
+    }
+
+    /**
+     * Začne replikovať hlasy tejto miestnosti. V jednej JVM môže bežať iba jeden replikátor, pretože
+     * {@link VotingManager} je spoločný. Hlasy prijaté pred spustením sa považujú za už známe.
+     * @param station Názov miestnosti; musí byť v zhluku jedinečný a nesmie obsahovať {@code #}.
+     * @param address Adresa a port, na ktorých sa pýtajú ostatné miestnosti; port 0 zvolí voľný port.
+     * @param peers Adresy miestností, od ktorých sa má pýtať na zmeny.
+     * @param intervalMillis Interval medzi synchronizáciami v milisekundách.
+     * @return Bežiaci replikátor.
+     * @throws IOException ak port nemožno otvoriť.
+     */
+    public static synchronized StationReplicator start(String station, InetSocketAddress address,
+                                                       List<InetSocketAddress> peers, long intervalMillis)
+            throws IOException {
+        if (running != null) {
+            throw new IllegalStateException("A station replicator is already running");
+        }
+        if (station.isEmpty() || station.indexOf('#') >= 0) {
+            throw new IllegalArgumentException("Invalid station name: " + station);
+        }
+        StationReplicator replicator = new StationReplicator(station,
+            new ServerSocket(address.getPort(), 64, address.getAddress()), peers, intervalMillis);
+        VotingManager.forEachResultCell((candidateId, stateId, bucket, votes) ->
+            replicator.baseline.put(ReplicaOrigin.cellKey(candidateId, stateId, bucket), votes));
+        VotingManager.setAcceptedIdListener(replicator.self::appendHash);
+        running = replicator;
+        replicator.acceptor.start();
+        replicator.syncer.start();
+        return replicator;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java cluster.StationReplicator station port [host:port ...]");
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+        StationReplicator replicator = start(args[0], Integer.parseInt(args[1]),
+            parsePeers(String.join(",", Arrays.asList(args).subList(2, args.length))), 1000);
+        System.out.println("READY " + replicator.getPort());
+        System.out.flush();
+        replicator.acceptor.join();
+    }
+
+    /**
+     * @param peers Adresy v tvare {@code host:port} oddelené čiarkou.
+     * @return Zoznam adries; prázdny pre prázdny reťazec.
+     */
+    public static List<InetSocketAddress> parsePeers(String peers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : peers.split(",")) {
+            peer = peer.trim();
+            if (!peer.isEmpty()) {
+                int colon = peer.lastIndexOf(':');
+                addresses.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * @return Port, na ktorom sa pýtajú ostatné miestnosti.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return Počet voličov, ktorí hlasovali vo viacerých miestnostiach skôr, než sa miestnosti synchronizovali.
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Hneď sa spýta všetkých susedov na zmeny, namiesto čakania na ďalší interval.
+     */
+    public void syncNow() {
+        synchronized (peers) {
+            for (Peer peer : peers) {
+                sync(peer);
+            }
+        }
+    }
+
+    /**
+     * @return Výsledky tejto miestnosti zlúčené so všetkými zmenami, ktoré sa dozvedela od ostatných.
+     */
+    public ClusterResults getResults() {
+        ClusterResults results = new ClusterResults();
+        mergedCells().forEach((key, votes) -> results.add(CandidateRegistry.nameOf(ReplicaOrigin.candidateOf(key)),
+            CountryRegistry.nameOf(ReplicaOrigin.stateOf(key)), ReplicaOrigin.bucketOf(key), votes));
+        return results;
+    }
+
+    /**
+     * Prečíta zlúčené výsledky bežiacej miestnosti, napr. na overenie, že sa miestnosti zbehli.
+     * @param station Adresa replikačného portu miestnosti.
+     * @return Zlúčené výsledky miestnosti.
+     * @throws IOException ak sa k miestnosti nedá pripojiť.
+     */
+    public static ClusterResults fetchResults(InetSocketAddress station) throws IOException {
+        Peer peer = new Peer(station);
+        try {
+            peer.open();
+            peer.out.writeByte(OP_RESULTS);
+            peer.out.flush();
+            ClusterResults results = new ClusterResults();
+            int cells = ShardProtocol.readVarInt(peer.in);
+            for (int i = 0; i < cells; i++) {
+                String candidate = peer.replySymbols.read(peer.in);
+                String state = CountryRegistry.nameOf(CountryRegistry.idOfIsoCode(peer.replySymbols.read(peer.in)));
+                results.add(candidate, state, peer.in.readUnsignedByte(), ShardProtocol.readVarLong(peer.in));
+            }
+            return results;
+        } finally {
+            peer.close();
+        }
+    }
+
+    /**
+     * Zastaví synchronizáciu a zatvorí spojenia. Zlúčené výsledky sa zabudnú.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (sleepLock) {
+            sleepLock.notifyAll();
+        }
+        server.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+        executor.shutdown();
+        synchronized (peers) {
+            for (Peer peer : peers) {
+                peer.close();
+            }
+        }
+        synchronized (StationReplicator.class) {
+            VotingManager.setAcceptedIdListener(null);
+            running = null;
+        }
+    }
+
+    /**
+     * Prepíše počty vlastného behu podľa súčtov {@link VotingManager} bez hlasov spred spustenia.
+     */
+    private synchronized void refreshLocal() {
+        VotingManager.forEachResultCell((candidateId, stateId, bucket, votes) -> {
+            long key = ReplicaOrigin.cellKey(candidateId, stateId, bucket);
+            long own = votes - baseline.getOrDefault(key, 0L);
+            if (own != 0) {
+                self.setCell(key, own);
+            }
+        });
+    }
+
+    /**
+     * Zlúči všetky behy do jedného súčtu podľa bunky. Hlasy obnovené zo žurnálu a hlasy predošlých
+     * behov tejto miestnosti, ktoré sa vrátili od susedov, sú tie isté hlasy, preto sa z nich berie väčší počet.
+     */
+    private Map<Long, Long> mergedCells() {
+        refreshLocal();
+        Map<Long, Long> totals = new HashMap<>();
+        Map<Long, Long> previousRuns = new HashMap<>();
+        for (ReplicaOrigin origin : origins.values()) {
+            if (!origin.station.equals(station) || origin == self) {
+                origin.addTo(totals);
+            } else {
+                origin.addTo(previousRuns);
+            }
+        }
+        synchronized (this) {
+            baseline.forEach((key, votes) -> previousRuns.merge(key, votes, Math::max));
+        }
+        previousRuns.forEach((key, votes) -> totals.merge(key, votes, Long::sum));
+        return totals;
+    }
+
+    private void syncLoop() {
+        while (!closed) {
+            syncNow();
+            synchronized (sleepLock) {
+                if (!closed) {
+                    try {
+                        sleepLock.wait(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                connections.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Replication failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported protocol");
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.flush();
+
+            ShardProtocol.SymbolReader requestSymbols = new ShardProtocol.SymbolReader();
+            ShardProtocol.SymbolWriter replySymbols = new ShardProtocol.SymbolWriter();
+            int operation;
+            while ((operation = in.read()) >= 0) {
+                if (operation == OP_PULL) {
+                    writeChanges(in, out, requestSymbols, replySymbols);
+                } else if (operation == OP_RESULTS) {
+                    Map<Long, Long> cells = mergedCells();
+                    ShardProtocol.writeVarInt(out, cells.size());
+                    for (Map.Entry<Long, Long> cell : cells.entrySet()) {
+                        long key = cell.getKey();
+                        replySymbols.write(out, CandidateRegistry.nameOf(ReplicaOrigin.candidateOf(key)));
+                        replySymbols.write(out, CountryRegistry.isoCodeOf(ReplicaOrigin.stateOf(key)));
+                        out.writeByte(ReplicaOrigin.bucketOf(key));
+                        ShardProtocol.writeVarLong(out, cell.getValue());
+                    }
+                } else {
+                    throw new IOException("Unknown operation " + operation);
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            // the peer closed the connection in the middle of a request
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Replication connection failed: " + e.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Odpovie na {@link #OP_PULL}: prečíta verzie, ktoré pozná pýtajúca sa miestnosť, a pošle delty
+     * behov, o ktorých vie viac.
+     */
+    private void writeChanges(DataInputStream in, DataOutputStream out, ShardProtocol.SymbolReader requestSymbols,
+                              ShardProtocol.SymbolWriter replySymbols) throws IOException {
+        int known = ShardProtocol.readVarInt(in);
+        Map<String, long[]> versions = new HashMap<>();
+        for (int i = 0; i < known; i++) {
+            String id = requestSymbols.read(in);
+            versions.put(id, new long[] {ShardProtocol.readVarInt(in), ShardProtocol.readVarLong(in)});
+        }
+        refreshLocal();
+        List<ReplicaOrigin> changed = new ArrayList<>();
+        for (ReplicaOrigin origin : origins.values()) {
+            long[] version = versions.getOrDefault(origin.id, new long[2]);
+            if (origin.isNewerThan((int) version[0], version[1])) {
+                changed.add(origin);
+            }
+        }
+        ShardProtocol.writeVarInt(out, changed.size());
+        for (ReplicaOrigin origin : changed) {
+            long[] version = versions.getOrDefault(origin.id, new long[2]);
+            replySymbols.write(out, origin.id);
+            origin.writeDelta(out, replySymbols, (int) version[0], version[1]);
+        }
+    }
+
+    private void sync(Peer peer) {
+        try {
+            pull(peer);
+            if (peer.failing) {
+                System.err.println("Replication with " + peer.address + " resumed");
+                peer.failing = false;
+            }
+        } catch (IOException e) {
+            peer.close();
+            if (!peer.failing && !closed) {
+                System.err.println("Replication with " + peer.address + " failed: " + e.getMessage());
+                peer.failing = true;
+            }
+        }
+    }
+
+    /**
+     * Požiada suseda o zmeny a zlúči ich. Volá sa pod zámkom {@link #peers}.
+     */
+    private void pull(Peer peer) throws IOException {
+        peer.open();
+        List<ReplicaOrigin> known = new ArrayList<>(origins.values());
+        peer.out.writeByte(OP_PULL);
+        ShardProtocol.writeVarInt(peer.out, known.size());
+        for (ReplicaOrigin origin : known) {
+            peer.requestSymbols.write(peer.out, origin.id);
+            ShardProtocol.writeVarInt(peer.out, origin.getHashCount());
+            ShardProtocol.writeVarLong(peer.out, origin.getCellVersion());
+        }
+        peer.out.flush();
+        int changed = ShardProtocol.readVarInt(peer.in);
+        for (int i = 0; i < changed; i++) {
+            String id = peer.replySymbols.read(peer.in);
+            if (id == null || id.equals(self.id)) {
+                throw new IOException("Peer sent changes of this station's own run");
+            }
+            ReplicaOrigin origin = origins.computeIfAbsent(id, ReplicaOrigin::new);
+            boolean otherStation = !origin.station.equals(station);
+            origin.readDelta(peer.in, peer.replySymbols, hash -> {
+                if (!VotingManager.markVotedElsewhere(hash) && otherStation) {
+                    conflicts.increment();
+                }
+            });
+        }
+    }
+
+    /**
+     * Spojenie so susednou miestnosťou, ktoré sa pri chybe zatvorí a pri ďalšej synchronizácii otvorí nanovo.
+     */
+    private static final class Peer {
+        final InetSocketAddress address;
+        private Socket socket;
+        DataInputStream in;
+        DataOutputStream out;
+        ShardProtocol.SymbolWriter requestSymbols;
+        ShardProtocol.SymbolReader replySymbols;
+        boolean failing;
+
+        Peer(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        void open() throws IOException {
+            if (socket != null) {
+                return;
+            }
+            Socket opened = new Socket(address.getAddress(), address.getPort());
+            try {
+                opened.setTcpNoDelay(true);
+                // a stalled peer must not hold up syncing with the others forever
+                opened.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(opened.getInputStream(), BUFFER_SIZE));
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(opened.getOutputStream(), BUFFER_SIZE));
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.flush();
+                if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                    throw new IOException("Station " + address + " speaks an unsupported protocol");
+                }
+                socket = opened;
+                in = input;
+                out = output;
+                requestSymbols = new ShardProtocol.SymbolWriter();
+                replySymbols = new ShardProtocol.SymbolReader();
+            } catch (IOException e) {
+                opened.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // the connection is dropped either way
+                }
+                socket = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package export;
+
+import logic.RegionRollup;
+import logic.ResultsSnapshot;
+import logic.VoteTally;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Trieda {@code ResultsExporter} zapisuje obraz výsledkov {@link ResultsSnapshot} v tvare JSON alebo CSV.
+ * <p>
+ * Výstup sa zapisuje priebežne po súčtoch priamo do {@link Writer}, {@link OutputStream} alebo
+ * {@link WritableByteChannel} cez buffer pevnej veľkosti; čísla sa zapisujú po cifrách bez vytvárania
+ * reťazcov. Celý dokument sa nikdy nezostavuje v pamäti, takže export pridá k obrazu výsledkov iba
+ * konštantnú pamäť bez ohľadu na počet kandidátov a štátov. Exporter výstup nezatvára.
+ * </p>
+ */
+public final class ResultsExporter {
+    private static final int BUFFER_CHARS = 8192;
+    private static final String[] AGE_GROUPS = new String[VoteTally.AGE_BUCKETS];
+
+    static {
+        AGE_GROUPS[VoteTally.UNDER_18] = "under18";
+        AGE_GROUPS[VoteTally.FROM_18_TO_30] = "18-30";
+        AGE_GROUPS[VoteTally.FROM_31_TO_60] = "31-60";
+        AGE_GROUPS[VoteTally.OVER_60] = "over60";
+    }
+
+    private ResultsExporter() {
+    }
+
+    /**
+     * Zapíše výsledky v kódovaní UTF-8 do prúdu a vyprázdni buffer.
+     */
+    public static void write(ResultsSnapshot results, ResultsFormat format, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        write(results, format, writer);
+        writer.flush();
+    }
+
+    /**
+     * Zapíše výsledky v kódovaní UTF-8 do kanála, napr. súboru, a vyprázdni buffer.
+     */
+    public static void write(ResultsSnapshot results, ResultsFormat format, WritableByteChannel channel) throws IOException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        write(results, format, writer);
+        writer.flush();
+    }
+
+    /**
+     * Zapíše výsledky do {@code writer}; {@code writer} sa nevyprázdni.
+     * @param results Obraz výsledkov.
+     * @param format Formát výstupu.
+     * @param writer Cieľ výstupu.
+     * @throws IOException ak zápis zlyhá.
+     */
+    public static void write(ResultsSnapshot results, ResultsFormat format, Writer writer) throws IOException {
+        Output out = new Output(writer);
+        if (format == ResultsFormat.JSON) {
+            writeJson(results, out);
+        } else {
+            writeCsv(results, out);
+        }
+        out.flushBuffer();
+    }
+
+    private static void writeJson(ResultsSnapshot results, Output out) throws IOException {
+        out.write("{\"version\":");
+        out.writeLong(results.getVersion());
+        out.write(",\"createdMillis\":");
+        out.writeLong(results.getCreatedMillis());
+        out.write(",\"totalVotes\":");
+        out.writeLong(results.getTotalVotes());
+
+        out.write(",\"candidates\":[");
+        boolean first = true;
+        for (Map.Entry<String, Long> candidate : results.getCandidateVotes().entrySet()) {
+            out.write(first ? "{\"name\":" : ",{\"name\":");
+            writeJsonString(out, candidate.getKey());
+            out.write(",\"votes\":");
+            out.writeLong(candidate.getValue());
+            out.write('}');
+            first = false;
+        }
+
+        out.write("],\"states\":[");
+        first = true;
+        for (Map.Entry<String, Map<String, Long>> state : results.getStateVotes().entrySet()) {
+            out.write(first ? "{\"name\":" : ",{\"name\":");
+            writeJsonString(out, state.getKey());
+            out.write(",\"votes\":");
+            out.writeLong(results.getStateTotal(state.getKey()));
+            out.write(",\"leader\":");
+            writeJsonString(out, results.getStateLeader(state.getKey()));
+            out.write(",\"margin\":");
+            out.writeLong(results.getStateMargin(state.getKey()));
+            out.write(",\"candidates\":{");
+            boolean firstCandidate = true;
+            for (Map.Entry<String, Long> candidate : state.getValue().entrySet()) {
+                if (!firstCandidate) {
+                    out.write(',');
+                }
+                writeJsonString(out, candidate.getKey());
+                out.write(':');
+                out.writeLong(candidate.getValue());
+                firstCandidate = false;
+            }
+            out.write("}}");
+            first = false;
+        }
+
+        out.write("],\"ageGroups\":{");
+        long[] ages = results.getAgeBucketTotals();
+        for (int bucket = 0; bucket < ages.length; bucket++) {
+            if (bucket > 0) {
+                out.write(',');
+            }
+            writeJsonString(out, AGE_GROUPS[bucket]);
+            out.write(':');
+            out.writeLong(ages[bucket]);
+        }
+
+        out.write("},\"topDistricts\":[");
+        first = true;
+        for (RegionRollup.District district : results.getTopDistricts()) {
+            out.write(first ? "{\"state\":" : ",{\"state\":");
+            writeJsonString(out, district.getState());
+            out.write(",\"district\":");
+            out.writeLong(district.getDistrict());
+            out.write(",\"votes\":");
+            out.writeLong(district.getVotes());
+            out.write('}');
+            first = false;
+        }
+        out.write("]}\n");
+    }
+
+    private static void writeCsv(ResultsSnapshot results, Output out) throws IOException {
+        out.write("section,state,candidate,group,votes\n");
+        writeCsvRow(out, "total", "", "", "", results.getTotalVotes());
+        for (Map.Entry<String, Long> candidate : results.getCandidateVotes().entrySet()) {
+            writeCsvRow(out, "candidate", "", candidate.getKey(), "", candidate.getValue());
+        }
+        for (Map.Entry<String, Map<String, Long>> state : results.getStateVotes().entrySet()) {
+            writeCsvRow(out, "state", state.getKey(), "", "", results.getStateTotal(state.getKey()));
+            for (Map.Entry<String, Long> candidate : state.getValue().entrySet()) {
+                writeCsvRow(out, "state_candidate", state.getKey(), candidate.getKey(), "", candidate.getValue());
+            }
+        }
+        long[] ages = results.getAgeBucketTotals();
+        for (int bucket = 0; bucket < ages.length; bucket++) {
+            writeCsvRow(out, "age", "", "", AGE_GROUPS[bucket], ages[bucket]);
+        }
+        for (RegionRollup.District district : results.getTopDistricts()) {
+            writeCsvKey(out, "district", district.getState(), "");
+            out.writeLong(district.getDistrict(), 3);
+            out.write(',');
+            out.writeLong(district.getVotes());
+            out.write('\n');
+        }
+    }
+
+    private static void writeCsvRow(Output out, String section, String state, String candidate, String group,
+                                    long votes) throws IOException {
+        writeCsvKey(out, section, state, candidate);
+        out.write(group);
+        out.write(',');
+        out.writeLong(votes);
+        out.write('\n');
+    }
+
+    /**
+     * Zapíše prvé tri stĺpce riadku CSV vrátane čiarky za nimi.
+     */
+    private static void writeCsvKey(Output out, String section, String state, String candidate) throws IOException {
+        out.write(section);
+        out.write(',');
+        writeCsvField(out, state);
+        out.write(',');
+        writeCsvField(out, candidate);
+        out.write(',');
+    }
+
+    private static void writeCsvField(Output out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static void writeJsonString(Output out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write("\\u00");
+                out.write(Character.forDigit(c >> 4, 16));
+                out.write(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Nesynchronizovaný buffer pred cieľovým {@link Writer}; {@link java.io.BufferedWriter} by zamykal pri
+     * každom znaku.
+     */
+    private static final class Output {
+        private final Writer target;
+        private final char[] buffer = new char[BUFFER_CHARS];
+        private int length;
+
+        Output(Writer target) {
+            this.target = target;
+        }
+
+        void write(char c) throws IOException {
+            if (length == buffer.length) {
+                flushBuffer();
+            }
+            buffer[length++] = c;
+        }
+
+        void write(String text) throws IOException {
+            for (int start = 0; start < text.length(); ) {
+                if (length == buffer.length) {
+                    flushBuffer();
+                }
+                int count = Math.min(text.length() - start, buffer.length - length);
+                text.getChars(start, start + count, buffer, length);
+                length += count;
+                start += count;
+            }
+        }
+
+        /**
+         * Zapíše číslo po cifrách bez vytvorenia reťazca.
+         */
+        void writeLong(long value) throws IOException {
+            writeLong(value, 1);
+        }
+
+        /**
+         * Zapíše číslo doplnené zľava nulami na aspoň {@code minDigits} cifier, napr. okres 7 ako {@code 007}.
+         * @param minDigits Najmenší počet cifier, najviac 19.
+         */
+        void writeLong(long value, int minDigits) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                write(Long.toString(value));
+                return;
+            }
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            if (buffer.length - length < 19) {
+                flushBuffer();
+            }
+            int end = length + Math.max(digits(value), minDigits);
+            for (int i = end - 1; i >= length; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            length = end;
+        }
+
+        private static int digits(long value) {
+            int digits = 1;
+            while (value >= 10) {
+                value /= 10;
+                digits++;
+            }
+            return digits;
+        }
+
+        void flushBuffer() throws IOException {
+            target.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
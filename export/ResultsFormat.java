@@ -0,0 +1,38 @@
+package export;
+
+import java.util.Locale;
+
+/**
+ * Formát exportu výsledkov.
+ */
+public enum ResultsFormat {
+    /** Jeden objekt JSON so súčtami kandidátov, štátov, vekových skupín a okresov. */
+    JSON("application/json; charset=utf-8", "json"),
+    /** CSV so stĺpcami {@code section,state,candidate,group,votes}, jeden riadok na súčet. */
+    CSV("text/csv; charset=utf-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ResultsFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param name Názov formátu bez ohľadu na veľkosť písmen, napr. {@code json}.
+     * @return Formát.
+     * @throws IllegalArgumentException ak formát nie je známy.
+     */
+    public static ResultsFormat of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,107 @@
+package export;
+
+import logic.ResultsSnapshot;
+import logic.VotingManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Trieda {@code ResultsPublisher} v pravidelnom intervale zapisuje výsledky do súboru na pozadí,
+ * napr. pre webový server, ktorý ich zverejňuje.
+ * <p>
+ * Súbor sa prepíše iba vtedy, keď pribudli hlasy. Výsledky sa zapíšu do dočasného súboru
+ * a ten sa atomicky premenuje, takže čitateľ súboru nikdy neuvidí rozpísaný dokument.
+ * </p>
+ */
+public final class ResultsPublisher implements Closeable {
+    private final Path file;
+    private final Path temporary;
+    private final ResultsFormat format;
+    private final long intervalMillis;
+    private long publishedVersion = -1; // guarded by this
+
+    private final Object sleepLock = new Object();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private ResultsPublisher(Path file, ResultsFormat format, long intervalMillis) {
+        this.file = file;
+        this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        this.format = format;
+        this.intervalMillis = intervalMillis;
+        this.thread = new Thread(this::run, "results-publisher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Spustí vlákno, ktoré každých {@code intervalMillis} milisekúnd zapíše výsledky, ak sa zmenili.
+     * @param file Cieľový súbor.
+     * @param format Formát výsledkov.
+     * @param intervalMillis Interval medzi zápismi v milisekundách.
+     * @return Spustený zapisovač.
+     */
+    public static ResultsPublisher start(Path file, ResultsFormat format, long intervalMillis) {
+        ResultsPublisher publisher = new ResultsPublisher(file, format, intervalMillis);
+        publisher.thread.start();
+        return publisher;
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                publish();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Results export failed: " + e.getMessage());
+            }
+            synchronized (sleepLock) {
+                if (!closed) {
+                    try {
+                        sleepLock.wait(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Zapíše aktuálne výsledky, ak sa od posledného zápisu zmenili.
+     * @throws IOException ak súbor nemožno zapísať.
+     */
+    public synchronized void publish() throws IOException {
+        ResultsSnapshot results = VotingManager.getResultsSnapshot();
+        if (results.getVersion() == publishedVersion && Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ResultsExporter.write(results, format, channel);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        publishedVersion = results.getVersion();
+    }
+
+    /**
+     * Zastaví vlákno a zapíše posledné výsledky.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (sleepLock) {
+            sleepLock.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publish();
+    }
+}
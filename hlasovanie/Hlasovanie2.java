@@ -1,5 +1,13 @@
 package hlasovanie;
 
+import logic.VoteChannel;
+import logic.VoteOutcome;
+import logic.VotingManager;
+import volici.Volic;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Rozhranie Hlasovanie2 definuje základnú funkciu hlasovania pre rôzne typy hlasovania.
  */
@@ -9,4 +17,44 @@ public interface Hlasovanie2 {
      * @param kandidat Meno kandidáta, pre ktorého sa hlasuje.
      */
     void hlasuj(String kandidat);
+
+    /**
+     * Odovzdá hlas voliča pre zadaného kandidáta do {@link VotingManager}.
+     * @param volic Volič, ktorý hlasuje.
+     * @param kandidat Meno kandidáta, pre ktorého sa hlasuje.
+     * @return true, ak bol hlas prijatý; false, ak volič už hlasoval.
+     */
+    default boolean hlasuj(Volic volic, String kandidat) {
+        return VotingManager.addVote(kandidat, volic.getMeno(), volic.getVek(), volic.getStat(), volic.getID(), volic.getPsc(),
+            getKanal());
+    }
+
+    /**
+     * Asynchrónne odovzdá hlas voliča pre zadaného kandidáta.
+     * <p>
+     * Predvolená implementácia hlasuje hneď vo vlákne volajúceho; spôsoby hlasovania s vlastnou
+     * frontou lístkov vrátia výsledok, ktorý sa dokončí po spracovaní dávky.
+     * </p>
+     * @param volic Volič, ktorý hlasuje.
+     * @param kandidat Meno kandidáta, pre ktorého sa hlasuje.
+     * @return Výsledok spracovania lístka, napr. {@link VoteOutcome#REJECTED} pre voliča mimo zoznamu voličov.
+     */
+    default CompletableFuture<VoteOutcome> hlasujAsync(Volic volic, String kandidat) {
+        return CompletableFuture.completedFuture(VotingManager.castVote(kandidat, volic.getMeno(), volic.getVek(),
+            volic.getStat(), volic.getID(), volic.getPsc(), getKanal()));
+    }
+
+    /**
+     * @return Spôsob hlasovania, pod ktorým sa hlasy započítajú do priebehu účasti.
+     */
+    default VoteChannel getKanal() {
+        return VoteChannel.UNSPECIFIED;
+    }
+
+    /**
+     * @return Najdlhší čas, ktorý má volič čakať na výsledok asynchrónneho hlasovania týmto spôsobom.
+     */
+    default Duration getTimeout() {
+        return Duration.ofSeconds(5);
+    }
 }
\ No newline at end of file
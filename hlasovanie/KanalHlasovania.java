@@ -0,0 +1,129 @@
+package hlasovanie;
+
+import logic.Ballot;
+import logic.BatchResult;
+import logic.VoteChannel;
+import logic.VoteOutcome;
+import logic.VotingManager;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.WaitEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Trieda {@code KanalHlasovania} predstavuje frontu čakajúcich lístkov jedného spôsobu hlasovania.
+ * <p>
+ * Každý kanál má vlastnú ohraničenú frontu a vlastné pracovné vlákno, ktoré z nej naraz vyberie všetky
+ * čakajúce lístky a odovzdá ich ako dávku cez {@link VotingManager#addVotes}. Pomalý kanál tak
+ * nezdrží ostatné. Ak je fronta plná, lístok sa neprijme a výsledok skončí výnimkou
+ * {@link RejectedExecutionException}, aby volajúci nečakal na preťažený kanál.
+ * </p>
+ * <p>
+ * Výsledky sa dokončujú vo vlákne kanála, preto majú byť na ne naviazané akcie krátke.
+ * </p>
+ */
+final class KanalHlasovania {
+    private static final int MAX_DAVKA = 4096;
+
+    private final BlockingQueue<CakajuciListok> fronta;
+    private final VoteChannel sposob;
+    private final String nazov;
+    private final Counter odmietnute;
+    private final LatencyHistogram cakanie;
+
+    /**
+     * Vytvorí kanál a spustí jeho pracovné vlákno.
+     * @param nazov Názov kanála, použije sa v mene vlákna.
+     * @param kapacita Najväčší počet čakajúcich lístkov.
+     * @param sposob Spôsob hlasovania, pod ktorým sa lístky započítajú do priebehu účasti.
+     */
+    KanalHlasovania(String nazov, int kapacita, VoteChannel sposob) {
+        this.fronta = new ArrayBlockingQueue<>(kapacita);
+        this.sposob = sposob;
+        this.nazov = "channel." + nazov;
+        this.odmietnute = Metrics.counter(this.nazov + ".queueFull");
+        this.cakanie = Metrics.histogram(this.nazov + ".queueWait");
+        Metrics.gauge(this.nazov + ".queued", fronta::size);
+        Thread pracovnik = new Thread(this::spracuvaj, "hlasovanie-" + nazov);
+        pracovnik.setDaemon(true);
+        pracovnik.start();
+    }
+
+    /**
+     * Zaradí lístok do fronty kanála.
+     * @param listok Hlasovací lístok.
+     * @return Výsledok, ktorý sa dokončí po spracovaní dávky s lístkom.
+     */
+    CompletableFuture<VoteOutcome> odovzdaj(Ballot listok) {
+        CakajuciListok cakajuci = new CakajuciListok(listok);
+        if (!fronta.offer(cakajuci)) {
+            VotingManager.recordRejected(sposob);
+            odmietnute.increment();
+            cakajuci.vysledok.completeExceptionally(new RejectedExecutionException("Voting channel queue is full"));
+        }
+        return cakajuci.vysledok;
+    }
+
+    private void spracuvaj() {
+        List<CakajuciListok> cakajuce = new ArrayList<>(MAX_DAVKA);
+        List<Ballot> davka = new ArrayList<>(MAX_DAVKA);
+        while (true) {
+            try {
+                cakajuce.add(fronta.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            fronta.drainTo(cakajuce, MAX_DAVKA - 1);
+            if (Metrics.ENABLED) {
+                zaznamenajCakanie(cakajuce);
+            }
+            for (CakajuciListok cakajuci : cakajuce) {
+                davka.add(cakajuci.listok);
+            }
+            try {
+                BatchResult vysledok = VotingManager.addVotes(davka, sposob);
+                for (int i = 0; i < cakajuce.size(); i++) {
+                    cakajuce.get(i).vysledok.complete(vysledok.getOutcome(i));
+                }
+            } catch (RuntimeException e) {
+                for (CakajuciListok cakajuci : cakajuce) {
+                    cakajuci.vysledok.completeExceptionally(e);
+                }
+            }
+            cakajuce.clear();
+            davka.clear();
+        }
+    }
+
+    private void zaznamenajCakanie(List<CakajuciListok> cakajuce) {
+        long teraz = System.nanoTime();
+        for (CakajuciListok cakajuci : cakajuce) {
+            cakanie.record(teraz - cakajuci.zaradeny);
+        }
+        WaitEvent event = new WaitEvent();
+        if (event.shouldCommit()) {
+            event.resource = nazov;
+            // the queue is FIFO, so the first ballot waited longest
+            event.waited = teraz - cakajuce.get(0).zaradeny;
+            event.ballots = cakajuce.size();
+            event.commit();
+        }
+    }
+
+    private static final class CakajuciListok {
+        final Ballot listok;
+        final CompletableFuture<VoteOutcome> vysledok = new CompletableFuture<>();
+        final long zaradeny = Metrics.ENABLED ? System.nanoTime() : 0;
+
+        CakajuciListok(Ballot listok) {
+            this.listok = listok;
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package hlasovanie;
 
+import logic.Ballot;
+import logic.VoteChannel;
+import logic.VoteOutcome;
 import volici.Volic;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Trieda {@code OnlineHlasovanie} implementuje rozhranie {@code Hlasovanie2}
  * a poskytuje metódu na hlasovanie online.
  * <p>
- * Táto implementácia jednoducho vypíše meno kandidáta, pre ktorého sa hlasuje,
- * na štandardný výstup.
+ * Lístky z {@link #hlasujAsync} idú do vlastnej ohraničenej fronty {@code KanalHlasovania} na 65 536
+ * lístkov, z ktorej ich vlákno kanála odovzdáva po dávkach cez {@link logic.VotingManager#addVotes}
+ * ako {@link VoteChannel#ONLINE}. Online volič čaká na výsledok najviac dve sekundy. Metóda
+ * {@link #hlasuj} iba vypíše meno kandidáta na štandardný výstup.
  * </p>
  */
 public class OnlineHlasovanie implements Hlasovanie2 {
+    private static final KanalHlasovania KANAL = new KanalHlasovania("online", 65_536, VoteChannel.ONLINE);
 
     /**
      * Vykoná hlasovanie pre zadaného kandidáta.
@@ -25,4 +34,25 @@ public class OnlineHlasovanie implements Hlasovanie2 {
     public void hlasuj(String kandidat) {
         System.out.println("Online voting for " + kandidat);
     }
+
+    /**
+     * Zaradí lístok voliča do fronty online hlasovania, ktorú spracúva vlastné vlákno po dávkach.
+     * @param volic Volič, ktorý hlasuje.
+     * @param kandidat Meno kandidáta, pre ktorého sa hlasuje.
+     * @return Výsledok spracovania lístka.
+     */
+    @Override
+    public CompletableFuture<VoteOutcome> hlasujAsync(Volic volic, String kandidat) {
+        return KANAL.odovzdaj(new Ballot(kandidat, volic.getMeno(), volic.getVek(), volic.getStat(), volic.getID(), volic.getPsc()));
+    }
+
+    @Override
+    public VoteChannel getKanal() {
+        return VoteChannel.ONLINE;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return Duration.ofSeconds(2);
+    }
 }
\ No newline at end of file
@@ -1,16 +1,25 @@
 package hlasovanie;
 
+import logic.Ballot;
+import logic.VoteChannel;
+import logic.VoteOutcome;
 import volici.Volic;  // Import triedy Volič, ktorá umožňuje správu voličov.
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Trieda {@code PostoveHlasovanie} implementuje rozhranie {@code Hlasovanie2}
  * a poskytuje metódu na hlasovanie poštou.
  * <p>
- * Táto implementácia jednoducho vypíše meno kandidáta, pre ktorého sa hlasuje poštou,
- * na štandardný výstup.
+ * Poštové lístky z {@link #hlasujAsync} sa zaraďujú do samostatnej fronty {@code KanalHlasovania}
+ * s kapacitou 16 384, takže nával pošty nezdrží online hlasovanie. Vlákno kanála ich započíta po dávkach
+ * cez {@link logic.VotingManager#addVotes} ako {@link VoteChannel#POSTAL}; na výsledok sa čaká až 30 sekúnd.
+ * {@link #hlasuj} zostáva iba výpisom mena kandidáta na štandardný výstup.
  * </p>
  */
 public class PostoveHlasovanie implements Hlasovanie2 {
+    private static final KanalHlasovania KANAL = new KanalHlasovania("postove", 16_384, VoteChannel.POSTAL);
 
     /**
      * Vykoná hlasovanie pre zadaného kandidáta prostredníctvom pošty.
@@ -25,4 +34,25 @@ public class PostoveHlasovanie implements Hlasovanie2 {
     public void hlasuj(String kandidat) {
         System.out.println("Postal voting for " + kandidat);
     }
+
+    /**
+     * Zaradí lístok voliča do fronty poštového hlasovania, ktorú spracúva vlastné vlákno po dávkach.
+     * @param volic Volič, ktorý hlasuje.
+     * @param kandidat Meno kandidáta, pre ktorého sa hlasuje.
+     * @return Výsledok spracovania lístka.
+     */
+    @Override
+    public CompletableFuture<VoteOutcome> hlasujAsync(Volic volic, String kandidat) {
+        return KANAL.odovzdaj(new Ballot(kandidat, volic.getMeno(), volic.getVek(), volic.getStat(), volic.getID(), volic.getPsc()));
+    }
+
+    @Override
+    public VoteChannel getKanal() {
+        return VoteChannel.POSTAL;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return Duration.ofSeconds(30);
+    }
 }
\ No newline at end of file
@@ -1,16 +1,25 @@
 package hlasovanie;
 
+import logic.Ballot;
+import logic.VoteChannel;
+import logic.VoteOutcome;
 import volici.Volic;  // Import triedy Volič, ktorá umožňuje správu voličov.
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Trieda {@code ZTPhlasovanie} implementuje rozhranie {@code Hlasovanie2}
  * a poskytuje prispôsobenú metódu na hlasovanie pre ľudí so špeciálnymi potrebami.
  * <p>
- * Táto implementácia zobrazuje na štandardný výstup meno kandidáta s príslušnou
- * poznámkou, že ide o hlasovanie pre ľudí so špeciálnymi potrebami.
+ * Lístky voličov s asistenciou ({@link #hlasujAsync}) majú najmenšiu vlastnú frontu {@code KanalHlasovania},
+ * 4096 lístkov, a do {@link logic.VotingManager#addVotes} ich po dávkach posiela jej vlákno ako
+ * {@link VoteChannel#ASSISTANCE}. Keďže asistované hlasovanie trvá dlhšie, časový limit je 30 sekúnd.
+ * Metóda {@link #hlasuj} iba zobrazí meno kandidáta s poznámkou o hlasovaní pre ľudí so špeciálnymi potrebami.
  * </p>
  */
 public class ZTPhlasovanie implements Hlasovanie2 {
+    private static final KanalHlasovania KANAL = new KanalHlasovania("ztp", 4096, VoteChannel.ASSISTANCE);
 
     /**
      * Vykoná hlasovanie pre zadaného kandidáta s dôrazom na prístupnosť pre ľudí
@@ -26,4 +35,25 @@ public class ZTPhlasovanie implements Hlasovanie2 {
     public void hlasuj(String kandidat) {
         System.out.println("Voting for special needs: " + kandidat);
     }
+
+    /**
+     * Zaradí lístok voliča do fronty hlasovania s asistenciou, ktorú spracúva vlastné vlákno po dávkach.
+     * @param volic Volič, ktorý hlasuje.
+     * @param kandidat Meno kandidáta, pre ktorého sa hlasuje.
+     * @return Výsledok spracovania lístka.
+     */
+    @Override
+    public CompletableFuture<VoteOutcome> hlasujAsync(Volic volic, String kandidat) {
+        return KANAL.odovzdaj(new Ballot(kandidat, volic.getMeno(), volic.getVek(), volic.getStat(), volic.getID(), volic.getPsc()));
+    }
+
+    @Override
+    public VoteChannel getKanal() {
+        return VoteChannel.ASSISTANCE;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return Duration.ofSeconds(30);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,309 @@
+package ingest;
+
+import logic.Ballot;
+import logic.BatchResult;
+import logic.VotingManager;
+import validation.FieldError;
+import validation.ValidationError;
+import validation.VoterField;
+import validation.VoterValidator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Trieda {@code BallotImporter} hromadne importuje lístky zo súborov sčítacích stredísk.
+ * <p>
+ * Súbor sa číta postupne po blokoch riadkov; bloky sa parsujú a validujú cez {@link VoterValidator}
+ * paralelne a platné lístky sa odovzdajú naraz cez {@link VotingManager#addVotes}, blok po bloku v poradí
+ * súboru. Pri dvoch lístkoch s rovnakým ID sa tak započíta vždy skorší. Počet rozpracovaných blokov je
+ * obmedzený, takže pamäť nerastie s veľkosťou súboru.
+ * </p>
+ * <p>
+ * CSV má stĺpce {@code candidate,voterName,age,state,ID,psc}; hlavička je nepovinná a polia môžu byť
+ * v úvodzovkách. Binárny formát začína hlavičkou {@code VOTB} a obsahuje záznamy zapísané metódou
+ * {@link #writeBinary}.
+ * </p>
+ */
+public class BallotImporter {
+    private static final int BINARY_MAGIC = 0x564F5442; // "VOTB"
+    private static final int CHUNK_ROWS = 8192;
+
+    private final int parallelism;
+
+    public BallotImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism Počet vlákien, ktoré parsujú a validujú bloky riadkov.
+     */
+    public BallotImporter(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Importuje lístky z CSV súboru v kódovaní UTF-8.
+     * @param file Cesta k súboru.
+     * @return Súhrn importu.
+     * @throws IOException ak súbor nemožno čítať.
+     */
+    public ImportReport importCsv(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCsv(reader);
+        }
+    }
+
+    public ImportReport importCsv(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        boolean[] first = {true};
+        return run(() -> {
+            List<String> lines = new ArrayList<>(CHUNK_ROWS);
+            String line;
+            while (lines.size() < CHUNK_ROWS && (line = reader.readLine()) != null) {
+                if (first[0]) {
+                    first[0] = false;
+                    if (line.regionMatches(true, 0, "candidate,", 0, 10)) {
+                        continue;
+                    }
+                }
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+            return lines;
+        }, line -> toBallot(parseCsvLine(line)));
+    }
+
+    /**
+     * Importuje lístky z binárneho súboru.
+     * @param file Cesta k súboru.
+     * @return Súhrn importu.
+     * @throws IOException ak súbor nemožno čítať, nemá binárny formát lístkov alebo končí neúplným záznamom.
+     */
+    public ImportReport importBinary(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return importBinary(in);
+        }
+    }
+
+    public ImportReport importBinary(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, 1 << 16));
+        if (in.readInt() != BINARY_MAGIC) {
+            throw new IOException("Not a binary ballot file");
+        }
+        return run(() -> {
+            List<Ballot> ballots = new ArrayList<>(CHUNK_ROWS);
+            while (ballots.size() < CHUNK_ROWS) {
+                // the file may only end between records, the last chunk may be shorter
+                in.mark(1);
+                if (in.read() < 0) {
+                    break;
+                }
+                in.reset();
+                try {
+                    ballots.add(new Ballot(in.readUTF(), in.readUTF(), in.readUnsignedByte(), in.readUTF(), in.readUTF(),
+                        in.readInt()));
+                } catch (EOFException e) {
+                    throw new IOException("Binary ballot file ends in the middle of a record", e);
+                }
+            }
+            return ballots;
+        }, Function.identity());
+    }
+
+    /**
+     * Zapíše lístky v binárnom formáte, ktorý číta {@link #importBinary}.
+     * @param ballots Lístky na zápis.
+     * @param out Výstupný prúd; metóda ho nezatvára.
+     * @throws IOException ak zápis zlyhal.
+     */
+    public static void writeBinary(Iterable<Ballot> ballots, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(BINARY_MAGIC);
+        for (Ballot ballot : ballots) {
+            data.writeUTF(ballot.getCandidate());
+            data.writeUTF(ballot.getVoterName());
+            data.writeByte(Math.min(Math.max(ballot.getAge(), 0), 255));
+            data.writeUTF(ballot.getState() == null ? "" : ballot.getState());
+            data.writeUTF(ballot.getID());
+            data.writeInt(ballot.getPsc());
+        }
+        data.flush();
+    }
+
+    private interface ChunkSource<T> {
+        List<T> next() throws IOException;
+    }
+
+    /**
+     * Bloky sa validujú paralelne, ale započítajú sa v tomto vlákne v poradí súboru. Pri chybe čítania
+     * alebo validácie sa import zastaví; započítané zostanú celé bloky pred chybou.
+     */
+    private <T> ImportReport run(ChunkSource<T> source, Function<T, Ballot> parser) throws IOException {
+        long start = System.nanoTime();
+        long[] counts = new long[3];
+        int maxInFlight = parallelism * 2;
+        Queue<Future<List<Ballot>>> pending = new ArrayDeque<>(maxInFlight);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<T> chunk;
+            while (!(chunk = source.next()).isEmpty()) {
+                List<T> rows = chunk;
+                pending.add(workers.submit(() -> validate(rows, parser)));
+                if (pending.size() >= maxInFlight) {
+                    commit(pending.remove(), counts);
+                }
+            }
+            while (!pending.isEmpty()) {
+                commit(pending.remove(), counts);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new ImportReport(counts[0], counts[1], counts[2], System.nanoTime() - start);
+    }
+
+    private static <T> List<Ballot> validate(List<T> rows, Function<T, Ballot> parser) {
+        List<Ballot> ballots = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            ballots.add(parser.apply(row));
+        }
+        FieldError[] errors = new FieldError[ballots.size()];
+        if (VoterValidator.validateAll(ballots, errors) > 0) {
+            // addVotes rejects null ballots
+            for (int i = 0; i < errors.length; i++) {
+                if (errors[i] != null) {
+                    ballots.set(i, null);
+                }
+            }
+        }
+        return ballots;
+    }
+
+    private static void commit(Future<List<Ballot>> chunk, long[] counts) {
+        List<Ballot> ballots;
+        try {
+            ballots = chunk.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ballot import was interrupted", e);
+        }
+        BatchResult result = VotingManager.addVotes(ballots);
+        counts[0] += result.getAccepted();
+        counts[1] += result.getDuplicates();
+        counts[2] += result.getRejected();
+    }
+
+    /**
+     * Rozdelí riadok CSV na polia; pole v úvodzovkách môže obsahovať čiarky a zdvojené úvodzovky.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Overí počet stĺpcov riadku a číselné polia veku a PSČ.
+     * @return Chyba riadku alebo null, ak ho možno previesť na lístok.
+     */
+    static FieldError checkFields(List<String> fields) {
+        if (fields.size() != 6) {
+            return FieldError.of(VoterField.ROW, ValidationError.INVALID_FORMAT);
+        }
+        ValidationError error;
+        if ((error = VoterValidator.validateAge(fields.get(2))) != null) {
+            return FieldError.of(VoterField.AGE, error);
+        }
+        if ((error = VoterValidator.validatePsc(fields.get(5))) != null) {
+            return FieldError.of(VoterField.PSC, error);
+        }
+        return null;
+    }
+
+    /**
+     * Prevedie polia riadku na lístok; ostatné polia overí až {@link VoterValidator#validate}.
+     * @return Lístok alebo null, ak riadok neprešiel {@link #checkFields}.
+     */
+    static Ballot toBallot(List<String> fields) {
+        if (checkFields(fields) != null) {
+            return null;
+        }
+        return new Ballot(fields.get(0), fields.get(1), Integer.parseInt(fields.get(2)), fields.get(3),
+            fields.get(4), Integer.parseInt(fields.get(5)));
+    }
+
+    /**
+     * Importuje súbor lístkov do žurnálu hlasovania, ktorý aplikácia prehrá pri ďalšom štarte.
+     * Spustenie: {@code java ingest.BallotImporter subor.csv|subor.bin [zurnal]}.
+     * @param args Cesta k súboru lístkov a nepovinne cesta k žurnálu.
+     * @throws IOException ak súbor alebo žurnál nemožno čítať či zapísať.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ingest.BallotImporter <ballots.csv|ballots.bin> [votes.journal]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        VotingManager.openJournal(Paths.get(args.length > 1 ? args[1] : "votes.journal"));
+        try {
+            BallotImporter importer = new BallotImporter();
+            ImportReport report = file.toString().endsWith(".csv") ? importer.importCsv(file) : importer.importBinary(file);
+            System.out.println(report);
+        } finally {
+            VotingManager.closeJournal();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ingest;
+
+/**
+ * Trieda {@code ImportReport} sumarizuje výsledok hromadného importu lístkov.
+ */
+public final class ImportReport {
+    private final long rows;
+    private final long accepted;
+    private final long duplicates;
+    private final long rejected;
+    private final long elapsedNanos;
+
+    ImportReport(long accepted, long duplicates, long rejected, long elapsedNanos) {
+        this.rows = accepted + duplicates + rejected;
+        this.accepted = accepted;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Počet spracovaných riadkov za sekundu.
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rows: %d, accepted: %d, duplicates: %d, rejected: %d, time: %.2f s, %.0f rows/s",
+            rows, accepted, duplicates, rejected, elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
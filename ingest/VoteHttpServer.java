@@ -0,0 +1,403 @@
+package ingest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import export.ResultsExporter;
+import export.ResultsFormat;
+import logic.Ballot;
+import logic.BatchResult;
+import logic.Eligibility;
+import logic.ResultsSnapshot;
+import logic.TurnoutSeries;
+import logic.VirtualThreads;
+import logic.VoteChannel;
+import logic.VoteOutcome;
+import logic.VotingManager;
+import metrics.Metrics;
+import validation.FieldError;
+import validation.ValidationError;
+import validation.VoterField;
+import validation.VoterValidator;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Trieda {@code VoteHttpServer} prijíma online hlasy cez HTTP a odovzdáva ich do {@link VotingManager}.
+ * <p>
+ * Server je postavený na vstavanom HTTP serveri JDK a každú požiadavku spracuje vo vlastnom virtuálnom
+ * vlákne. Spojenia zostávajú otvorené (keep-alive) a klient môže posielať ďalšie požiadavky bez čakania
+ * na odpoveď (pipelining); odpovede prídu v poradí požiadaviek.
+ * </p>
+ * <p>
+ * {@code POST /vote} prijme jeden online hlas ({@link VoteChannel#ONLINE}) ako formulár {@code application/x-www-form-urlencoded} s poľami
+ * {@code candidate, name, age, state, id, psc} a odpovie stavom 200 ({@code ACCEPTED}),
+ * 409 ({@code DUPLICATE}), 400 ({@code REJECTED} s kódom chyby, napr. {@code REJECTED NAME_INVALID_CHARACTER}
+ * alebo {@code REJECTED CANDIDATE_UNKNOWN} pre kandidáta mimo zoznamu, s ktorým sa server spustil)
+ * alebo 403, ak volič neprešiel overením v zozname voličov ({@code REJECTED} s výsledkom {@link Eligibility},
+ * napr. {@code REJECTED NOT_REGISTERED}).
+ * {@code POST /votes} prijme dávku v tvare CSV ako {@link BallotImporter} a odpovie jedným výsledkom
+ * na riadok v rovnakom tvare.
+ * </p>
+ * <p>
+ * {@code GET /turnout?resolution=minute&last=60} vráti priebeh účasti v tvare CSV
+ * {@code time,channel,accepted,rejected}, jeden riadok za interval a spôsob hlasovania. Dĺžka intervalu
+ * je {@code second}, {@code minute} alebo {@code hour}. {@code GET /metrics} vráti výpis {@link Metrics}.
+ * {@code GET /results?format=json} alebo {@code format=csv} vráti výsledky cez {@link ResultsExporter};
+ * odpoveď sa posiela priebežne po častiach, bez zostavenia celého dokumentu v pamäti.
+ * </p>
+ * <p>
+ * Server počúva iba na adrese {@code localhost}. Ak majú hlasy prichádzať z iných počítačov, adresa sa
+ * nastaví vlastnosťou {@code voting.http.bind}, napr. {@code -Dvoting.http.bind=0.0.0.0}.
+ * </p>
+ */
+public class VoteHttpServer {
+    /** Vlastnosť s adresou, na ktorej server počúva namiesto {@code localhost}. */
+    public static final String BIND_ADDRESS_PROPERTY = "voting.http.bind";
+
+    private static final int MAX_FORM_BYTES = 8 * 1024;
+    private static final int MAX_BATCH_ROWS = 100_000;
+    private static final byte[] ACCEPTED = "ACCEPTED\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DUPLICATE = "DUPLICATE\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REJECTED = "REJECTED\n".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        // responses are small; without TCP_NODELAY pipelined replies wait for delayed ACKs
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private VoteHttpServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Spustí server na zadanom porte adresy {@code localhost} alebo adresy z {@link #BIND_ADDRESS_PROPERTY}.
+     * @param port Číslo portu; 0 zvolí voľný port.
+     * @param candidates Kandidáti, za ktorých server prijme hlas; zoznam sa môže počas behu meniť, preto
+     *                   musí byť bezpečný pre čítanie z viacerých vlákien.
+     * @return Bežiaci server.
+     * @throws IOException ak port nemožno otvoriť alebo adresu nemožno nájsť.
+     */
+    public static VoteHttpServer start(int port, Collection<String> candidates) throws IOException {
+        String bind = System.getProperty(BIND_ADDRESS_PROPERTY);
+        InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+        HttpServer server = HttpServer.create(new InetSocketAddress(address, port), 1024);
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor(Runtime.getRuntime().availableProcessors() * 8);
+        server.setExecutor(executor);
+        server.createContext("/vote", exchange -> handleVote(exchange, candidates));
+        server.createContext("/votes", exchange -> handleBatch(exchange, candidates));
+        server.createContext("/turnout", VoteHttpServer::handleTurnout);
+        server.createContext("/metrics", VoteHttpServer::handleMetrics);
+        server.createContext("/results", VoteHttpServer::handleResults);
+        server.start();
+        return new VoteHttpServer(server, executor);
+    }
+
+    /**
+     * @return Port, na ktorom server počúva.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Zastaví server; rozpracované požiadavky môžu dobehnúť najviac sekundu.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private static void handleVote(HttpExchange exchange, Collection<String> candidates) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody(), MAX_FORM_BYTES);
+            if (body == null) {
+                respond(exchange, 413, REJECTED);
+                return;
+            }
+            List<String> fields = formFields(parseForm(new String(body, StandardCharsets.UTF_8)));
+            FieldError error = BallotImporter.checkFields(fields);
+            Ballot ballot = null;
+            if (error == null) {
+                ballot = BallotImporter.toBallot(fields);
+                error = VoterValidator.validate(ballot);
+            }
+            if (error == null && !candidates.contains(ballot.getCandidate())) {
+                error = FieldError.of(VoterField.CANDIDATE, ValidationError.UNKNOWN);
+            }
+            Eligibility eligibility = error == null ? VotingManager.checkEligibility(ballot.getID(), ballot.getAge(),
+                ballot.getState(), ballot.getPsc()) : null;
+            if (error != null) {
+                VotingManager.recordRejected(VoteChannel.ONLINE);
+                respond(exchange, 400, rejectedBytes(error));
+            } else if (eligibility != Eligibility.ELIGIBLE) {
+                VotingManager.recordRejected(VoteChannel.ONLINE);
+                respond(exchange, 403, rejectedBytes(eligibility));
+            } else if (VotingManager.addVote(ballot.getCandidate(), ballot.getVoterName(), ballot.getAge(),
+                    ballot.getState(), ballot.getID(), ballot.getPsc(), VoteChannel.ONLINE)) {
+                respond(exchange, 200, ACCEPTED);
+            } else {
+                respond(exchange, 409, DUPLICATE);
+            }
+        }
+    }
+
+    private static void handleBatch(HttpExchange exchange, Collection<String> candidates) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            List<Ballot> ballots = new ArrayList<>();
+            List<FieldError> parseErrors = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || ballots.isEmpty() && line.regionMatches(true, 0, "candidate,", 0, 10)) {
+                    continue;
+                }
+                if (ballots.size() == MAX_BATCH_ROWS) {
+                    reader.transferTo(Writer.nullWriter());
+                    respond(exchange, 413, ("At most " + MAX_BATCH_ROWS + " rows per batch\n").getBytes(StandardCharsets.US_ASCII));
+                    return;
+                }
+                // invalid rows stay in the list as null so the outcomes line up with the request
+                List<String> fields = BallotImporter.parseCsvLine(line);
+                FieldError error = BallotImporter.checkFields(fields);
+                parseErrors.add(error);
+                ballots.add(error == null ? BallotImporter.toBallot(fields) : null);
+            }
+            FieldError[] errors = parseErrors.toArray(new FieldError[0]);
+            VoterValidator.validateAll(ballots, errors);
+            for (int i = 0; i < errors.length; i++) {
+                if (errors[i] == null && !candidates.contains(ballots.get(i).getCandidate())) {
+                    errors[i] = FieldError.of(VoterField.CANDIDATE, ValidationError.UNKNOWN);
+                }
+                if (errors[i] != null) {
+                    ballots.set(i, null);
+                }
+            }
+            BatchResult result = VotingManager.addVotes(ballots, VoteChannel.ONLINE);
+            ByteArrayOutputStream response = new ByteArrayOutputStream(result.size() * 10);
+            for (int i = 0; i < result.size(); i++) {
+                if (errors[i] != null) {
+                    response.write(rejectedBytes(errors[i]));
+                } else if (result.getOutcome(i) == VoteOutcome.REJECTED) {
+                    // the only reason left for a valid row is the electoral roll
+                    Ballot ballot = ballots.get(i);
+                    response.write(rejectedBytes(VotingManager.checkEligibility(ballot.getID(), ballot.getAge(),
+                        ballot.getState(), ballot.getPsc())));
+                } else {
+                    response.write(bytesOf(result.getOutcome(i)));
+                }
+            }
+            respond(exchange, 200, response.toByteArray());
+        }
+    }
+
+    private static void handleTurnout(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use GET\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            Map<String, String> params = parseForm(query == null ? "" : query);
+            TurnoutSeries.Resolution resolution;
+            int last;
+            try {
+                resolution = TurnoutSeries.Resolution.valueOf(params.getOrDefault("resolution", "minute").toUpperCase(Locale.ROOT));
+                last = Integer.parseInt(params.getOrDefault("last", "60"));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, "Use resolution=second|minute|hour and a numeric last\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            last = Math.max(1, Math.min(last, resolution.getCapacity()));
+
+            TurnoutSeries turnout = VotingManager.getTurnout();
+            long now = TurnoutSeries.nowSecond();
+            long first = (now / resolution.getSeconds() - last + 1) * resolution.getSeconds();
+            StringBuilder csv = new StringBuilder(40 * last * VoteChannel.values().length).append("time,channel,accepted,rejected\n");
+            long[][] accepted = new long[VoteChannel.values().length][];
+            long[][] rejected = new long[VoteChannel.values().length][];
+            for (VoteChannel channel : VoteChannel.values()) {
+                accepted[channel.ordinal()] = turnout.getCounts(channel, true, resolution, last, now);
+                rejected[channel.ordinal()] = turnout.getCounts(channel, false, resolution, last, now);
+            }
+            for (int i = 0; i < last; i++) {
+                String time = Instant.ofEpochSecond(first + (long) i * resolution.getSeconds()).toString();
+                for (VoteChannel channel : VoteChannel.values()) {
+                    csv.append(time).append(',').append(channel).append(',')
+                        .append(accepted[channel.ordinal()][i]).append(',').append(rejected[channel.ordinal()][i]).append('\n');
+                }
+            }
+            respond(exchange, 200, csv.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use GET\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            respond(exchange, 200, Metrics.dump().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void handleResults(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use GET\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            ResultsFormat format;
+            try {
+                format = ResultsFormat.of(parseForm(query == null ? "" : query).getOrDefault("format", "json"));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, "Use format=json|csv\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            ResultsSnapshot results = VotingManager.getResultsSnapshot();
+            String etag = "\"" + results.getVersion() + '"';
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                // a dashboard polling every second skips the body until a vote arrives
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", format.getContentType());
+            // length 0 selects chunked encoding, so the body is streamed and the connection stays reusable
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                ResultsExporter.write(results, format, out);
+            }
+        }
+    }
+
+    private static byte[] bytesOf(VoteOutcome outcome) {
+        switch (outcome) {
+            case ACCEPTED:
+                return ACCEPTED;
+            case DUPLICATE:
+                return DUPLICATE;
+            default:
+                return REJECTED;
+        }
+    }
+
+    private static byte[] rejectedBytes(FieldError error) {
+        return ("REJECTED " + error + '\n').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] rejectedBytes(Eligibility eligibility) {
+        return ("REJECTED " + eligibility + '\n').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        // a fixed length keeps the connection reusable for the next request
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Prečíta telo požiadavky; ak je dlhšie ako limit, dočíta ho naprázdno a vráti null.
+     */
+    private static byte[] readBody(InputStream in, int limit) throws IOException {
+        byte[] buffer = new byte[512];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length > limit) {
+                in.transferTo(OutputStream.nullOutputStream());
+                return null;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, limit + 1));
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    static Map<String, String> parseForm(String body) {
+        Map<String, String> fields = new HashMap<>();
+        int start = 0;
+        while (start < body.length()) {
+            int end = body.indexOf('&', start);
+            if (end < 0) {
+                end = body.length();
+            }
+            int equals = body.indexOf('=', start);
+            if (equals > start && equals < end) {
+                fields.put(URLDecoder.decode(body.substring(start, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(body.substring(equals + 1, end), StandardCharsets.UTF_8));
+            }
+            start = end + 1;
+        }
+        return fields;
+    }
+
+    private static List<String> formFields(Map<String, String> form) {
+        List<String> fields = new ArrayList<>(6);
+        for (String name : new String[] {"candidate", "name", "age", "state", "id", "psc"}) {
+            String value = form.get(name);
+            fields.add(value == null ? "" : value.trim());
+        }
+        return fields;
+    }
+
+    /**
+     * Spustí samostatný server, ktorý zapisuje prijaté hlasy do žurnálu.
+     * Spustenie: {@code java ingest.VoteHttpServer [port] [zurnal] [kandidat,kandidat...]}, predvolene port 8080
+     * a kandidáti aplikácie.
+     * @param args Nepovinne číslo portu, cesta k žurnálu a kandidáti oddelení čiarkou.
+     * @throws IOException ak port alebo žurnál nemožno otvoriť.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String names = args.length > 2 ? args[2] : "Ivan Prvy,Alexander Pekny";
+        List<String> candidates = List.of(names.split("\\s*,\\s*"));
+        VotingManager.openJournal(Paths.get(args.length > 1 ? args[1] : "votes.journal"));
+        VoteHttpServer server = start(port, candidates);
+        // the server's dispatcher thread keeps the JVM running until it is interrupted
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            VotingManager.closeJournal();
+        }));
+        System.out.println("Accepting votes on http://localhost:" + server.getPort() + "/vote and /votes");
+    }
+}
@@ -0,0 +1,101 @@
+package ingest;
+
+import logic.CountryRegistry;
+import logic.VoterRoll;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Trieda {@code VoterRollBuilder} vytvorí súbor zoznamu voličov {@link VoterRoll} z CSV.
+ * <p>
+ * CSV má stĺpce {@code ID,age,state,psc[,eligible]}; hlavička je nepovinná a polia môžu byť v úvodzovkách.
+ * Štát je názov alebo kód ISO 3166 známy {@link CountryRegistry}, prázdny štát sa pri hlasovaní neoveruje.
+ * Stĺpec {@code eligible} s hodnotou {@code false} alebo {@code 0} označí voliča, ktorý nesmie voliť.
+ * Súbor sa číta dvakrát: prvý raz sa spočítajú riadky, aby mala tabuľka správnu veľkosť.
+ * </p>
+ */
+public class VoterRollBuilder {
+
+    /**
+     * Vytvorí zoznam voličov.
+     * @param csv Zdrojový CSV súbor v kódovaní UTF-8.
+     * @param roll Cieľový súbor zoznamu.
+     * @return Súhrn v tvare {@code rows=…, written=…, invalid=…, duplicates=…}.
+     * @throws IOException ak súbory nemožno čítať alebo zapísať.
+     */
+    public static String build(Path csv, Path roll) throws IOException {
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        long rows = 0;
+        long invalid = 0;
+        long duplicates = 0;
+        long written;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             VoterRoll.Writer writer = VoterRoll.create(roll, lines)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || rows == 0 && invalid == 0 && line.regionMatches(true, 0, "ID,", 0, 3)) {
+                    continue;
+                }
+                rows++;
+                List<String> fields = BallotImporter.parseCsvLine(line);
+                if (fields.size() < 4 || fields.size() > 5 || fields.get(0).trim().isEmpty()) {
+                    invalid++;
+                    continue;
+                }
+                String isoCode = isoCodeOf(fields.get(2).trim());
+                int age;
+                int psc;
+                try {
+                    age = Integer.parseInt(fields.get(1).trim());
+                    psc = Integer.parseInt(fields.get(3).trim());
+                } catch (NumberFormatException e) {
+                    invalid++;
+                    continue;
+                }
+                if (age < 0 || age > 255 || "?".equals(isoCode)) {
+                    invalid++;
+                } else if (!writer.add(fields.get(0).trim(), age, isoCode, psc, fields.size() < 5 || isEligible(fields.get(4)))) {
+                    duplicates++;
+                }
+            }
+            written = writer.size();
+        }
+        return "rows=" + rows + ", written=" + written + ", invalid=" + invalid + ", duplicates=" + duplicates;
+    }
+
+    /**
+     * @return Kód ISO štátu, null pre prázdny štát alebo "?" pre štát bez kódu ISO.
+     */
+    private static String isoCodeOf(String state) {
+        if (state.isEmpty()) {
+            return null;
+        }
+        int id = CountryRegistry.findId(state);
+        String isoCode = id < 0 ? null : CountryRegistry.isoCodeOf(id);
+        return isoCode == null ? "?" : isoCode;
+    }
+
+    private static boolean isEligible(String value) {
+        String trimmed = value.trim();
+        return !("false".equalsIgnoreCase(trimmed) || "0".equals(trimmed) || "no".equalsIgnoreCase(trimmed));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java ingest.VoterRollBuilder <voters.csv> <voters.roll>");
+            return;
+        }
+        System.out.println(build(Paths.get(args[0]), Paths.get(args[1])));
+    }
+}
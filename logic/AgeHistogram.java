@@ -0,0 +1,174 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Trieda {@code AgeHistogram} počíta hlasy podľa presného veku voliča pre každého kandidáta a štát.
+ * <p>
+ * Každý kandidát má jeden Fenwickov strom (binárne indexovaný strom) nad vekmi 0 až {@value #MAX_AGE}
+ * pre všetky štáty spolu a jeden strom pre každý štát, v ktorom dostal hlas. Hlas pripočíta do oboch
+ * stromov po {@code log2(}{@value #MAX_AGE}{@code  + 1) = 7} bunkách atomickým {@code getAndAdd} bez zámkov
+ * a počet hlasov v ľubovoľnom rozsahu vekov sa spočíta z dvoch prefixových súčtov, teda tiež
+ * zo 7 + 7 buniek. Vek mimo rozsahu sa započíta do najbližšieho krajného veku, takže sa nestratí ani hlas
+ * voliča mladšieho ako 18 rokov.
+ * </p>
+ * <p>
+ * Stromy sa vytvárajú pri prvom hlase kandidáta, resp. kandidáta v štáte, rovnako ako riadky
+ * {@link VoteTally}, a potom sa už nekopírujú. Súbežný dotaz môže vidieť hlas započítaný iba do časti
+ * buniek; po dokončení zápisov sú súčty presné.
+ * </p>
+ */
+public final class AgeHistogram {
+    /** Najvyšší samostatne počítaný vek; starší voliči sa započítajú k nemu. */
+    public static final int MAX_AGE = 127;
+    /** Namiesto ID kandidáta alebo štátu znamená všetkých kandidátov, resp. všetky štáty. */
+    public static final int ANY = -1;
+
+    private static final int SIZE = MAX_AGE + 1;
+
+    private volatile Row[] rows = new Row[16];
+
+    /**
+     * Stromy jedného kandidáta.
+     */
+    private static final class Row {
+        final AtomicLongArray all = new AtomicLongArray(SIZE + 1);
+        final AtomicReferenceArray<AtomicLongArray> byState = new AtomicReferenceArray<>(CountryRegistry.MAX_IDS);
+    }
+
+    /**
+     * Pripočíta hlasy voličov daného veku.
+     * @param candidateId ID kandidáta z {@link CandidateRegistry}.
+     * @param stateId ID štátu z {@link CountryRegistry}.
+     * @param age Vek voliča.
+     * @param count Počet hlasov.
+     */
+    public void add(int candidateId, int stateId, int age, long count) {
+        Row row = row(candidateId);
+        AtomicLongArray state = row.byState.get(stateId);
+        if (state == null) {
+            row.byState.compareAndSet(stateId, null, new AtomicLongArray(SIZE + 1));
+            state = row.byState.get(stateId);
+        }
+        int index = clamp(age) + 1;
+        add(row.all, index, count);
+        add(state, index, count);
+    }
+
+    private static void add(AtomicLongArray tree, int index, long count) {
+        for (int i = index; i <= SIZE; i += i & -i) {
+            tree.getAndAdd(i, count);
+        }
+    }
+
+    private static int clamp(int age) {
+        return Math.max(0, Math.min(age, MAX_AGE));
+    }
+
+    private Row row(int candidateId) {
+        Row[] current = rows;
+        Row row = candidateId < current.length ? current[candidateId] : null;
+        return row != null ? row : installRow(candidateId);
+    }
+
+    private synchronized Row installRow(int candidateId) {
+        Row[] current = rows;
+        if (candidateId >= current.length) {
+            // only the row references are copied, the trees stay where writers see them
+            current = Arrays.copyOf(current, Math.max(current.length * 2, candidateId + 1));
+        }
+        if (current[candidateId] == null) {
+            current[candidateId] = new Row();
+        }
+        rows = current;
+        return current[candidateId];
+    }
+
+    /**
+     * Spočíta hlasy voličov s vekom v uzavretom rozsahu {@code [fromAge, toAge]}.
+     * @param candidateId ID kandidáta alebo {@link #ANY}.
+     * @param stateId ID štátu alebo {@link #ANY}.
+     * @param fromAge Najnižší vek; vek pod 0 sa berie ako 0.
+     * @param toAge Najvyšší vek; vek nad {@value #MAX_AGE} zahŕňa všetkých starších voličov.
+     * @return Počet hlasov; 0 pre prázdny rozsah.
+     */
+    public long getVotes(int candidateId, int stateId, int fromAge, int toAge) {
+        if (fromAge > toAge) {
+            return 0;
+        }
+        int from = clamp(fromAge);
+        int to = clamp(toAge) + 1;
+        if (candidateId != ANY) {
+            Row[] current = rows;
+            return candidateId >= 0 && candidateId < current.length ? range(current[candidateId], stateId, from, to) : 0;
+        }
+        long total = 0;
+        for (Row row : rows) {
+            total += range(row, stateId, from, to);
+        }
+        return total;
+    }
+
+    private static long range(Row row, int stateId, int from, int to) {
+        if (row == null || stateId != ANY && (stateId < 0 || stateId >= CountryRegistry.MAX_IDS)) {
+            return 0;
+        }
+        AtomicLongArray tree = stateId == ANY ? row.all : row.byState.get(stateId);
+        return tree == null ? 0 : prefix(tree, to) - prefix(tree, from);
+    }
+
+    /**
+     * @return Súčet hlasov prvých {@code count} vekov, teda vekov 0 až {@code count - 1}.
+     */
+    private static long prefix(AtomicLongArray tree, int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Prejde všetky nenulové počty hlasov podľa kandidáta, štátu a veku, napr. pre snapshot.
+     * @param action Akcia volaná pre každú trojicu.
+     */
+    public void forEachAge(AgeConsumer action) {
+        Row[] current = rows;
+        long[] votes = new long[SIZE];
+        for (int candidateId = 0; candidateId < current.length; candidateId++) {
+            Row row = current[candidateId];
+            if (row == null) {
+                continue;
+            }
+            for (int stateId = 0; stateId < CountryRegistry.MAX_IDS; stateId++) {
+                AtomicLongArray tree = row.byState.get(stateId);
+                if (tree == null) {
+                    continue;
+                }
+                for (int i = 1; i <= SIZE; i++) {
+                    votes[i - 1] = tree.get(i);
+                }
+                // node i is the sum of its own age and its child nodes; going down, the children still hold node sums
+                for (int i = SIZE; i >= 1; i--) {
+                    for (int child = i - 1, end = i - (i & -i); child > end; child -= child & -child) {
+                        votes[i - 1] -= votes[child - 1];
+                    }
+                }
+                for (int age = 0; age < SIZE; age++) {
+                    if (votes[age] != 0) {
+                        action.accept(candidateId, stateId, age, votes[age]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Príjemca počtu hlasov jedného veku u jedného kandidáta v jednom štáte.
+     */
+    public interface AgeConsumer {
+        void accept(int candidateId, int stateId, int age, long votes);
+    }
+}
@@ -0,0 +1,55 @@
+package logic;
+
+/**
+ * Trieda {@code Ballot} predstavuje jeden hlasovací lístok s údajmi, ktoré prijíma
+ * {@link VotingManager#addVote(String, String, int, String, String, int)}.
+ */
+public final class Ballot {
+    private final String candidate;
+    private final String voterName;
+    private final int age;
+    private final String state;
+    private final String ID;
+    private final int psc;
+
+    /**
+     * @param candidate Meno kandidáta.
+     * @param voterName Meno voliča.
+     * @param age Vek voliča.
+     * @param state Štát voliča.
+     * @param ID Identifikačné číslo voliča.
+     * @param psc Poštové smerovacie číslo voliča.
+     */
+    public Ballot(String candidate, String voterName, int age, String state, String ID, int psc) {
+        this.candidate = candidate;
+        this.voterName = voterName;
+        this.age = age;
+        this.state = state;
+        this.ID = ID;
+        this.psc = psc;
+    }
+
+    public String getCandidate() {
+        return candidate;
+    }
+
+    public String getVoterName() {
+        return voterName;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public int getPsc() {
+        return psc;
+    }
+}
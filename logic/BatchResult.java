@@ -0,0 +1,54 @@
+package logic;
+
+/**
+ * Trieda {@code BatchResult} sumarizuje spracovanie dávky lístkov cez {@link VotingManager#addVotes}.
+ */
+public final class BatchResult {
+    private final VoteOutcome[] outcomes;
+    private final int accepted;
+    private final int duplicates;
+    private final int rejected;
+
+    /**
+     * @param outcomes Výsledok spracovania každého lístka v poradí dávky.
+     */
+    public BatchResult(VoteOutcome[] outcomes) {
+        this.outcomes = outcomes;
+        int acceptedCount = 0;
+        int duplicateCount = 0;
+        for (VoteOutcome outcome : outcomes) {
+            if (outcome == VoteOutcome.ACCEPTED) {
+                acceptedCount++;
+            } else if (outcome == VoteOutcome.DUPLICATE) {
+                duplicateCount++;
+            }
+        }
+        this.accepted = acceptedCount;
+        this.duplicates = duplicateCount;
+        this.rejected = outcomes.length - acceptedCount - duplicateCount;
+    }
+
+    /**
+     * @param index Poradie lístka v dávke.
+     * @return Výsledok spracovania lístka.
+     */
+    public VoteOutcome getOutcome(int index) {
+        return outcomes[index];
+    }
+
+    public int size() {
+        return outcomes.length;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,77 @@
+package logic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Trieda {@code CandidateRegistry} priraďuje kandidátom husté celočíselné ID v poradí,
+ * v akom sa prvýkrát objavia.
+ * <p>
+ * ID sa nikdy nemenia ani neuvoľňujú, takže ich možno použiť ako index do polí so súčtami hlasov.
+ * </p>
+ */
+public final class CandidateRegistry {
+    /** Najväčší počet kandidátov. */
+    public static final int MAX_CANDIDATES = 1 << 16;
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(MAX_CANDIDATES);
+    private static volatile int size;
+
+    private CandidateRegistry() {
+    }
+
+    /**
+     * Vráti ID kandidáta; nového kandidáta zaregistruje.
+     * @param candidate Meno kandidáta, nie null; volajúci odmietne lístok bez kandidáta skôr.
+     * @return ID kandidáta.
+     * @throws NullPointerException ak je {@code candidate} null.
+     * @throws IllegalStateException ak už je zaregistrovaný najväčší povolený počet kandidátov.
+     */
+    public static int idOf(String candidate) {
+        Integer id = ids.get(candidate);
+        return id != null ? id : register(candidate);
+    }
+
+    /**
+     * Vyhľadá ID kandidáta bez registrácie.
+     * @param candidate Meno kandidáta.
+     * @return ID kandidáta alebo -1, ak kandidát nie je známy.
+     */
+    public static int findId(String candidate) {
+        Integer id = candidate == null ? null : ids.get(candidate);
+        return id == null ? -1 : id;
+    }
+
+    private static synchronized int register(String candidate) {
+        Integer id = ids.get(candidate);
+        if (id != null) {
+            return id;
+        }
+        int next = size;
+        if (next == MAX_CANDIDATES) {
+            throw new IllegalStateException("Too many candidates");
+        }
+        // publish the name before the ID, so nameOf() never sees an ID without its name
+        names.set(next, candidate);
+        ids.put(candidate, next);
+        size = next + 1;
+        return next;
+    }
+
+    /**
+     * @param id ID kandidáta.
+     * @return Meno kandidáta.
+     */
+    public static String nameOf(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return Počet zaregistrovaných kandidátov; platné ID sú od 0 po {@code size() - 1}.
+     */
+    public static int size() {
+        return size;
+    }
+}
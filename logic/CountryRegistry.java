@@ -0,0 +1,155 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trieda {@code CountryRegistry} priraďuje štátom husté celočíselné ID.
+ * <p>
+ * Zoznam štátov sa zostaví raz pri prvom použití z kódov ISO 3166 a zoradí podľa zobrazovaného názvu;
+ * štát na pozícii {@code i} zoradeného zoznamu má ID {@code i + 1}. ID 0 patrí neurčenému štátu.
+ * Štát sa dá vyhľadať podľa názvu v predvolenom jazyku, podľa anglického názvu aj podľa kódu ISO.
+ * Neznámy názov, napr. z importovaného súboru alebo HTTP formulára, sa započíta ako neurčený štát;
+ * zoznam ID sa po zostavení nemení, takže ho nemožno zaplniť vymyslenými názvami.
+ * </p>
+ * <p>
+ * Zobrazovaný názov závisí od jazyka JVM, preto sa štát do súborov zapisuje a medzi uzlami posiela ako
+ * kód ISO ({@link #isoCodeOf(int)}) a späť sa mapuje cez {@link #idOfIsoCode(String)}.
+ * </p>
+ */
+public final class CountryRegistry {
+    /** ID neurčeného štátu. */
+    public static final int UNDETERMINED = 0;
+    /** Horná hranica ID štátov pre polia indexované ID štátu. */
+    public static final int MAX_IDS = 4096;
+    private static final String UNDETERMINED_NAME = "Undetermined";
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> isoIds = new HashMap<>(); // read-only after initialization
+    private static final List<String> countryNames;
+    private static final String[] isoCodes;
+    private static final String[] names;
+
+    static {
+        List<Locale> countries = new ArrayList<>();
+        for (String code : Locale.getISOCountries()) {
+            Locale country = new Locale("", code);
+            if (!country.getDisplayCountry().trim().isEmpty()) {
+                countries.add(country);
+            }
+        }
+        countries.sort(Comparator.comparing(Locale::getDisplayCountry));
+
+        List<String> sortedNames = new ArrayList<>(countries.size());
+        List<String> codes = new ArrayList<>(countries.size() + 1);
+        sortedNames.add(UNDETERMINED_NAME);
+        codes.add(null);
+        ids.put(UNDETERMINED_NAME, UNDETERMINED);
+        ids.put("", UNDETERMINED);
+        for (Locale country : countries) {
+            String name = country.getDisplayCountry();
+            if (ids.putIfAbsent(name, sortedNames.size()) == null) {
+                sortedNames.add(name);
+                codes.add(country.getCountry());
+            }
+        }
+        // aliases go in after all display names, so none of them can shadow a display name
+        for (Locale country : countries) {
+            int id = ids.get(country.getDisplayCountry());
+            ids.putIfAbsent(country.getDisplayCountry(Locale.ENGLISH), id);
+            ids.putIfAbsent(country.getCountry(), id);
+            try {
+                ids.putIfAbsent(country.getISO3Country(), id);
+            } catch (MissingResourceException e) {
+                // no three-letter code for this country
+            }
+        }
+        if (sortedNames.size() > MAX_IDS) {
+            throw new IllegalStateException("Too many countries: " + sortedNames.size());
+        }
+        names = sortedNames.toArray(new String[0]);
+        isoCodes = codes.toArray(new String[0]);
+        for (int id = 1; id < isoCodes.length; id++) {
+            isoIds.put(isoCodes[id], id);
+        }
+        countryNames = Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(names, 1, names.length)));
+    }
+
+    private CountryRegistry() {
+    }
+
+    /**
+     * Vráti ID štátu.
+     * @param state Názov štátu alebo kód ISO; null, prázdny reťazec alebo neznámy názov znamená neurčený štát.
+     * @return ID štátu.
+     */
+    public static int idOf(String state) {
+        if (state == null) {
+            return UNDETERMINED;
+        }
+        Integer id = ids.get(state);
+        if (id == null) {
+            id = ids.get(state.trim());
+        }
+        return id == null ? UNDETERMINED : id;
+    }
+
+    /**
+     * Vyhľadá ID štátu bez náhrady neznámeho názvu neurčeným štátom.
+     * @param state Názov štátu alebo kód ISO.
+     * @return ID štátu alebo -1, ak štát nie je známy.
+     */
+    public static int findId(String state) {
+        Integer id = state == null ? null : ids.get(state);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Vráti ID štátu podľa kódu ISO zapísaného {@link #isoCodeOf(int)}.
+     * @param isoCode Dvojpísmenový kód ISO 3166; null, prázdny alebo neznámy kód znamená neurčený štát.
+     * @return ID štátu.
+     */
+    public static int idOfIsoCode(String isoCode) {
+        Integer id = isoCode == null ? null : isoIds.get(isoCode);
+        return id == null ? UNDETERMINED : id;
+    }
+
+    /**
+     * @param id ID štátu.
+     * @return Zobrazovaný názov štátu v jazyku JVM.
+     */
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id ID štátu.
+     * @return Dvojpísmenový kód ISO 3166 alebo null pre neurčený štát.
+     */
+    public static String isoCodeOf(int id) {
+        return isoCodes[id];
+    }
+
+    /**
+     * @return Počet ID vrátane neurčeného štátu.
+     */
+    public static int size() {
+        return names.length;
+    }
+
+    /**
+     * Zoradený zoznam názvov štátov na výber; štát na pozícii {@code i} má ID {@code i + 1}.
+     * @return Nemenný zdieľaný zoznam.
+     */
+    public static List<String> getCountryNames() {
+        return countryNames;
+    }
+}
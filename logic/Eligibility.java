@@ -0,0 +1,32 @@
+package logic;
+
+/**
+ * Výsledok overenia voliča v zozname voličov {@link VoterRoll}.
+ */
+public enum Eligibility {
+    /** Volič je v zozname, smie voliť a jeho údaje sa zhodujú. */
+    ELIGIBLE("The voter is on the electoral roll."),
+    /** ID voliča v zozname nie je. */
+    NOT_REGISTERED("This ID is not on the electoral roll."),
+    /** Volič je v zozname, ale nesmie voliť, napr. bol zo zoznamu vyradený. */
+    NOT_ELIGIBLE("This voter is not eligible to vote."),
+    /** Vek sa nezhoduje so zoznamom. */
+    AGE_MISMATCH("The age does not match the electoral roll."),
+    /** Štát sa nezhoduje so zoznamom. */
+    STATE_MISMATCH("The state does not match the electoral roll."),
+    /** PSČ sa nezhoduje so zoznamom. */
+    PSC_MISMATCH("The zip code does not match the electoral roll.");
+
+    private final String message;
+
+    Eligibility(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return Správa pre voliča v angličtine, rovnako ako ostatné texty rozhrania.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,149 @@
+package logic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Číta rámce žurnálu {@link VoteJournal} cez pamäťovo mapovaný súbor.
+ * <p>
+ * Čítač si pamätá slovník kandidátov a štátov, takže ním možno pokračovať v čítaní od ľubovoľnej
+ * hranice rámca, ktorú vrátilo predchádzajúce volanie {@link #read}. Poškodený alebo neúplný rámec
+ * na konci súboru (napr. po páde počas zápisu) čítanie ukončí.
+ * </p>
+ */
+final class JournalReader {
+    private static final long WINDOW = 1L << 30;
+
+    /**
+     * Príjemca prehrávaných hlasov.
+     */
+    interface VoteSink {
+        void accept(String candidate, String state, int age, int psc, long idHash);
+    }
+
+    private final List<String> candidates;
+    private final List<String> states;
+
+    JournalReader() {
+        this(new ArrayList<>(), new ArrayList<>());
+    }
+
+    JournalReader(List<String> candidates, List<String> states) {
+        this.candidates = candidates;
+        this.states = states;
+    }
+
+    List<String> candidates() {
+        return candidates;
+    }
+
+    List<String> states() {
+        return states;
+    }
+
+    /**
+     * Prehrá všetky celé rámce v rozsahu {@code [from, to)}.
+     * @param channel Otvorený súbor žurnálu.
+     * @param from Pozícia začiatku rámca.
+     * @param to Koniec čítanej oblasti.
+     * @param sink Príjemca hlasov.
+     * @return Pozícia za posledným platným rámcom.
+     * @throws IOException ak súbor nemožno čítať alebo obsahuje neznámy typ záznamu.
+     */
+    long read(FileChannel channel, long from, long to, VoteSink sink) throws IOException {
+        long position = from;
+        CRC32C crc = new CRC32C();
+        while (to - position >= VoteJournal.FRAME_HEADER) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, to - position));
+            int consumed = 0;
+            while (window.remaining() >= VoteJournal.FRAME_HEADER) {
+                int start = window.position();
+                int length = window.getInt();
+                int checksum = window.getInt();
+                if (length < 0 || position + start + VoteJournal.FRAME_HEADER + length > to) {
+                    return position + start;
+                }
+                if (length > window.remaining()) {
+                    if (start == 0) {
+                        // the frame is larger than a whole window, map it on its own
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, position, VoteJournal.FRAME_HEADER + (long) length);
+                        window.position(VoteJournal.FRAME_HEADER);
+                    } else {
+                        break;
+                    }
+                }
+                ByteBuffer payload = window.slice();
+                payload.limit(length);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return position + start;
+                }
+                payload.flip();
+                decode(payload, sink);
+                window.position(window.position() + length);
+                consumed = window.position();
+            }
+            if (consumed == 0) {
+                break;
+            }
+            position += consumed;
+        }
+        return position;
+    }
+
+    private void decode(ByteBuffer payload, VoteSink sink) throws IOException {
+        while (payload.hasRemaining()) {
+            byte type = payload.get();
+            switch (type) {
+                case VoteJournal.CANDIDATE:
+                    define(candidates, getVarint(payload), getString(payload));
+                    break;
+                case VoteJournal.STATE:
+                    define(states, getVarint(payload), getString(payload));
+                    break;
+                case VoteJournal.VOTE:
+                    String candidate = candidates.get(getVarint(payload));
+                    String state = states.get(getVarint(payload));
+                    int age = payload.get() & 0xFF;
+                    int psc = payload.getInt();
+                    long idHash = payload.getLong();
+                    sink.accept(candidate, state, age, psc, idHash);
+                    break;
+                default:
+                    throw new IOException("Unknown journal record type " + type);
+            }
+        }
+    }
+
+    private static void define(List<String> dictionary, int code, String name) {
+        while (dictionary.size() <= code) {
+            dictionary.add(null);
+        }
+        dictionary.set(code, name);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[getVarint(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,247 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Trieda {@code Leaderboard} priebežne udržiava poradie kandidátov podľa počtu hlasov v jednom štáte
+ * alebo v celej krajine.
+ * <p>
+ * Poradie je pole ID kandidátov zoradené zostupne podľa hlasov, s indexom poradia pre každého kandidáta.
+ * Hlas iba posunie kandidáta nahor: binárne vyhľadávanie nájde prvého kandidáta s menej hlasmi a kandidáti
+ * medzi ním a starým miestom sa posunú o jedno nižšie, takže si zachovajú vzájomné poradie. Aktuálny víťaz,
+ * náskok a prvých {@code k} kandidátov sa tak čítajú priamo z poľa, bez triedenia pri každom obnovení
+ * výsledkov.
+ * </p>
+ * <p>
+ * Poradie chráni zámok. Vlákno, ktoré ho nezíska hneď, nečaká: hlasy odloží do atomických počítadiel
+ * a započíta ich ten, kto zámok práve drží, alebo najbližší dotaz. Dotaz preto vidí všetky hlasy
+ * pridané pred jeho volaním. Odložené hlasy sa započítajú v poradí ID kandidátov, nie v poradí príchodu.
+ * </p>
+ */
+public final class Leaderboard {
+    private static final int PENDING_BLOCK = 256;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] votes = new long[8];   // by candidate ID
+    private int[] order = new int[8];     // candidate IDs by rank
+    private int[] rankOf = new int[8];    // rank + 1 by candidate ID, 0 when not ranked yet
+    private int size;
+
+    private final AtomicReferenceArray<AtomicLongArray> pending =
+        new AtomicReferenceArray<>(CandidateRegistry.MAX_CANDIDATES / PENDING_BLOCK);
+    private final AtomicInteger pendingLimit = new AtomicInteger(); // highest pending ID + 1
+    private volatile boolean hasPending;
+
+    /**
+     * Pripočíta hlasy kandidátovi a posunie ho v poradí.
+     * @param candidateId ID kandidáta z {@link CandidateRegistry}.
+     * @param count Počet hlasov, nezáporný.
+     */
+    public void add(int candidateId, long count) {
+        if (lock.tryLock()) {
+            try {
+                apply(candidateId, count);
+                if (hasPending) {
+                    drain();
+                }
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        int index = candidateId / PENDING_BLOCK;
+        AtomicLongArray block = pending.get(index);
+        if (block == null) {
+            pending.compareAndSet(index, null, new AtomicLongArray(PENDING_BLOCK));
+            block = pending.get(index);
+        }
+        block.getAndAdd(candidateId % PENDING_BLOCK, count);
+        if (pendingLimit.get() <= candidateId) {
+            pendingLimit.accumulateAndGet(candidateId + 1, Math::max);
+        }
+        hasPending = true;
+        // the holder may have drained just before our write; whoever locks next picks it up
+        if (lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drain() {
+        hasPending = false;
+        int limit = pendingLimit.get();
+        for (int index = 0; index * PENDING_BLOCK < limit; index++) {
+            AtomicLongArray block = pending.get(index);
+            for (int i = 0; block != null && i < PENDING_BLOCK && index * PENDING_BLOCK + i < limit; i++) {
+                if (block.get(i) != 0) {
+                    apply(index * PENDING_BLOCK + i, block.getAndSet(i, 0));
+                }
+            }
+        }
+    }
+
+    private void apply(int candidateId, long count) {
+        if (candidateId >= votes.length) {
+            int length = Math.max(votes.length * 2, candidateId + 1);
+            votes = Arrays.copyOf(votes, length);
+            order = Arrays.copyOf(order, length);
+            rankOf = Arrays.copyOf(rankOf, length);
+        }
+        if (rankOf[candidateId] == 0) {
+            order[size] = candidateId;
+            rankOf[candidateId] = ++size;
+        }
+        long updated = votes[candidateId] += count;
+        int rank = rankOf[candidateId] - 1;
+        // first rank with fewer votes; everything below it up to our old rank moves down by one
+        int low = 0;
+        int high = rank;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (votes[order[middle]] < updated) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        if (low == rank) {
+            return;
+        }
+        // shift rather than swap, so candidates tied with each other keep their relative order
+        System.arraycopy(order, low, order, low + 1, rank - low);
+        for (int r = low + 1; r <= rank; r++) {
+            rankOf[order[r]] = r + 1;
+        }
+        order[low] = candidateId;
+        rankOf[candidateId] = low + 1;
+    }
+
+    private void lockAndDrain() {
+        lock.lock();
+        if (hasPending) {
+            drain();
+        }
+    }
+
+    /**
+     * @return Meno kandidáta s najviac hlasmi alebo null, ak ešte nikto nevolil; pri rovnosti vedie ten,
+     * kto počet dosiahol skôr, pričom hlasy odložené pri súbehu sa počítajú až pri ich započítaní.
+     */
+    public String getLeader() {
+        int leaderId = getLeaderId();
+        return leaderId < 0 ? null : CandidateRegistry.nameOf(leaderId);
+    }
+
+    /**
+     * @return ID vedúceho kandidáta alebo -1, ak ešte nikto nevolil.
+     */
+    public int getLeaderId() {
+        lockAndDrain();
+        try {
+            return size == 0 ? -1 : order[0];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return O koľko hlasov vedie prvý kandidát pred druhým; jediný kandidát vedie o všetky svoje hlasy.
+     */
+    public long getMargin() {
+        lockAndDrain();
+        try {
+            if (size == 0) {
+                return 0;
+            }
+            return votes[order[0]] - (size > 1 ? votes[order[1]] : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param candidateId ID kandidáta.
+     * @return Poradie kandidáta od 1 alebo 0, ak ešte nemá hlas.
+     */
+    public int getRank(int candidateId) {
+        lockAndDrain();
+        try {
+            return candidateId >= 0 && candidateId < rankOf.length ? rankOf[candidateId] : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Počet kandidátov s aspoň jedným hlasom.
+     */
+    public int size() {
+        lockAndDrain();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param k Najväčší počet kandidátov.
+     * @return Prvých {@code k} kandidátov zoradených podľa počtu hlasov.
+     */
+    public List<Standing> getTop(int k) {
+        lockAndDrain();
+        try {
+            int count = Math.min(Math.max(k, 0), size);
+            List<Standing> top = new ArrayList<>(count);
+            for (int rank = 0; rank < count; rank++) {
+                top.add(new Standing(order[rank], votes[order[rank]]));
+            }
+            return Collections.unmodifiableList(top);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Počet hlasov kandidáta na jeho mieste v poradí.
+     */
+    public static final class Standing {
+        private final int candidateId;
+        private final long votes;
+
+        Standing(int candidateId, long votes) {
+            this.candidateId = candidateId;
+            this.votes = votes;
+        }
+
+        /**
+         * @return ID kandidáta z {@link CandidateRegistry}.
+         */
+        public int getCandidateId() {
+            return candidateId;
+        }
+
+        public String getCandidate() {
+            return CandidateRegistry.nameOf(candidateId);
+        }
+
+        public long getVotes() {
+            return votes;
+        }
+
+        @Override
+        public String toString() {
+            return getCandidate() + ": " + votes;
+        }
+    }
+}
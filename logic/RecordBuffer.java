@@ -0,0 +1,89 @@
+package logic;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Jednoduchý rastúci bajtový buffer na skladanie binárnych záznamov žurnálu a snapshotov.
+ * Čísla sa zapisujú v poradí big-endian, rovnako ako ich číta {@link java.nio.ByteBuffer}.
+ */
+final class RecordBuffer {
+    private byte[] data;
+    private int size;
+
+    RecordBuffer(int capacity) {
+        data = new byte[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return data;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > data.length) {
+            byte[] grown = new byte[Math.max(data.length << 1, size + extra)];
+            System.arraycopy(data, 0, grown, 0, size);
+            data = grown;
+        }
+    }
+
+    void putByte(int value) {
+        ensure(1);
+        data[size++] = (byte) value;
+    }
+
+    void putInt(int value) {
+        ensure(4);
+        data[size++] = (byte) (value >>> 24);
+        data[size++] = (byte) (value >>> 16);
+        data[size++] = (byte) (value >>> 8);
+        data[size++] = (byte) value;
+    }
+
+    void putIntAt(int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    void putLong(long value) {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+
+    /**
+     * Zapíše nezáporné číslo v 7-bitovom kódovaní s premenlivou dĺžkou.
+     */
+    void putVarint(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        put(bytes, 0, bytes.length);
+    }
+
+    void put(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, data, size, length);
+        size += length;
+    }
+
+    void put(RecordBuffer other) {
+        put(other.data, 0, other.size);
+    }
+}
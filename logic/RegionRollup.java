@@ -0,0 +1,451 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trieda {@code RegionRollup} priebežne sčítava hlasy v strome PSČ → okres → kraj → štát.
+ * <p>
+ * Okres tvoria prvé tri číslice päťmiestneho PSČ ({@code psc / 100}) a kraj prvá číslica
+ * ({@code psc / 10000}). Každý hlas pripočíta jednotku do všetkých uzlov na svojej ceste, takže súčet
+ * ľubovoľného uzla je jedno čítanie z poľa. Polia sa pre štát alebo kraj vytvoria až pri prvom hlase.
+ * Hlas s PSČ mimo rozsahu sa započíta iba do štátu.
+ * </p>
+ * <p>
+ * Zoznam najaktívnejších okresov sa udržiava priebežne: hlas do okresu mimo zoznamu, ktorý
+ * neprekročil najmenší počet v zozname, zoberie zámok až vtedy, keď ho prekročí.
+ * </p>
+ */
+public final class RegionRollup {
+    /** Počet rôznych päťmiestnych PSČ. */
+    public static final int PSC_RANGE = 100_000;
+    /** Počet okresov v štáte. */
+    public static final int DISTRICTS = PSC_RANGE / 100;
+    /** Počet krajov v štáte. */
+    public static final int REGIONS = PSC_RANGE / 10_000;
+    /** Okres hlasov s PSČ mimo rozsahu. */
+    public static final int NO_DISTRICT = -1;
+
+    private static final int PSC_PER_REGION = PSC_RANGE / REGIONS;
+    private static final int CANDIDATE_BLOCK = 256;
+
+    private final AtomicReferenceArray<StateNode> states = new AtomicReferenceArray<>(CountryRegistry.MAX_IDS);
+    private final int topSize;
+    private volatile int[] topKeys = new int[0]; // stateId * DISTRICTS + district, copied on write under topLock
+    private volatile long topThreshold;
+    private final Object topLock = new Object();
+
+    /**
+     * @param topSize Počet okresov v zozname najaktívnejších okresov.
+     */
+    public RegionRollup(int topSize) {
+        this.topSize = topSize;
+    }
+
+    /**
+     * @param psc PSČ voliča.
+     * @return Okres PSČ alebo {@link #NO_DISTRICT}, ak je PSČ mimo rozsahu.
+     */
+    public static int districtOf(int psc) {
+        return psc >= 0 && psc < PSC_RANGE ? psc / 100 : NO_DISTRICT;
+    }
+
+    /**
+     * @param psc PSČ voliča.
+     * @return Kraj PSČ alebo {@link #NO_DISTRICT}, ak je PSČ mimo rozsahu.
+     */
+    public static int regionOf(int psc) {
+        return psc >= 0 && psc < PSC_RANGE ? psc / PSC_PER_REGION : NO_DISTRICT;
+    }
+
+    /**
+     * Započíta hlas do všetkých uzlov na ceste od PSČ po štát.
+     * @param candidateId ID kandidáta z {@link CandidateRegistry}.
+     * @param stateId ID štátu z {@link CountryRegistry}.
+     * @param psc PSČ voliča.
+     */
+    public void record(int candidateId, int stateId, int psc) {
+        StateNode state = state(stateId);
+        state.total.increment();
+        int district = districtOf(psc);
+        if (district == NO_DISTRICT) {
+            return;
+        }
+        int region = psc / PSC_PER_REGION;
+        state.pscTotals(region).incrementAndGet(psc % PSC_PER_REGION);
+        state.regionTotals.incrementAndGet(region);
+        state.regionVotes(region).add(candidateId, 1);
+        state.districtVotes(district).add(candidateId, 1);
+        long districtTotal = state.districtTotals.incrementAndGet(district);
+        if (districtTotal > topThreshold) {
+            offer(stateId * DISTRICTS + district, districtTotal);
+        }
+    }
+
+    /**
+     * Pripočíta hlasy kandidáta v okrese a jeho kraji, napr. pri obnove zo snapshotu; súčet štátu
+     * sa nemení.
+     */
+    void addDistrictVotes(int stateId, int district, int candidateId, long votes) {
+        StateNode state = state(stateId);
+        int region = district / (DISTRICTS / REGIONS);
+        state.regionTotals.addAndGet(region, votes);
+        state.regionVotes(region).add(candidateId, votes);
+        state.districtVotes(district).add(candidateId, votes);
+        long districtTotal = state.districtTotals.addAndGet(district, votes);
+        if (districtTotal > topThreshold) {
+            offer(stateId * DISTRICTS + district, districtTotal);
+        }
+    }
+
+    /**
+     * Pripočíta hlasy k súčtu štátu, napr. pri obnove zo snapshotu; ostatné uzly sa nemenia.
+     */
+    void addStateVotes(int stateId, long votes) {
+        state(stateId).total.add(votes);
+    }
+
+    /**
+     * Pripočíta počet hlasov jedného PSČ, napr. pri obnove zo snapshotu; ostatné uzly sa nemenia.
+     */
+    void addPscVotes(int stateId, int psc, long votes) {
+        state(stateId).pscTotals(psc / PSC_PER_REGION).addAndGet(psc % PSC_PER_REGION, votes);
+    }
+
+    private StateNode state(int stateId) {
+        StateNode state = states.get(stateId);
+        if (state == null) {
+            states.compareAndSet(stateId, null, new StateNode());
+            state = states.get(stateId);
+        }
+        return state;
+    }
+
+    private StateNode existing(int stateId) {
+        return stateId >= 0 && stateId < CountryRegistry.MAX_IDS ? states.get(stateId) : null;
+    }
+
+    /**
+     * @param stateId ID štátu.
+     * @return Počet hlasov odovzdaných v štáte.
+     */
+    public long getStateTotal(int stateId) {
+        StateNode state = existing(stateId);
+        return state == null ? 0 : state.total.sum();
+    }
+
+    /**
+     * @param stateId ID štátu.
+     * @param region Kraj, teda prvá číslica PSČ.
+     * @return Počet hlasov odovzdaných v kraji.
+     */
+    public long getRegionTotal(int stateId, int region) {
+        StateNode state = existing(stateId);
+        return state == null || region < 0 || region >= REGIONS ? 0 : state.regionTotals.get(region);
+    }
+
+    /**
+     * @param stateId ID štátu.
+     * @param district Okres, teda prvé tri číslice PSČ.
+     * @return Počet hlasov odovzdaných v okrese.
+     */
+    public long getDistrictTotal(int stateId, int district) {
+        StateNode state = existing(stateId);
+        return state == null || district < 0 || district >= DISTRICTS ? 0 : state.districtTotals.get(district);
+    }
+
+    /**
+     * @param stateId ID štátu.
+     * @param psc PSČ.
+     * @return Počet hlasov voličov s daným PSČ.
+     */
+    public long getPscTotal(int stateId, int psc) {
+        StateNode state = existing(stateId);
+        if (state == null || districtOf(psc) == NO_DISTRICT) {
+            return 0;
+        }
+        AtomicLongArray totals = state.pscTotals.get(psc / PSC_PER_REGION);
+        return totals == null ? 0 : totals.get(psc % PSC_PER_REGION);
+    }
+
+    /**
+     * @param stateId ID štátu.
+     * @param region Kraj.
+     * @param candidateId ID kandidáta.
+     * @return Počet hlasov kandidáta v kraji.
+     */
+    public long getRegionVotes(int stateId, int region, int candidateId) {
+        StateNode state = existing(stateId);
+        if (state == null || region < 0 || region >= REGIONS) {
+            return 0;
+        }
+        CandidateCounts votes = state.regionVotes.get(region);
+        return votes == null ? 0 : votes.get(candidateId);
+    }
+
+    /**
+     * @param stateId ID štátu.
+     * @param district Okres.
+     * @param candidateId ID kandidáta.
+     * @return Počet hlasov kandidáta v okrese.
+     */
+    public long getDistrictVotes(int stateId, int district, int candidateId) {
+        StateNode state = existing(stateId);
+        if (state == null || district < 0 || district >= DISTRICTS) {
+            return 0;
+        }
+        CandidateCounts votes = state.districtVotes.get(district);
+        return votes == null ? 0 : votes.get(candidateId);
+    }
+
+    /**
+     * Prejde nenulové počty hlasov kandidátov v okresoch.
+     * @param action Akcia volaná pre každú trojicu štát/okres/kandidát.
+     */
+    public void forEachDistrictVotes(DistrictVotesConsumer action) {
+        for (int stateId = 0; stateId < CountryRegistry.MAX_IDS; stateId++) {
+            StateNode state = states.get(stateId);
+            for (int district = 0; state != null && district < DISTRICTS; district++) {
+                CandidateCounts votes = state.districtVotes.get(district);
+                if (votes != null) {
+                    int id = stateId;
+                    int d = district;
+                    votes.forEach((candidateId, count) -> action.accept(id, d, candidateId, count));
+                }
+            }
+        }
+    }
+
+    /**
+     * Prejde nenulové počty hlasov jednotlivých PSČ.
+     * @param action Akcia volaná pre každú dvojicu štát/PSČ.
+     */
+    public void forEachPscTotal(PscTotalConsumer action) {
+        for (int stateId = 0; stateId < CountryRegistry.MAX_IDS; stateId++) {
+            StateNode state = states.get(stateId);
+            if (state == null) {
+                continue;
+            }
+            for (int region = 0; region < REGIONS; region++) {
+                AtomicLongArray totals = state.pscTotals.get(region);
+                for (int i = 0; totals != null && i < PSC_PER_REGION; i++) {
+                    long votes = totals.get(i);
+                    if (votes != 0) {
+                        action.accept(stateId, region * PSC_PER_REGION + i, votes);
+                    }
+                }
+            }
+        }
+    }
+
+    private void offer(int key, long votes) {
+        int[] keys = topKeys;
+        if (keys.length == topSize) {
+            for (int member : keys) {
+                if (member == key) {
+                    // already listed; its count is read live, so nothing to update
+                    return;
+                }
+            }
+        }
+        synchronized (topLock) {
+            keys = topKeys;
+            int weakest = -1;
+            long weakestVotes = Long.MAX_VALUE;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return;
+                }
+                long memberVotes = districtTotal(keys[i]);
+                if (memberVotes < weakestVotes) {
+                    weakest = i;
+                    weakestVotes = memberVotes;
+                }
+            }
+            if (keys.length < topSize) {
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                keys[keys.length - 1] = key;
+                topKeys = keys;
+                // keep taking the lock until the list is full
+                topThreshold = keys.length < topSize ? 0 : minimum(keys);
+            } else if (votes > weakestVotes) {
+                keys = keys.clone();
+                keys[weakest] = key;
+                topKeys = keys;
+                topThreshold = minimum(keys);
+            } else {
+                // the recorded minimum was stale because listed districts kept growing
+                topThreshold = weakestVotes;
+            }
+        }
+    }
+
+    private long minimum(int[] keys) {
+        long minimum = Long.MAX_VALUE;
+        for (int key : keys) {
+            minimum = Math.min(minimum, districtTotal(key));
+        }
+        return minimum;
+    }
+
+    private long districtTotal(int key) {
+        return getDistrictTotal(key / DISTRICTS, key % DISTRICTS);
+    }
+
+    /**
+     * Vráti najaktívnejšie okresy zoradené podľa počtu hlasov. Zoznam sa nezostavuje prechodom cez
+     * všetky okresy, iba sa zoradia jeho aktuálni členovia.
+     * @return Najviac {@code topSize} okresov.
+     */
+    public List<District> getTopDistricts() {
+        int[] keys = topKeys;
+        List<District> districts = new ArrayList<>(keys.length);
+        for (int key : keys) {
+            districts.add(new District(key / DISTRICTS, key % DISTRICTS, districtTotal(key)));
+        }
+        districts.sort(Comparator.comparingLong(District::getVotes).reversed());
+        return districts;
+    }
+
+    /**
+     * Súčet hlasov jedného okresu.
+     */
+    public static final class District {
+        private final int stateId;
+        private final int district;
+        private final long votes;
+
+        District(int stateId, int district, long votes) {
+            this.stateId = stateId;
+            this.district = district;
+            this.votes = votes;
+        }
+
+        /**
+         * @return ID štátu z {@link CountryRegistry}.
+         */
+        public int getStateId() {
+            return stateId;
+        }
+
+        public String getState() {
+            return CountryRegistry.nameOf(stateId);
+        }
+
+        /**
+         * @return Prvé tri číslice PSČ okresu.
+         */
+        public int getDistrict() {
+            return district;
+        }
+
+        public long getVotes() {
+            return votes;
+        }
+
+        @Override
+        public String toString() {
+            return getState() + " " + String.format("%03d", district) + ": " + votes;
+        }
+    }
+
+    /**
+     * Príjemca počtu hlasov kandidáta v okrese.
+     */
+    public interface DistrictVotesConsumer {
+        void accept(int stateId, int district, int candidateId, long votes);
+    }
+
+    /**
+     * Príjemca počtu hlasov jedného PSČ.
+     */
+    public interface PscTotalConsumer {
+        void accept(int stateId, int psc, long votes);
+    }
+
+    /**
+     * Uzly jedného štátu. Polia krajov a okresov sa vytvoria naraz, PSČ a výsledky kandidátov
+     * až pri prvom hlase v danom kraji alebo okrese.
+     */
+    private static final class StateNode {
+        final LongAdder total = new LongAdder();
+        final AtomicLongArray regionTotals = new AtomicLongArray(REGIONS);
+        final AtomicLongArray districtTotals = new AtomicLongArray(DISTRICTS);
+        final AtomicReferenceArray<AtomicLongArray> pscTotals = new AtomicReferenceArray<>(REGIONS);
+        final AtomicReferenceArray<CandidateCounts> regionVotes = new AtomicReferenceArray<>(REGIONS);
+        final AtomicReferenceArray<CandidateCounts> districtVotes = new AtomicReferenceArray<>(DISTRICTS);
+
+        AtomicLongArray pscTotals(int region) {
+            AtomicLongArray totals = pscTotals.get(region);
+            if (totals == null) {
+                pscTotals.compareAndSet(region, null, new AtomicLongArray(PSC_PER_REGION));
+                totals = pscTotals.get(region);
+            }
+            return totals;
+        }
+
+        CandidateCounts regionVotes(int region) {
+            return counts(regionVotes, region);
+        }
+
+        CandidateCounts districtVotes(int district) {
+            return counts(districtVotes, district);
+        }
+
+        private static CandidateCounts counts(AtomicReferenceArray<CandidateCounts> nodes, int index) {
+            CandidateCounts counts = nodes.get(index);
+            if (counts == null) {
+                nodes.compareAndSet(index, null, new CandidateCounts());
+                counts = nodes.get(index);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Počty hlasov kandidátov jedného uzla v blokoch po {@value #CANDIDATE_BLOCK} kandidátoch.
+     */
+    private static final class CandidateCounts {
+        private final AtomicReferenceArray<AtomicLongArray> blocks =
+            new AtomicReferenceArray<>(CandidateRegistry.MAX_CANDIDATES / CANDIDATE_BLOCK);
+
+        void add(int candidateId, long votes) {
+            int index = candidateId / CANDIDATE_BLOCK;
+            AtomicLongArray block = blocks.get(index);
+            if (block == null) {
+                blocks.compareAndSet(index, null, new AtomicLongArray(CANDIDATE_BLOCK));
+                block = blocks.get(index);
+            }
+            block.addAndGet(candidateId % CANDIDATE_BLOCK, votes);
+        }
+
+        long get(int candidateId) {
+            if (candidateId < 0) {
+                return 0;
+            }
+            AtomicLongArray block = blocks.get(candidateId / CANDIDATE_BLOCK);
+            return block == null ? 0 : block.get(candidateId % CANDIDATE_BLOCK);
+        }
+
+        void forEach(CandidateVotesConsumer action) {
+            for (int index = 0; index < blocks.length(); index++) {
+                AtomicLongArray block = blocks.get(index);
+                for (int i = 0; block != null && i < CANDIDATE_BLOCK; i++) {
+                    long votes = block.get(i);
+                    if (votes != 0) {
+                        action.accept(index * CANDIDATE_BLOCK + i, votes);
+                    }
+                }
+            }
+        }
+    }
+
+    private interface CandidateVotesConsumer {
+        void accept(int candidateId, long votes);
+    }
+}
@@ -0,0 +1,70 @@
+package logic;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Trieda {@code ResultsDelta} nesie iba tie súčty, ktoré sa zmenili od predchádzajúcej zmeny
+ * doručenej tomu istému odberateľovi.
+ * <p>
+ * Hodnoty sú celkové súčty, nie prírastky, takže ich odberateľ môže do svojho modelu priamo prepísať.
+ * Vekové skupiny sú malé a posielajú sa vždy celé.
+ * </p>
+ */
+public final class ResultsDelta {
+    private final long version;
+    private final Map<String, Long> candidateTotals;
+    private final Map<String, Long> stateTotals;
+    private final long countUnder18;
+    private final long count18to30;
+    private final long count31to60;
+    private final long countOver60;
+
+    ResultsDelta(long version, Map<String, Long> candidateTotals, Map<String, Long> stateTotals,
+                 long countUnder18, long count18to30, long count31to60, long countOver60) {
+        this.version = version;
+        this.candidateTotals = Collections.unmodifiableMap(candidateTotals);
+        this.stateTotals = Collections.unmodifiableMap(stateTotals);
+        this.countUnder18 = countUnder18;
+        this.count18to30 = count18to30;
+        this.count31to60 = count31to60;
+        this.countOver60 = countOver60;
+    }
+
+    /**
+     * @return Verzia výsledkov ({@link VotingManager#getVersion()}) v čase zostavenia zmeny.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Nové celkové počty hlasov kandidátov, ktorých súčet sa zmenil.
+     */
+    public Map<String, Long> getCandidateTotals() {
+        return candidateTotals;
+    }
+
+    /**
+     * @return Nové celkové počty hlasov štátov, ktorých súčet sa zmenil.
+     */
+    public Map<String, Long> getStateTotals() {
+        return stateTotals;
+    }
+
+    public long getCountUnder18() {
+        return countUnder18;
+    }
+
+    public long getCount18to30() {
+        return count18to30;
+    }
+
+    public long getCount31to60() {
+        return count31to60;
+    }
+
+    public long getCountOver60() {
+        return countOver60;
+    }
+}
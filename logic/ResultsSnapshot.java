@@ -0,0 +1,286 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Trieda {@code ResultsSnapshot} je nemenný obraz výsledkov k jednej verzii {@link VotingManager#getVersion()}.
+ * <p>
+ * Všetky súčty sa spočítajú z jedného prechodu maticou {@link VoteTally}, takže súčty kandidátov, štátov
+ * a vekových skupín sú navzájom konzistentné. Obraz vytvára {@link VotingManager#getResultsSnapshot()}
+ * a zverejní ho cez {@code volatile} referenciu; čitatelia ho potom používajú bez zámkov a bez vplyvu
+ * na príjem hlasov. Obraz verzie {@code v} obsahuje všetky hlasy prijaté do tejto verzie a môže obsahovať
+ * aj niekoľko hlasov prijatých počas jeho vytvárania.
+ * </p>
+ * <p>
+ * Kandidáti sú zoradení podľa počtu hlasov v obraze. Poradie sa nezostavuje triedením, prevezme sa
+ * z priebežne udržiavaných {@link Leaderboard} a iba sa opraví pre hlasy, o ktoré sa poradie a obraz
+ * líšia, čo je zvyčajne jeden prechod bez jedinej výmeny.
+ * </p>
+ */
+public final class ResultsSnapshot {
+    private final long version;
+    private final long createdMillis;
+    private final Map<String, Long> candidateVotes;
+    private final Map<String, Long> stateTotals;
+    private final Map<String, Map<String, Long>> stateVotes;
+    private final long[] ageBuckets;
+    private final long totalVotes;
+    private final List<RegionRollup.District> topDistricts;
+    private volatile String formatted; // rendered on first use, racing renderers produce the same text
+
+    private ResultsSnapshot(long version, Map<String, Long> candidateVotes, Map<String, Long> stateTotals,
+                            Map<String, Map<String, Long>> stateVotes, long[] ageBuckets, long totalVotes,
+                            List<RegionRollup.District> topDistricts) {
+        this.version = version;
+        this.createdMillis = System.currentTimeMillis();
+        this.candidateVotes = candidateVotes;
+        this.stateTotals = stateTotals;
+        this.stateVotes = stateVotes;
+        this.ageBuckets = ageBuckets;
+        this.totalVotes = totalVotes;
+        this.topDistricts = topDistricts;
+    }
+
+    /**
+     * Vytvorí obraz jedným prechodom matice.
+     * @param tally Súčty hlasov.
+     * @param version Verzia výsledkov prečítaná pred prechodom.
+     */
+    static ResultsSnapshot of(VoteTally tally, long version) {
+        long[][] byCandidate = new long[CandidateRegistry.size()][];
+        long[] ageBuckets = new long[VoteTally.AGE_BUCKETS];
+        tally.forEachCell((candidateId, stateId, bucket, votes) -> {
+            if (candidateId >= byCandidate.length) {
+                return; // registered during the scan, so it belongs to the next version
+            }
+            if (byCandidate[candidateId] == null) {
+                byCandidate[candidateId] = new long[CountryRegistry.MAX_IDS];
+            }
+            byCandidate[candidateId][stateId] += votes;
+            ageBuckets[bucket] += votes;
+        });
+        int states = CountryRegistry.size();
+        long[] stateTotalsById = new long[states];
+        long[] candidateTotals = new long[byCandidate.length];
+        long totalVotes = 0;
+        for (int candidateId = 0; candidateId < byCandidate.length; candidateId++) {
+            long[] row = byCandidate[candidateId];
+            if (row == null) {
+                continue;
+            }
+            for (int stateId = 0; stateId < states; stateId++) {
+                candidateTotals[candidateId] += row[stateId];
+                stateTotalsById[stateId] += row[stateId];
+            }
+            totalVotes += candidateTotals[candidateId];
+        }
+        Map<String, Long> candidateVotes = new LinkedHashMap<>();
+        for (int candidateId : ranked(tally.getNationalLeaderboard(), byCandidate.length, id -> candidateTotals[id])) {
+            candidateVotes.put(CandidateRegistry.nameOf(candidateId), candidateTotals[candidateId]);
+        }
+        Map<String, Long> stateTotals = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> stateVotes = new LinkedHashMap<>();
+        for (int stateId = 0; stateId < states; stateId++) {
+            if (stateTotalsById[stateId] == 0) {
+                continue;
+            }
+            String state = CountryRegistry.nameOf(stateId);
+            stateTotals.put(state, stateTotalsById[stateId]);
+            Map<String, Long> votesByCandidate = new LinkedHashMap<>();
+            int id = stateId;
+            IntToLongFunction stateVotesOf = candidateId -> byCandidate[candidateId] == null ? 0 : byCandidate[candidateId][id];
+            for (int candidateId : ranked(tally.getLeaderboard(stateId), byCandidate.length, stateVotesOf)) {
+                votesByCandidate.put(CandidateRegistry.nameOf(candidateId), stateVotesOf.applyAsLong(candidateId));
+            }
+            stateVotes.put(state, Collections.unmodifiableMap(votesByCandidate));
+        }
+        return new ResultsSnapshot(version, Collections.unmodifiableMap(candidateVotes),
+            Collections.unmodifiableMap(stateTotals), Collections.unmodifiableMap(stateVotes), ageBuckets, totalVotes,
+            List.copyOf(tally.getRegions().getTopDistricts()));
+    }
+
+    /**
+     * Zoradí kandidátov s nenulovým počtom hlasov zostupne podľa {@code votesOf}, pri rovnosti
+     * v poradí tabuľky. Tabuľka môže obsahovať hlasy prijaté po prechode maticou alebo ešte
+     * nemusí poznať kandidáta z matice; vkladanie opraví obe odchýlky.
+     */
+    private static int[] ranked(Leaderboard board, int candidates, IntToLongFunction votesOf) {
+        int[] ids = new int[candidates];
+        boolean[] listed = new boolean[candidates];
+        int count = 0;
+        if (board != null) {
+            for (Leaderboard.Standing standing : board.getTop(candidates)) {
+                int candidateId = standing.getCandidateId();
+                if (candidateId < candidates && votesOf.applyAsLong(candidateId) != 0) {
+                    ids[count++] = candidateId;
+                    listed[candidateId] = true;
+                }
+            }
+        }
+        for (int candidateId = 0; candidateId < candidates; candidateId++) {
+            if (!listed[candidateId] && votesOf.applyAsLong(candidateId) != 0) {
+                ids[count++] = candidateId;
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            int candidateId = ids[i];
+            long votes = votesOf.applyAsLong(candidateId);
+            int j = i - 1;
+            while (j >= 0 && votesOf.applyAsLong(ids[j]) < votes) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = candidateId;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * @return Verzia výsledkov, ku ktorej obraz vznikol.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Čas vytvorenia obrazu v milisekundách od epochy.
+     */
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    /**
+     * @return Počet hlasov podľa kandidáta, zoradené od najviac hlasov.
+     */
+    public Map<String, Long> getCandidateVotes() {
+        return candidateVotes;
+    }
+
+    /**
+     * @param candidate Meno kandidáta.
+     * @return Počet hlasov kandidáta.
+     */
+    public long getCandidateVotes(String candidate) {
+        return candidateVotes.getOrDefault(candidate, 0L);
+    }
+
+    /**
+     * @return Počet hlasov podľa štátu v poradí registrácie štátov; prázdny názov je neurčený štát.
+     */
+    public Map<String, Long> getStateTotals() {
+        return stateTotals;
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @return Počet hlasov odovzdaných v štáte.
+     */
+    public long getStateTotal(String state) {
+        return stateTotals.getOrDefault(state, 0L);
+    }
+
+    /**
+     * @return Počet hlasov podľa štátu a v rámci štátu podľa kandidáta, zoradené od najviac hlasov.
+     */
+    public Map<String, Map<String, Long>> getStateVotes() {
+        return stateVotes;
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @return Kandidát s najviac hlasmi v štáte alebo null, ak v štáte nikto nevolil.
+     */
+    public String getStateLeader(String state) {
+        Map<String, Long> votes = stateVotes.getOrDefault(state, Collections.emptyMap());
+        return votes.isEmpty() ? null : votes.keySet().iterator().next();
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @return O koľko hlasov vedie prvý kandidát v štáte pred druhým.
+     */
+    public long getStateMargin(String state) {
+        Iterator<Long> votes = stateVotes.getOrDefault(state, Collections.emptyMap()).values().iterator();
+        long leader = votes.hasNext() ? votes.next() : 0;
+        return leader - (votes.hasNext() ? votes.next() : 0);
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @param candidate Meno kandidáta.
+     * @return Počet hlasov kandidáta v štáte.
+     */
+    public long getStateVotes(String state, String candidate) {
+        return stateVotes.getOrDefault(state, Collections.emptyMap()).getOrDefault(candidate, 0L);
+    }
+
+    /**
+     * @return Počty hlasov podľa vekovej skupiny, indexované ako {@link VoteTally#getAgeBucketTotals()}.
+     */
+    public long[] getAgeBucketTotals() {
+        return ageBuckets.clone();
+    }
+
+    /**
+     * @return Súčet hlasov všetkých kandidátov v obraze.
+     */
+    public long getTotalVotes() {
+        return totalVotes;
+    }
+
+    /**
+     * @return Najaktívnejšie okresy zoradené podľa počtu hlasov.
+     */
+    public List<RegionRollup.District> getTopDistricts() {
+        return topDistricts;
+    }
+
+    /**
+     * @return Výsledky v tvare HTML pre okno výsledkov; text sa vytvorí raz pre každý obraz.
+     */
+    public String getFormattedResults() {
+        String text = formatted;
+        if (text == null) {
+            text = format();
+            formatted = text;
+        }
+        return text;
+    }
+
+    private String format() {
+        StringBuilder results = new StringBuilder("<html>");
+        candidateVotes.forEach((candidate, votes) -> results.append("Candidate: ").append(candidate)
+            .append(", Total number of votes: ").append(votes).append("<br>"));
+
+        results.append("Age demographics:<br>");
+        if (ageBuckets[VoteTally.UNDER_18] != 0) {
+            results.append("Under 18: ").append(ageBuckets[VoteTally.UNDER_18]).append("<br>");
+        }
+        results.append("18-30: ").append(ageBuckets[VoteTally.FROM_18_TO_30]).append("<br>")
+            .append("31-60: ").append(ageBuckets[VoteTally.FROM_31_TO_60]).append("<br>")
+            .append("60+: ").append(ageBuckets[VoteTally.OVER_60]).append("<br>");
+
+        results.append("Votes by state:<br>");
+        stateTotals.forEach((state, votes) -> results.append("State: ")
+            .append(state.isEmpty() ? "Undetermined" : state)
+            .append(", Total votes: ").append(votes)
+            .append(", Leader: ").append(getStateLeader(state))
+            .append(" (margin ").append(getStateMargin(state)).append(")<br>"));
+
+        results.append("Most active districts:<br>");
+        for (RegionRollup.District district : topDistricts) {
+            results.append("District: ").append(district.getState()).append(' ')
+                .append(String.format("%03d", district.getDistrict()))
+                .append(", Total votes: ").append(district.getVotes()).append("<br>");
+        }
+
+        results.append("</html>");
+        return results.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Trieda {@code ResultsSubscription} sleduje, ktoré súčty sa zmenili, a doručuje ich odberateľovi
+ * ako {@link ResultsDelta}.
+ * <p>
+ * {@code addVote} pri každom hlase iba nastaví bity kandidáta a štátu v bitových mapách zmien
+ * indexovaných ich ID a pri prvej zmene zobudí
+ * čakajúce vlákno. Hodnoty sa čítajú až pri zostavení zmeny, takže rýchla séria hlasov sa zlúči do
+ * jednej zmeny. Odber získaný cez {@link VotingManager#subscribe()} treba po použití zatvoriť.
+ * </p>
+ */
+public final class ResultsSubscription implements AutoCloseable {
+    private final VoteTally tally;
+    private final Collection<ResultsSubscription> registry;
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] dirtyCandidates = new long[CandidateRegistry.MAX_CANDIDATES / Long.SIZE];
+    private final long[] dirtyStates = new long[CountryRegistry.MAX_IDS / Long.SIZE];
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile Thread waiter;
+
+    ResultsSubscription(VoteTally tally, Collection<ResultsSubscription> registry) {
+        this.tally = tally;
+        this.registry = registry;
+    }
+
+    /**
+     * Označí všetky existujúce súčty ako zmenené, aby prvá zmena obsahovala celý stav.
+     */
+    void markAll() {
+        tally.forEachCell((candidateId, stateId, bucket, votes) -> {
+            mark(dirtyCandidates, candidateId);
+            mark(dirtyStates, stateId);
+        });
+        signal();
+    }
+
+    void markDirty(int candidateId, int stateId) {
+        mark(dirtyCandidates, candidateId);
+        mark(dirtyStates, stateId);
+        signal();
+    }
+
+    private static void mark(long[] dirty, int id) {
+        long bit = 1L << id;
+        // plain read first: the atomic OR would take the cache line exclusively even when the bit is set
+        if (((long) WORDS.getOpaque(dirty, id >>> 6) & bit) == 0) {
+            WORDS.getAndBitwiseOr(dirty, id >>> 6, bit);
+        }
+    }
+
+    private void signal() {
+        if (!pending.get() && pending.compareAndSet(false, true)) {
+            Thread current = waiter;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+    }
+
+    /**
+     * Počká na ďalšiu zmenu výsledkov.
+     *
+     * @param timeout Najdlhší čas čakania.
+     * @param unit Jednotka času čakania.
+     * @return Zmenené súčty, alebo {@code null}, ak sa počas čakania nič nezmenilo.
+     * @throws InterruptedException ak bolo čakajúce vlákno prerušené.
+     */
+    public ResultsDelta awaitDelta(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiter = Thread.currentThread();
+        try {
+            while (true) {
+                while (!pending.get()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+                // clear before draining, so a vote that races with the drain signals again
+                pending.set(false);
+                Map<String, Long> candidates = drainCandidates();
+                Map<String, Long> states = drainStates();
+                if (!candidates.isEmpty() || !states.isEmpty()) {
+                    long[] ages = tally.getAgeBucketTotals();
+                    return new ResultsDelta(tally.getTotalVotes(), candidates, states, ages[VoteTally.UNDER_18],
+                        ages[VoteTally.FROM_18_TO_30], ages[VoteTally.FROM_31_TO_60], ages[VoteTally.OVER_60]);
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    private Map<String, Long> drainCandidates() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (int word = 0; word < dirtyCandidates.length; word++) {
+            for (long bits = takeWord(dirtyCandidates, word); bits != 0; bits &= bits - 1) {
+                int candidateId = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                totals.put(CandidateRegistry.nameOf(candidateId), tally.getCandidateVotes(candidateId));
+            }
+        }
+        return totals;
+    }
+
+    private Map<String, Long> drainStates() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        long[] stateTotals = null;
+        for (int word = 0; word < dirtyStates.length; word++) {
+            for (long bits = takeWord(dirtyStates, word); bits != 0; bits &= bits - 1) {
+                if (stateTotals == null) {
+                    // one scan of the tally covers every dirty state
+                    stateTotals = tally.getStateTotals();
+                }
+                int stateId = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                totals.put(CountryRegistry.nameOf(stateId), stateId < stateTotals.length ? stateTotals[stateId] : 0L);
+            }
+        }
+        return totals;
+    }
+
+    private static long takeWord(long[] dirty, int word) {
+        return (long) WORDS.getOpaque(dirty, word) == 0 ? 0 : (long) WORDS.getAndSet(dirty, word, 0L);
+    }
+
+    /**
+     * Ukončí odber; {@code addVote} odteraz tento odber nebude informovať.
+     */
+    @Override
+    public void close() {
+        registry.remove(this);
+    }
+}
@@ -0,0 +1,277 @@
+package logic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Trieda {@code TurnoutSeries} počíta prijaté a odmietnuté lístky každého spôsobu hlasovania
+ * po sekundách, minútach a hodinách.
+ * <p>
+ * Každá úroveň je kruhový buffer pevnej veľkosti v {@link AtomicLongArray}. Prvok buffera obsahuje
+ * v horných 32 bitoch číslo intervalu (napr. sekundu od 1. 1. 1970) a v dolných počet lístkov, takže
+ * sa dá pripočítať aj vynulovať pre nový interval jedinou atomickou operáciou bez zámkov. Lístok
+ * zapíše iba do sekundového buffera, zvyčajne jedným {@code getAndAdd}. Sekundový buffer má ako
+ * {@link VoteTally} vlastnú kópiu pre každý z {@value #STRIPES} pruhov, do ktorých sa vlákna rozdelia
+ * podľa ID, takže súbežné lístky v tej istej sekunde nepripočítavajú do jedného riadku cache. Prvý lístok
+ * novej sekundy v pruhu zároveň prenesie ukončené sekundy všetkých pruhov do minútového a hodinového
+ * buffera; hodnoty ešte neprenesených sekúnd sa pri čítaní dopočítajú sčítaním pruhov sekundového buffera.
+ * </p>
+ * <p>
+ * Súčty sa uchovávajú iba v pamäti. Sekundy sa prenášajú so sekundovým oneskorením, takže lístok
+ * zapísaný s hodinami o viac ako sekundu pozadu sa v minútach a hodinách neprejaví.
+ * </p>
+ */
+public final class TurnoutSeries {
+    /**
+     * Dĺžka intervalu a počet intervalov, ktoré si buffer pamätá.
+     */
+    public enum Resolution {
+        SECOND(1, 3600),
+        MINUTE(60, 24 * 60),
+        HOUR(3600, 7 * 24);
+
+        private final int seconds;
+        private final int capacity;
+
+        Resolution(int seconds, int capacity) {
+            this.seconds = seconds;
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return Dĺžka jedného intervalu v sekundách.
+         */
+        public int getSeconds() {
+            return seconds;
+        }
+
+        /**
+         * @return Počet posledných intervalov, ktoré sú k dispozícii.
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    private static final int SERIES = VoteChannel.values().length * 2;
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+    private static final int STRIPES = 8;
+    private static final int STRIPE_STRIDE = SERIES * Resolution.SECOND.capacity + 8; // a cache line between stripes
+
+    private final AtomicLongArray seconds = new AtomicLongArray(STRIPES * STRIPE_STRIDE);
+    private final AtomicLongArray minutes = new AtomicLongArray(SERIES * Resolution.MINUTE.capacity);
+    private final AtomicLongArray hours = new AtomicLongArray(SERIES * Resolution.HOUR.capacity);
+    private final AtomicLong foldVersion = new AtomicLong(); // odd while seconds are being folded
+    private volatile long foldedUntil; // every second before this one is already in minutes and hours
+
+    public TurnoutSeries() {
+        foldedUntil = nowSecond();
+    }
+
+    /**
+     * Aktuálny čas s presnosťou na sekundu. Hodnotu posúva samostatné vlákno na začiatku každej
+     * sekundy, takže čítanie je iba čítanie volatile premennej namiesto volania hodín systému.
+     * @return Aktuálny čas v sekundách od 1. 1. 1970.
+     */
+    public static long nowSecond() {
+        return Clock.second;
+    }
+
+    private static final class Clock {
+        static volatile long second = System.currentTimeMillis() / 1000;
+
+        static {
+            Thread ticker = new Thread(Clock::tick, "turnout-clock");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+
+        private static void tick() {
+            while (true) {
+                long millis = System.currentTimeMillis();
+                second = millis / 1000;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1000 - millis % 1000));
+            }
+        }
+    }
+
+    /**
+     * Započíta jeden lístok v aktuálnej sekunde.
+     * @param channel Spôsob hlasovania.
+     * @param accepted true pre prijatý hlas, false pre odmietnutý alebo opakovaný.
+     */
+    public void record(VoteChannel channel, boolean accepted) {
+        record(channel, accepted, 1, nowSecond());
+    }
+
+    /**
+     * Započíta lístky v zadanej sekunde.
+     */
+    void record(VoteChannel channel, boolean accepted, int count, long second) {
+        if (count == 0) {
+            return;
+        }
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        int index = stripe * STRIPE_STRIDE + index(Resolution.SECOND, series(channel, accepted), second);
+        if (seconds.get(index) >>> 32 == second) {
+            seconds.getAndAdd(index, count);
+        } else {
+            startSecond(index, count, second);
+        }
+    }
+
+    private void startSecond(int index, int count, long second) {
+        // once per second, series and stripe: the seconds this slot held before are folded first
+        fold(second - 1);
+        while (true) {
+            long packed = seconds.get(index);
+            if (packed >>> 32 >= second) {
+                // another thread started this second, or a newer one if this clock lags behind
+                seconds.getAndAdd(index, count);
+                return;
+            }
+            if (seconds.compareAndSet(index, packed, second << 32 | count)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prenesie sekundy pred {@code limit} do minútového a hodinového buffera. Ak už prenáša iné
+     * vlákno, nerobí nič.
+     */
+    private void fold(long limit) {
+        long version = foldVersion.get();
+        if ((version & 1) != 0 || limit <= foldedUntil || !foldVersion.compareAndSet(version, version + 1)) {
+            return;
+        }
+        try {
+            long from = foldedUntil;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                int base = stripe * STRIPE_STRIDE;
+                for (int series = 0; series < SERIES; series++) {
+                    if (limit - from <= Resolution.SECOND.capacity) {
+                        for (long second = from; second < limit; second++) {
+                            fold(series, seconds.get(base + index(Resolution.SECOND, series, second)), from, limit);
+                        }
+                    } else {
+                        // after a long pause it is cheaper to check every slot once than every second
+                        for (int slot = 0; slot < Resolution.SECOND.capacity; slot++) {
+                            fold(series, seconds.get(base + series * Resolution.SECOND.capacity + slot), from, limit);
+                        }
+                    }
+                }
+            }
+            foldedUntil = limit;
+        } finally {
+            foldVersion.incrementAndGet();
+        }
+    }
+
+    private void fold(int series, long packed, long from, long limit) {
+        long second = packed >>> 32;
+        long count = packed & COUNT_MASK;
+        if (second >= from && second < limit && count != 0) {
+            add(minutes, index(Resolution.MINUTE, series, second / 60), second / 60, count);
+            add(hours, index(Resolution.HOUR, series, second / 3600), second / 3600, count);
+        }
+    }
+
+    private static void add(AtomicLongArray ring, int index, long interval, long count) {
+        while (true) {
+            long packed = ring.get(index);
+            long current = packed >>> 32;
+            if (current == interval) {
+                ring.getAndAdd(index, count);
+                return;
+            }
+            if (current > interval || ring.compareAndSet(index, packed, interval << 32 | count)) {
+                return;
+            }
+        }
+    }
+
+    private static int series(VoteChannel channel, boolean accepted) {
+        return channel.ordinal() * 2 + (accepted ? 0 : 1);
+    }
+
+    private static int index(Resolution resolution, int series, long interval) {
+        return series * resolution.capacity + (int) (interval % resolution.capacity);
+    }
+
+    private AtomicLongArray ring(Resolution resolution) {
+        // seconds are striped and read through secondValue
+        return resolution == Resolution.MINUTE ? minutes : hours;
+    }
+
+    private static long value(AtomicLongArray ring, int index, long interval) {
+        long packed = ring.get(index);
+        return packed >>> 32 == interval ? packed & COUNT_MASK : 0;
+    }
+
+    private long secondValue(int series, long second) {
+        int index = index(Resolution.SECOND, series, second);
+        long sum = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            sum += value(seconds, stripe * STRIPE_STRIDE + index, second);
+        }
+        return sum;
+    }
+
+    /**
+     * Vráti počty lístkov za posledné intervaly.
+     * @param channel Spôsob hlasovania.
+     * @param accepted true pre prijaté hlasy, false pre odmietnuté a opakované.
+     * @param resolution Dĺžka intervalu.
+     * @param count Počet intervalov; najviac {@link Resolution#getCapacity()}.
+     * @return Počty od najstaršieho intervalu po aktuálny, ktorý ešte nie je ukončený.
+     */
+    public long[] getCounts(VoteChannel channel, boolean accepted, Resolution resolution, int count) {
+        return getCounts(channel, accepted, resolution, count, nowSecond());
+    }
+
+    /**
+     * Vráti počty lístkov za intervaly končiace intervalom, do ktorého patrí sekunda {@code now}.
+     * Volajúci, ktorý číta viac radov naraz, tak môže všetky zarovnať na ten istý čas.
+     * @param now Sekunda od 1. 1. 1970, zvyčajne {@link #nowSecond()}.
+     * @see #getCounts(VoteChannel, boolean, Resolution, int)
+     */
+    public long[] getCounts(VoteChannel channel, boolean accepted, Resolution resolution, int count, long now) {
+        count = Math.min(count, resolution.capacity);
+        fold(now - 1);
+        int series = series(channel, accepted);
+        long last = now / resolution.seconds;
+        long[] counts = new long[count];
+        while (true) {
+            long version = foldVersion.get();
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long folded = foldedUntil;
+            for (int i = 0; i < count; i++) {
+                long interval = last - count + 1 + i;
+                counts[i] = resolution == Resolution.SECOND
+                    ? secondValue(series, interval)
+                    : value(ring(resolution), index(resolution, series, interval), interval)
+                        + unfolded(series, interval * resolution.seconds, (interval + 1) * resolution.seconds, folded, now);
+            }
+            if (foldVersion.get() == version) {
+                return counts;
+            }
+        }
+    }
+
+    /**
+     * Sčíta sekundy z intervalu {@code [from, to)}, ktoré ešte neboli prenesené.
+     */
+    private long unfolded(int series, long from, long to, long folded, long now) {
+        long sum = 0;
+        for (long second = Math.max(from, folded); second < to && second <= now; second++) {
+            sum += secondValue(series, second);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,54 @@
+package logic;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pomocná trieda na vytváranie exekútorov s virtuálnymi vláknami.
+ * <p>
+ * Projekt sa prekladá pre Java 17, preto sa {@code Executors.newVirtualThreadPerTaskExecutor()}
+ * hľadá až za behu. Na JVM bez virtuálnych vlákien sa použije pool platformových vlákien
+ * so zadaným počtom vlákien.
+ * </p>
+ */
+public final class VirtualThreads {
+    private static final MethodHandle NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private VirtualThreads() {
+    }
+
+    private static MethodHandle findVirtualExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true, ak JVM podporuje virtuálne vlákna.
+     */
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Vytvorí exekútor, ktorý spúšťa každú úlohu vo vlastnom virtuálnom vlákne.
+     * @param fallbackThreads Počet platformových vlákien, ak virtuálne vlákna nie sú k dispozícii.
+     * @return Nový exekútor.
+     */
+    public static ExecutorService newPerTaskExecutor(int fallbackThreads) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot create a virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(fallbackThreads);
+    }
+}
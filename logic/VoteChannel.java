@@ -0,0 +1,15 @@
+package logic;
+
+/**
+ * Spôsob, ktorým volič odovzdal hlas.
+ */
+public enum VoteChannel {
+    /** Hlasovanie online. */
+    ONLINE,
+    /** Hlasovanie poštou. */
+    POSTAL,
+    /** Hlasovanie s asistenciou pre voličov so zdravotným postihnutím (ZTP). */
+    ASSISTANCE,
+    /** Spôsob hlasovania nie je známy, napr. pri hromadnom importe. */
+    UNSPECIFIED
+}
@@ -0,0 +1,607 @@
+package logic;
+
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.WaitEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Trieda {@code VoteJournal} je žurnál prijatých hlasov zapisovaný na disk pred ich započítaním.
+ * <p>
+ * Každý hlas sa zapíše ako približne 16-bajtový binárny záznam (kód kandidáta, kód štátu, vek, PSČ
+ * a odtlačok ID voliča) do jedného z niekoľkých pruhov v pamäti. Samostatné vlákno tieto pruhy
+ * v pravidelnom intervale zlúči do jedného rámca s kontrolným súčtom CRC32C, zapíše ho cez
+ * {@link FileChannel} a zavolá {@code force} raz za celú dávku. Volanie {@link #append} sa vráti až po
+ * {@code force} rámca so svojím hlasom, takže prijatý hlas pád procesu prežije; všetky vlákna, ktoré
+ * pridali hlas v tom istom intervale, čakajú na ten istý zápis. Ak zápis zlyhá, čakajúci dostanú chybu
+ * a žurnál ďalšie hlasy odmietne.
+ * </p>
+ * <p>
+ * Mená kandidátov a kódy ISO štátov sa do súboru zapisujú iba raz ako slovníkové záznamy a hlasy sa na ne
+ * odkazujú číselným kódom. Štát sa neukladá názvom, ktorý závisí od jazyka JVM, aby sa žurnál dal
+ * prehrať aj v inom jazyku; neurčený štát má prázdny kód.
+ * </p>
+ * <p>
+ * {@link VotingManager} obklopí zápis každého hlasu volaniami {@link #beginCommit()} a {@link #endCommit()}.
+ * {@link VoteSnapshotter} tak môže nové hlasy na chvíľu pozastaviť a prečítať živé súčty presne
+ * k hranici rámca na disku.
+ * </p>
+ */
+public final class VoteJournal implements Closeable {
+    static final int MAGIC = 0x564F544A; // "VOTJ"
+    static final int VERSION = 2;
+    static final int FILE_HEADER = 8;
+    static final int FRAME_HEADER = 8;
+
+    static final byte CANDIDATE = 1;
+    static final byte STATE = 2;
+    static final byte VOTE = 3;
+
+    private static final int STRIPES = 8;
+    private static final int STRIPE_LIMIT = 1 << 20;
+    private static final int COUNTER_PADDING = 16; // one cache line of ints per in-flight counter
+    private static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 2;
+    private static final LatencyHistogram stripeWait = Metrics.histogram("journal.stripeWait");
+
+    private final FileChannel channel;
+    private final long commitIntervalNanos;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicIntegerArray candidateCodes = new AtomicIntegerArray(CandidateRegistry.MAX_CANDIDATES); // code + 1 by candidate ID
+    private final AtomicIntegerArray stateCodes = new AtomicIntegerArray(CountryRegistry.MAX_IDS); // code + 1 by state ID
+    private final RecordBuffer dictionary = new RecordBuffer(256); // guarded by itself
+    private int nextCandidateCode;
+    private int nextStateCode;
+    private final List<String> candidateNames; // by code, guarded by dictionary
+    private final List<String> stateNames;     // by code, guarded by dictionary
+    private int durableCandidates;             // codes already on disk, guarded by commitLock
+    private int durableStates;                 // guarded by commitLock
+    private final long restoredOffset;
+
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(STRIPES * COUNTER_PADDING);
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
+
+    private final Object commitLock = new Object();
+    private final RecordBuffer frame = new RecordBuffer(1 << 16);
+    private final RecordBuffer frameVotes = new RecordBuffer(1 << 16);
+    private final CRC32C crc = new CRC32C();
+
+    private final Thread flusher;
+    private volatile boolean closed;
+    private volatile boolean terminated; // the last flush is done, nothing more becomes durable
+    private volatile IOException failure;
+    private volatile long durableSize;
+
+    private long flushCount;                  // guarded by commitLock
+    private volatile long durableGeneration;  // number of the last flush that reached the disk
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+
+    private VoteJournal(FileChannel channel, long from, long size, JournalReader reader, long commitIntervalMillis) {
+        this.channel = channel;
+        this.restoredOffset = from;
+        this.durableSize = size;
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMillis);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        List<String> candidates = reader.candidates();
+        for (int code = 0; code < candidates.size(); code++) {
+            candidateCodes.compareAndSet(CandidateRegistry.idOf(candidates.get(code)), 0, code + 1);
+        }
+        nextCandidateCode = candidates.size();
+        candidateNames = new ArrayList<>(candidates);
+        durableCandidates = candidates.size();
+        List<String> states = reader.states();
+        for (int code = 0; code < states.size(); code++) {
+            stateCodes.compareAndSet(CountryRegistry.idOfIsoCode(states.get(code)), 0, code + 1);
+        }
+        nextStateCode = states.size();
+        stateNames = new ArrayList<>(states);
+        durableStates = states.size();
+
+        flusher = new Thread(this::flushLoop, "vote-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Otvorí žurnál, obnoví z neho stav a pripraví ho na ďalší zápis. Ak vedľa žurnálu leží platný
+     * snapshot, načíta sa najprv on a zo žurnálu sa prehrá iba zvyšok za ním.
+     * Neúplný rámec na konci súboru sa odreže.
+     *
+     * @param path Cesta k súboru žurnálu; ak neexistuje, vytvorí sa.
+     * @param tally Súčty, do ktorých sa prehrajú hlasy.
+     * @param ids Množina ID, do ktorej sa prehrajú voliči.
+     * @return Žurnál pripravený na zápis.
+     * @throws IOException ak súbor nemožno otvoriť alebo nie je žurnálom hlasov.
+     */
+    public static VoteJournal open(Path path, VoteTally tally, VoterIdSet ids) throws IOException {
+        long journalSize = Files.exists(path) ? Files.size(path) : 0;
+        VoteSnapshot.Loaded snapshot = VoteSnapshot.load(VoteSnapshot.pathFor(path), journalSize, tally, ids);
+        if (snapshot != null) {
+            return open(path, snapshot.journalOffset, snapshot.reader, tally, ids, DEFAULT_COMMIT_INTERVAL_MILLIS);
+        }
+        return open(path, FILE_HEADER, new JournalReader(), tally, ids, DEFAULT_COMMIT_INTERVAL_MILLIS);
+    }
+
+    static VoteJournal open(Path path, long from, JournalReader reader, VoteTally tally, VoterIdSet ids,
+                            long commitIntervalMillis) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            from = Math.max(from, FILE_HEADER);
+            long end = FILE_HEADER;
+            if (channel.size() < FILE_HEADER) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+            } else {
+                checkHeader(channel);
+                end = reader.read(channel, from, channel.size(), (candidate, state, age, psc, idHash) -> {
+                    // each voter is journaled once; the snapshot may already hold IDs of later votes
+                    ids.addHash(idHash);
+                    tally.record(CandidateRegistry.idOf(candidate), age, CountryRegistry.idOfIsoCode(state), psc);
+                });
+                channel.truncate(end);
+            }
+            channel.position(end);
+            return new VoteJournal(channel, Math.min(from, end), end, reader, commitIntervalMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a vote journal");
+        }
+    }
+
+    /**
+     * Pridá prijatý hlas do žurnálu a počká, kým ho najbližší skupinový zápis uloží na disk.
+     *
+     * @param candidateId ID kandidáta z {@link CandidateRegistry}.
+     * @param stateId ID štátu voliča z {@link CountryRegistry}.
+     * @param age Vek voliča.
+     * @param psc Poštové smerovacie číslo voliča.
+     * @param idHash Odtlačok ID voliča z {@link VoterIdSet#hash(CharSequence)}.
+     * @throws UncheckedIOException ak zápis na disk zlyhal; hlas potom v žurnáli nie je.
+     * @throws IllegalStateException ak sa žurnál zatvoril skôr, než sa hlas zapísal.
+     */
+    public void append(int candidateId, int stateId, int age, int psc, long idHash) {
+        awaitDurable(enqueue(candidateId, stateId, age, psc, idHash));
+    }
+
+    /**
+     * Pridá hlas do žurnálu bez čakania na disk, napr. pri hromadnom zápise, ktorý čaká raz na konci.
+     * Hlas je uložený až po návrate {@link #awaitDurable(long)} s vráteným lístkom.
+     * @return Lístok zápisu pre {@link #awaitDurable(long)}.
+     * @throws UncheckedIOException ak predchádzajúci zápis na disk zlyhal.
+     * @see #append(int, int, int, int, long)
+     */
+    public long enqueue(int candidateId, int stateId, int age, int psc, long idHash) {
+        checkWritable();
+        int candidateCode = candidateCode(candidateId);
+        int stateCode = stateCode(stateId);
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        synchronized (stripe) {
+            awaitRoom(stripe);
+            putVote(stripe.buffer, candidateCode, stateCode, age, psc, idHash);
+            return stripe.generation;
+        }
+    }
+
+    /**
+     * Pridá do žurnálu všetky prijaté lístky dávky pod jedným zámkom pruhu a počká na ich zápis na disk.
+     * @throws UncheckedIOException ak zápis na disk zlyhal; žiadny lístok dávky potom v žurnáli nie je.
+     */
+    void appendAll(List<Ballot> batch, int[] candidateIds, int[] stateIds, long[] idHashes, VoteOutcome[] outcomes) {
+        checkWritable();
+        RecordBuffer records = new RecordBuffer(16 * outcomes.length + 16);
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == VoteOutcome.ACCEPTED) {
+                Ballot ballot = batch.get(i);
+                putVote(records, candidateCode(candidateIds[i]), stateCode(stateIds[i]),
+                    ballot.getAge(), ballot.getPsc(), idHashes[i]);
+            }
+        }
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        long ticket;
+        synchronized (stripe) {
+            awaitRoom(stripe);
+            stripe.buffer.put(records);
+            ticket = stripe.generation;
+        }
+        awaitDurable(ticket);
+    }
+
+    /**
+     * Počká, kým sú na disku všetky hlasy pridané s lístkom {@code ticket} alebo skôr.
+     * @param ticket Lístok z {@link #enqueue}.
+     * @throws UncheckedIOException ak zápis na disk zlyhal.
+     * @throws IllegalStateException ak sa žurnál zatvoril skôr, než sa hlasy zapísali.
+     */
+    public void awaitDurable(long ticket) {
+        if (durableGeneration >= ticket) {
+            return;
+        }
+        boolean interrupted = false;
+        syncLock.lock();
+        try {
+            while (durableGeneration < ticket) {
+                checkFailure();
+                if (terminated) {
+                    throw new IllegalStateException("Vote journal was closed before the vote was written");
+                }
+                try {
+                    synced.await();
+                } catch (InterruptedException e) {
+                    // the vote is already queued, so the caller has to learn whether it was written
+                    interrupted = true;
+                }
+            }
+        } finally {
+            syncLock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void signalSynced() {
+        syncLock.lock();
+        try {
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static void putVote(RecordBuffer buffer, int candidateCode, int stateCode, int age, int psc, long idHash) {
+        buffer.putByte(VOTE);
+        buffer.putVarint(candidateCode);
+        buffer.putVarint(stateCode);
+        buffer.putByte(Math.min(Math.max(age, 0), 255));
+        buffer.putInt(psc);
+        buffer.putLong(idHash);
+    }
+
+    private void awaitRoom(Stripe stripe) {
+        if (stripe.buffer.size() < STRIPE_LIMIT || closed) {
+            return;
+        }
+        long start = System.nanoTime();
+        waitForFlusher(stripe);
+        if (Metrics.ENABLED) {
+            long waited = System.nanoTime() - start;
+            stripeWait.record(waited);
+            WaitEvent event = new WaitEvent();
+            if (event.shouldCommit()) {
+                event.resource = "vote-journal-stripe";
+                event.waited = waited;
+                event.ballots = 1;
+                event.commit();
+            }
+        }
+    }
+
+    private void waitForFlusher(Stripe stripe) {
+        while (stripe.buffer.size() >= STRIPE_LIMIT && !closed) {
+            // the flusher is behind, wait for it instead of growing without bound
+            LockSupport.unpark(flusher);
+            try {
+                stripe.wait(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private int candidateCode(int candidateId) {
+        int code = candidateCodes.get(candidateId);
+        if (code != 0) {
+            return code - 1;
+        }
+        synchronized (dictionary) {
+            code = candidateCodes.get(candidateId);
+            if (code == 0) {
+                // the definition is buffered before the code becomes visible to other appenders
+                code = ++nextCandidateCode;
+                dictionary.putByte(CANDIDATE);
+                dictionary.putVarint(code - 1);
+                dictionary.putString(CandidateRegistry.nameOf(candidateId));
+                candidateNames.add(CandidateRegistry.nameOf(candidateId));
+                candidateCodes.set(candidateId, code);
+            }
+            return code - 1;
+        }
+    }
+
+    private int stateCode(int stateId) {
+        int code = stateCodes.get(stateId);
+        if (code != 0) {
+            return code - 1;
+        }
+        synchronized (dictionary) {
+            code = stateCodes.get(stateId);
+            if (code == 0) {
+                // stored as code + 1, so zero means the state has no code yet
+                code = ++nextStateCode;
+                dictionary.putByte(STATE);
+                dictionary.putVarint(code - 1);
+                String isoCode = Objects.toString(CountryRegistry.isoCodeOf(stateId), "");
+                dictionary.putString(isoCode);
+                stateNames.add(isoCode);
+                stateCodes.set(stateId, code);
+            }
+            return code - 1;
+        }
+    }
+
+    private void checkWritable() {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Vote journal is closed");
+        }
+    }
+
+    private void checkFailure() {
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("Vote journal write failed", error);
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, commitIntervalNanos);
+            try {
+                flush();
+            } catch (IOException e) {
+                // flush() has already failed the waiting callers
+                return;
+            }
+        }
+    }
+
+    /**
+     * Okamžite zapíše a synchronizuje na disk všetky doteraz pridané hlasy. Ak zápis zlyhá, súbor sa
+     * skráti na poslednú synchronizovanú hranicu, čakajúci volajúci dostanú chybu a žurnál ďalšie hlasy
+     * odmietne.
+     * @throws IOException ak zápis zlyhal teraz alebo skôr.
+     */
+    public void flush() throws IOException {
+        synchronized (commitLock) {
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                write();
+            } catch (IOException | RuntimeException e) {
+                IOException error = e instanceof IOException ? (IOException) e : new IOException(e);
+                failure = error;
+                try {
+                    // a frame written without force may or may not survive, so drop it rather than replay it
+                    channel.truncate(durableSize);
+                    channel.position(durableSize);
+                } catch (IOException truncateFailure) {
+                    error.addSuppressed(truncateFailure);
+                }
+                signalSynced();
+                throw error;
+            }
+        }
+    }
+
+    private void write() throws IOException {
+        long generation = ++flushCount;
+        frameVotes.reset();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                // votes added from now on wait for the next flush
+                stripe.generation = generation + 1;
+                if (stripe.buffer.size() > 0) {
+                    frameVotes.put(stripe.buffer);
+                    stripe.buffer.reset();
+                    stripe.notifyAll();
+                }
+            }
+        }
+        frame.reset();
+        frame.putInt(0);
+        frame.putInt(0);
+        // drained after the votes, written before them: every code used above is already defined here
+        int candidates;
+        int states;
+        synchronized (dictionary) {
+            frame.put(dictionary);
+            dictionary.reset();
+            candidates = candidateNames.size();
+            states = stateNames.size();
+        }
+        frame.put(frameVotes);
+
+        int length = frame.size() - FRAME_HEADER;
+        if (length > 0) {
+            crc.reset();
+            crc.update(frame.array(), FRAME_HEADER, length);
+            frame.putIntAt(0, length);
+            frame.putIntAt(4, (int) crc.getValue());
+
+            ByteBuffer out = ByteBuffer.wrap(frame.array(), 0, frame.size());
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+            durableSize = channel.position();
+        }
+        durableCandidates = candidates;
+        durableStates = states;
+        durableGeneration = generation;
+        signalSynced();
+    }
+
+    /**
+     * @return Veľkosť súboru žurnálu, ktorá je už bezpečne zapísaná na disku.
+     */
+    public long durableSize() {
+        return durableSize;
+    }
+
+    /**
+     * @return Pozícia, od ktorej sa pri otvorení prehral žurnál, teda hranica načítaného snapshotu.
+     */
+    long restoredOffset() {
+        return restoredOffset;
+    }
+
+    /**
+     * Začne zápis jedného hlasu alebo dávky: od tohto volania po {@link #endCommit()} volajúci mení
+     * množinu ID, žurnál a súčty. Kým sú hlasy pozastavené, volanie čaká.
+     * @throws UncheckedIOException ak predchádzajúci zápis na disk zlyhal.
+     * @throws IllegalStateException ak je žurnál zatvorený.
+     */
+    void beginCommit() {
+        checkWritable();
+        int slot = inFlightSlot();
+        inFlight.incrementAndGet(slot);
+        if (!paused) {
+            return;
+        }
+        inFlight.decrementAndGet(slot);
+        boolean interrupted = false;
+        synchronized (pauseLock) {
+            while (paused) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            // resumeCommits() clears the flag under this lock, so no new pause can slip in here
+            inFlight.incrementAndGet(slot);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ukončí zápis začatý {@link #beginCommit()} v tom istom vlákne.
+     */
+    void endCommit() {
+        inFlight.decrementAndGet(inFlightSlot());
+    }
+
+    private static int inFlightSlot() {
+        return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * COUNTER_PADDING;
+    }
+
+    /**
+     * Pozastaví nové hlasy a počká na dokončenie rozpracovaných. Potom sú všetky započítané hlasy na
+     * disku a súčty zodpovedajú presne vrátenej hranici. Volajúci musí zavolať {@link #resumeCommits()}.
+     * @return Pozícia za posledným synchronizovaným rámcom a slovník platný k nej.
+     */
+    Boundary pauseCommits() {
+        synchronized (pauseLock) {
+            paused = true;
+        }
+        for (int slot = 0; slot < inFlight.length(); slot += COUNTER_PADDING) {
+            // an in-flight vote waits for at most one group commit
+            while (inFlight.get(slot) != 0) {
+                LockSupport.parkNanos(this, 50_000);
+            }
+        }
+        synchronized (commitLock) {
+            synchronized (dictionary) {
+                return new Boundary(durableSize, new JournalReader(
+                    new ArrayList<>(candidateNames.subList(0, durableCandidates)),
+                    new ArrayList<>(stateNames.subList(0, durableStates))));
+            }
+        }
+    }
+
+    /**
+     * Znovu prijme hlasy pozastavené {@link #pauseCommits()}.
+     */
+    void resumeCommits() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * @return true, ak zápis na disk niekedy zlyhal.
+     */
+    boolean hasFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Zapíše zostávajúce hlasy, ukončí zapisovacie vlákno a zatvorí súbor.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            terminated = true;
+            signalSynced();
+            channel.close();
+        }
+    }
+
+    /**
+     * Hranica rámca v žurnáli spolu so slovníkom kódov, ktoré sú k nej na disku.
+     */
+    static final class Boundary {
+        final long offset;
+        final JournalReader dictionary;
+
+        Boundary(long offset, JournalReader dictionary) {
+            this.offset = offset;
+            this.dictionary = dictionary;
+        }
+    }
+
+    private static final class Stripe {
+        final RecordBuffer buffer = new RecordBuffer(1 << 12);
+        long generation = 1; // the flush that will write what is buffered now, guarded by this
+    }
+}
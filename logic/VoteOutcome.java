@@ -0,0 +1,13 @@
+package logic;
+
+/**
+ * Výsledok spracovania jedného hlasovacieho lístka.
+ */
+public enum VoteOutcome {
+    /** Hlas bol prijatý a započítaný. */
+    ACCEPTED,
+    /** Volič s rovnakým ID už hlasoval. */
+    DUPLICATE,
+    /** Lístok je neplatný a nebol spracovaný. */
+    REJECTED
+}
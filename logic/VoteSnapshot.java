@@ -0,0 +1,311 @@
+package logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Binárny formát snapshotu stavu hlasovania k určitej pozícii v žurnáli.
+ * <p>
+ * Snapshot obsahuje pozíciu v žurnáli, slovník kandidátov a štátov žurnálu, mená kandidátov a kódy ISO
+ * štátov v poradí ich ID, nenulové bunky matice súčtov (štát, kandidát, veková skupina, počet), súčty
+ * {@link RegionRollup} po štátoch, okresoch a PSČ, počty {@link AgeHistogram} podľa presného veku
+ * a odtlačky ID voličov až do konca súboru. Snapshot staršej verzie sa ignoruje a stav sa obnoví zo
+ * žurnálu. Na konci je kontrolný súčet CRC32C celého obsahu. Súbor sa zapisuje do dočasného súboru a až potom sa atomicky premenuje,
+ * takže na disku je vždy celý posledný snapshot.
+ * </p>
+ */
+final class VoteSnapshot {
+    static final int MAGIC = 0x564F5453; // "VOTS"
+    static final int VERSION = 6;
+
+    private static final int TRAILER = 4;
+    private static final int WRITE_BUFFER = 1 << 20;
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private VoteSnapshot() {
+    }
+
+    /**
+     * Výsledok načítania snapshotu: pozícia v žurnáli a čítač so slovníkom, od ktorých sa pokračuje.
+     */
+    static final class Loaded {
+        final long journalOffset;
+        final JournalReader reader;
+
+        Loaded(long journalOffset, JournalReader reader) {
+            this.journalOffset = journalOffset;
+            this.reader = reader;
+        }
+    }
+
+    static Path pathFor(Path journal) {
+        return journal.resolveSibling(journal.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Zakóduje súčty k hranici žurnálu. Volá sa pri pozastavených hlasoch, takže súčty sa medzitým nemenia.
+     * @return Začiatok snapshotu pred odtlačkami ID.
+     */
+    static RecordBuffer encode(long journalOffset, JournalReader dictionary, VoteTally tally) {
+        RecordBuffer entries = new RecordBuffer(1 << 12);
+        int[] entryCount = {0};
+        tally.forEachCell((candidateId, stateId, bucket, votes) -> {
+            entries.putVarint(stateId);
+            entries.putVarint(candidateId);
+            entries.putByte(bucket);
+            entries.putLong(votes);
+            entryCount[0]++;
+        });
+        RegionRollup regions = tally.getRegions();
+        RecordBuffer districts = new RecordBuffer(1 << 12);
+        int[] districtCount = {0};
+        regions.forEachDistrictVotes((stateId, district, candidateId, votes) -> {
+            districts.putVarint(stateId);
+            districts.putVarint(district);
+            districts.putVarint(candidateId);
+            districts.putLong(votes);
+            districtCount[0]++;
+        });
+        RecordBuffer pscs = new RecordBuffer(1 << 12);
+        int[] pscCount = {0};
+        regions.forEachPscTotal((stateId, psc, votes) -> {
+            pscs.putVarint(stateId);
+            pscs.putVarint(psc);
+            pscs.putLong(votes);
+            pscCount[0]++;
+        });
+
+        RecordBuffer ages = new RecordBuffer(1 << 12);
+        int[] ageCount = {0};
+        tally.getAges().forEachAge((candidateId, stateId, age, votes) -> {
+            ages.putVarint(stateId);
+            ages.putVarint(candidateId);
+            ages.putByte(age);
+            ages.putLong(votes);
+            ageCount[0]++;
+        });
+
+        RecordBuffer head = new RecordBuffer(1 << 12);
+        head.putInt(MAGIC);
+        head.putInt(VERSION);
+        head.putLong(journalOffset);
+        putNames(head, dictionary.candidates());
+        putNames(head, dictionary.states());
+        // read after the scan: every ID in the entries was registered before its first vote
+        putNames(head, CandidateRegistry.size(), CandidateRegistry::nameOf);
+        int stateCount = CountryRegistry.size();
+        putNames(head, stateCount, id -> Objects.toString(CountryRegistry.isoCodeOf(id), ""));
+        head.putInt(entryCount[0]);
+        head.put(entries);
+        head.putVarint(stateCount);
+        for (int stateId = 0; stateId < stateCount; stateId++) {
+            head.putLong(regions.getStateTotal(stateId));
+        }
+        head.putInt(districtCount[0]);
+        head.put(districts);
+        head.putInt(pscCount[0]);
+        head.put(pscs);
+        head.putInt(ageCount[0]);
+        head.put(ages);
+        return head;
+    }
+
+    /**
+     * Zapíše snapshot: začiatok z {@link #encode} a za ním živú množinu ID. ID voličov, ktorých hlasy sú
+     * v žurnáli za hranicou, sa môžu dostať do snapshotu tiež; obnova ich zo žurnálu doplní do súčtov.
+     *
+     * @param journal Žurnál, ku ktorému snapshot patrí; ak medzitým zlyhal jeho zápis, snapshot sa zahodí,
+     *                lebo by mohol obsahovať ID hlasu, ktorý sa na disk nedostal.
+     * @throws IOException ak snapshot nemožno zapísať.
+     */
+    static void write(Path file, RecordBuffer head, VoterIdSet ids, VoteJournal journal) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, crc, ByteBuffer.wrap(head.array(), 0, head.size()));
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+            try {
+                ids.forEachHash(hash -> {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        write(channel, crc, buffer);
+                        buffer.clear();
+                    }
+                    buffer.putLong(hash);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffer.flip();
+            write(channel, crc, buffer);
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER).putInt((int) crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+        if (journal.hasFailed()) {
+            Files.delete(temp);
+            throw new IOException("Vote journal failed while writing a snapshot");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(FileChannel channel, CRC32C crc, ByteBuffer data) {
+        try {
+            crc.update(data.duplicate());
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void putNames(RecordBuffer buffer, List<String> names) {
+        buffer.putVarint(names.size());
+        for (String name : names) {
+            buffer.putString(name);
+        }
+    }
+
+    private static void putNames(RecordBuffer buffer, int count, IntFunction<String> names) {
+        buffer.putVarint(count);
+        for (int id = 0; id < count; id++) {
+            buffer.putString(names.apply(id));
+        }
+    }
+
+    private static List<String> getNames(ByteBuffer buffer) {
+        int count = JournalReader.getVarint(buffer);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(JournalReader.getString(buffer));
+        }
+        return names;
+    }
+
+    /**
+     * Načíta snapshot do zadaného stavu. Obsah sa číta cez pamäťové mapovanie a stav sa mení až po
+     * overení kontrolného súčtu.
+     *
+     * @param file Súbor snapshotu.
+     * @param journalSize Aktuálna veľkosť žurnálu; snapshot odkazujúci za jeho koniec sa ignoruje.
+     * @param tally Súčty, do ktorých sa snapshot načíta.
+     * @param ids Množina ID, do ktorej sa snapshot načíta.
+     * @return Pozícia v žurnáli a slovník, alebo {@code null}, ak snapshot neexistuje alebo je neplatný.
+     * @throws IOException ak súbor nemožno čítať.
+     */
+    static Loaded load(Path file, long journalSize, VoteTally tally, VoterIdSet ids) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 16 + TRAILER || !checksumMatches(channel, size)) {
+                return null;
+            }
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW));
+            if (head.getInt() != MAGIC || head.getInt() != VERSION) {
+                return null;
+            }
+            long journalOffset = head.getLong();
+            if (journalOffset > journalSize) {
+                return null;
+            }
+            List<String> candidates = getNames(head);
+            List<String> states = getNames(head);
+            // IDs are only stable within one run, so entries are remapped through the names
+            int[] candidateIds = ids(getNames(head), CandidateRegistry::idOf);
+            int[] stateIds = ids(getNames(head), CountryRegistry::idOfIsoCode);
+            int entryCount = head.getInt();
+            for (int i = 0; i < entryCount; i++) {
+                int stateId = stateIds[JournalReader.getVarint(head)];
+                int candidateId = candidateIds[JournalReader.getVarint(head)];
+                int bucket = head.get();
+                tally.add(candidateId, stateId, bucket, head.getLong());
+            }
+            RegionRollup regions = tally.getRegions();
+            int stateCount = JournalReader.getVarint(head);
+            for (int i = 0; i < stateCount; i++) {
+                long votes = head.getLong();
+                if (votes != 0) {
+                    regions.addStateVotes(stateIds[i], votes);
+                }
+            }
+            int districtCount = head.getInt();
+            for (int i = 0; i < districtCount; i++) {
+                int stateId = stateIds[JournalReader.getVarint(head)];
+                int district = JournalReader.getVarint(head);
+                int candidateId = candidateIds[JournalReader.getVarint(head)];
+                regions.addDistrictVotes(stateId, district, candidateId, head.getLong());
+            }
+            int pscCount = head.getInt();
+            for (int i = 0; i < pscCount; i++) {
+                int stateId = stateIds[JournalReader.getVarint(head)];
+                int psc = JournalReader.getVarint(head);
+                regions.addPscVotes(stateId, psc, head.getLong());
+            }
+            AgeHistogram ages = tally.getAges();
+            int ageCount = head.getInt();
+            for (int i = 0; i < ageCount; i++) {
+                int stateId = stateIds[JournalReader.getVarint(head)];
+                int candidateId = candidateIds[JournalReader.getVarint(head)];
+                int age = head.get() & 0xFF;
+                ages.add(candidateId, stateId, age, head.getLong());
+            }
+
+            long position = head.position();
+            long idCount = (size - TRAILER - position) / Long.BYTES;
+            ids.ensureCapacity(ids.size() + idCount);
+            while (idCount > 0) {
+                int chunk = (int) Math.min(idCount, MAP_WINDOW / Long.BYTES);
+                LongBuffer keys = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) chunk * Long.BYTES).asLongBuffer();
+                for (int i = 0; i < chunk; i++) {
+                    ids.addHash(keys.get(i));
+                }
+                position += (long) chunk * Long.BYTES;
+                idCount -= chunk;
+            }
+            return new Loaded(journalOffset, new JournalReader(candidates, states));
+        }
+    }
+
+    private static int[] ids(List<String> names, ToIntFunction<String> registry) {
+        int[] ids = new int[names.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = registry.applyAsInt(names.get(i));
+        }
+        return ids;
+    }
+
+    private static boolean checksumMatches(FileChannel channel, long size) throws IOException {
+        CRC32C crc = new CRC32C();
+        long body = size - TRAILER;
+        for (long position = 0; position < body; position += MAP_WINDOW) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, body - position)));
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER);
+        channel.read(trailer, body);
+        trailer.flip();
+        return trailer.getInt() == (int) crc.getValue();
+    }
+}
@@ -0,0 +1,112 @@
+package logic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Trieda {@code VoteSnapshotter} v pravidelnom intervale zapisuje snapshot stavu hlasovania na pozadí.
+ * <p>
+ * Snapshot sa vytvára priamo zo živých súčtov a množiny ID, bez druhej kópie stavu v pamäti. Žurnál
+ * na chvíľu pozastaví nové hlasy, kým sa súčty zakódujú k hranici posledného rámca na disku; to trvá
+ * rádovo milisekundy. Množina ID sa potom zapisuje do súboru priamo, už pri prijímaní ďalších hlasov.
+ * </p>
+ */
+public final class VoteSnapshotter implements Closeable {
+    private final Path snapshotPath;
+    private final VoteJournal journal;
+    private final VoteTally tally;
+    private final VoterIdSet ids;
+    private final long intervalMillis;
+
+    private long snapshotOffset;  // guarded by this
+
+    private final Object sleepLock = new Object();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private VoteSnapshotter(Path journalPath, VoteJournal journal, VoteTally tally, VoterIdSet ids, long intervalMillis) {
+        this.snapshotPath = VoteSnapshot.pathFor(journalPath);
+        this.journal = journal;
+        this.tally = tally;
+        this.ids = ids;
+        this.intervalMillis = intervalMillis;
+        this.snapshotOffset = journal.restoredOffset();
+        this.thread = new Thread(this::run, "vote-snapshotter");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Spustí vlákno, ktoré každých {@code intervalMillis} milisekúnd zapíše snapshot žurnálu.
+     * @param journalPath Cesta k žurnálu; snapshot sa ukladá vedľa neho s príponou {@code .snapshot}.
+     * @param journal Žurnál otvorený na tej ceste, do ktorého sa zapisuje každý hlas započítaný v {@code tally}.
+     * @param tally Živé súčty hlasov.
+     * @param ids Živá množina ID voličov.
+     * @param intervalMillis Interval medzi snapshotmi v milisekundách.
+     * @return Spustený snapshotter.
+     */
+    public static VoteSnapshotter start(Path journalPath, VoteJournal journal, VoteTally tally, VoterIdSet ids,
+                                        long intervalMillis) {
+        VoteSnapshotter snapshotter = new VoteSnapshotter(journalPath, journal, tally, ids, intervalMillis);
+        snapshotter.thread.start();
+        return snapshotter;
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                // the journal stays authoritative, a failed snapshot only makes the next restart slower
+                System.err.println("Vote snapshot failed: " + e.getMessage());
+            }
+            synchronized (sleepLock) {
+                if (!closed) {
+                    try {
+                        sleepLock.wait(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ak od posledného snapshotu pribudli v žurnáli hlasy, zapíše nový snapshot.
+     * @throws IOException ak snapshot nemožno zapísať.
+     */
+    public synchronized void checkpoint() throws IOException {
+        RecordBuffer head;
+        long offset;
+        VoteJournal.Boundary boundary = journal.pauseCommits();
+        try {
+            offset = boundary.offset;
+            if (offset <= snapshotOffset) {
+                return;
+            }
+            head = VoteSnapshot.encode(offset, boundary.dictionary, tally);
+        } finally {
+            journal.resumeCommits();
+        }
+        VoteSnapshot.write(snapshotPath, head, ids, journal);
+        snapshotOffset = offset;
+    }
+
+    /**
+     * Zastaví vlákno a zapíše posledný snapshot, aby ďalší štart nemusel prehrávať žiadny žurnál.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (sleepLock) {
+            sleepLock.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+}
@@ -0,0 +1,408 @@
+package logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Trieda {@code VoteTally} uchováva priebežné súčty hlasov v hustej matici
+ * kandidát × štát × veková skupina.
+ * <p>
+ * Kandidáti a štáty sú určení ID z {@link CandidateRegistry} a {@link CountryRegistry}. Každý kandidát
+ * má riadok rozdelený na bloky po {@value #BLOCK_STATES} štátoch; blok je pole {@code long} s vlastnou
+ * kópiou buniek pre každý z {@value #STRIPES} pruhov, do ktorých sa vlákna rozdelia podľa ID. Hlas je
+ * tak jedno atomické pripočítanie do bunky vlastného pruhu, bez hashovania reťazcov, boxingu a alokácií.
+ * Bloky a riadky sa pri prvom hlase vytvoria a potom sa už nikdy nekopírujú, takže rast matice
+ * nestratí súbežne pripočítané hlasy.
+ * </p>
+ * <p>
+ * Všetky súhrny, teda súčty kandidátov, štátov a vekových skupín, sa počítajú prechodom cez polia.
+ * Súčty podľa PSČ, okresov a krajov sa priebežne vedú v {@link RegionRollup} a počty podľa presného
+ * veku v {@link AgeHistogram}. Poradie kandidátov v každom štáte a v celej krajine sa priebežne udržiava
+ * v {@link Leaderboard}.
+ * </p>
+ */
+public final class VoteTally {
+    /** Počet vekových skupín: do 18, 18 – 30, 31 – 60 a nad 60 rokov. */
+    public static final int AGE_BUCKETS = 4;
+    /** Indexy vekových skupín v {@link #getAgeBucketTotals()} a v {@link CellConsumer}. */
+    public static final int UNDER_18 = 0;
+    public static final int FROM_18_TO_30 = 1;
+    public static final int FROM_31_TO_60 = 2;
+    public static final int OVER_60 = 3;
+
+    private static final int BLOCK_STATES = 64;
+    private static final int STRIPES = 8;
+    private static final int BLOCK_CELLS = BLOCK_STATES * AGE_BUCKETS;
+    private static final int STRIPE_STRIDE = BLOCK_CELLS + 8; // a cache line between stripes
+    private static final int BLOCKS_PER_ROW = (CountryRegistry.MAX_IDS + BLOCK_STATES - 1) / BLOCK_STATES;
+    private static final int TOP_DISTRICTS = 10;
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private volatile AtomicReferenceArray<long[]>[] rows = newRows(16);
+    private final LongAdder totalVotes = new LongAdder();
+    private final RegionRollup regions = new RegionRollup(TOP_DISTRICTS);
+    private final AgeHistogram ages = new AgeHistogram();
+    private final Leaderboard nationalLeaderboard = new Leaderboard();
+    private final AtomicReferenceArray<Leaderboard> stateLeaderboards = new AtomicReferenceArray<>(CountryRegistry.MAX_IDS);
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<long[]>[] newRows(int length) {
+        return (AtomicReferenceArray<long[]>[]) new AtomicReferenceArray<?>[length];
+    }
+
+    /**
+     * Započíta jeden hlas do súčtov kandidáta, štátu a vekovej skupiny.
+     * @param candidate Meno kandidáta.
+     * @param age Vek voliča.
+     * @param state Štát voliča.
+     * @param psc PSČ voliča.
+     */
+    public void record(String candidate, int age, String state, int psc) {
+        record(CandidateRegistry.idOf(candidate), age, CountryRegistry.idOf(state), psc);
+    }
+
+    /**
+     * Započíta jeden hlas do súčtov kandidáta, štátu a vekovej skupiny.
+     * @param candidateId ID kandidáta z {@link CandidateRegistry}.
+     * @param age Vek voliča.
+     * @param stateId ID štátu voliča z {@link CountryRegistry}.
+     * @param psc PSČ voliča.
+     */
+    public void record(int candidateId, int age, int stateId, int psc) {
+        increment(candidateId, stateId, ageBucket(age), 1);
+        regions.record(candidateId, stateId, psc);
+        ages.add(candidateId, stateId, age, 1);
+        rank(candidateId, stateId, 1);
+        totalVotes.increment();
+    }
+
+    /**
+     * Pripočíta naraz viac hlasov do jednej bunky matice, napr. pri obnove zo snapshotu.
+     */
+    void add(int candidateId, int stateId, int bucket, long count) {
+        increment(candidateId, stateId, bucket, count);
+        rank(candidateId, stateId, count);
+        totalVotes.add(count);
+    }
+
+    private void rank(int candidateId, int stateId, long count) {
+        nationalLeaderboard.add(candidateId, count);
+        Leaderboard board = stateLeaderboards.get(stateId);
+        if (board == null) {
+            stateLeaderboards.compareAndSet(stateId, null, new Leaderboard());
+            board = stateLeaderboards.get(stateId);
+        }
+        board.add(candidateId, count);
+    }
+
+    private void increment(int candidateId, int stateId, int bucket, long count) {
+        long[] block = block(candidateId, stateId);
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        CELLS.getAndAdd(block, stripe * STRIPE_STRIDE + cell(stateId, bucket), count);
+    }
+
+    /**
+     * Započíta prijaté lístky z dávky.
+     * @param candidateIds ID kandidátov lístkov.
+     * @param batch Lístky dávky.
+     * @param stateIds ID štátov lístkov.
+     * @param outcomes Výsledky lístkov; započítajú sa iba prijaté.
+     */
+    void recordAll(int[] candidateIds, List<Ballot> batch, int[] stateIds, VoteOutcome[] outcomes) {
+        long accepted = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == VoteOutcome.ACCEPTED) {
+                Ballot ballot = batch.get(i);
+                increment(candidateIds[i], stateIds[i], ageBucket(ballot.getAge()), 1);
+                regions.record(candidateIds[i], stateIds[i], ballot.getPsc());
+                ages.add(candidateIds[i], stateIds[i], ballot.getAge(), 1);
+                rank(candidateIds[i], stateIds[i], 1);
+                accepted++;
+            }
+        }
+        totalVotes.add(accepted);
+    }
+
+    static int ageBucket(int age) {
+        if (age >= 18 && age <= 30) {
+            return FROM_18_TO_30;
+        } else if (age > 30 && age <= 60) {
+            return FROM_31_TO_60;
+        } else if (age > 60) {
+            return OVER_60;
+        }
+        return UNDER_18;
+    }
+
+    private static int cell(int stateId, int bucket) {
+        return (stateId & (BLOCK_STATES - 1)) * AGE_BUCKETS + bucket;
+    }
+
+    private long[] block(int candidateId, int stateId) {
+        AtomicReferenceArray<long[]>[] current = rows;
+        AtomicReferenceArray<long[]> row = candidateId < current.length ? current[candidateId] : null;
+        if (row == null) {
+            row = installRow(candidateId);
+        }
+        int blockIndex = stateId / BLOCK_STATES;
+        long[] block = row.get(blockIndex);
+        if (block == null) {
+            row.compareAndSet(blockIndex, null, new long[STRIPES * STRIPE_STRIDE]);
+            block = row.get(blockIndex);
+        }
+        return block;
+    }
+
+    private synchronized AtomicReferenceArray<long[]> installRow(int candidateId) {
+        AtomicReferenceArray<long[]>[] current = rows;
+        if (candidateId >= current.length) {
+            // only the row references are copied, the rows themselves stay where writers see them
+            current = Arrays.copyOf(current, Math.max(current.length * 2, candidateId + 1));
+        }
+        if (current[candidateId] == null) {
+            current[candidateId] = new AtomicReferenceArray<>(BLOCKS_PER_ROW);
+        }
+        rows = current;
+        return current[candidateId];
+    }
+
+    private AtomicReferenceArray<long[]> row(int candidateId) {
+        AtomicReferenceArray<long[]>[] current = rows;
+        return candidateId >= 0 && candidateId < current.length ? current[candidateId] : null;
+    }
+
+    /**
+     * Sčíta pruhy jednej bunky bloku.
+     */
+    private static long sum(long[] block, int cell) {
+        long sum = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            sum += (long) CELLS.getOpaque(block, stripe * STRIPE_STRIDE + cell);
+        }
+        return sum;
+    }
+
+    /**
+     * Prejde všetky nenulové bunky matice.
+     * @param action Akcia volaná pre každú bunku.
+     */
+    public void forEachCell(CellConsumer action) {
+        AtomicReferenceArray<long[]>[] current = rows;
+        for (int candidateId = 0; candidateId < current.length; candidateId++) {
+            if (current[candidateId] != null) {
+                forEachCell(candidateId, current[candidateId], action);
+            }
+        }
+    }
+
+    private static void forEachCell(int candidateId, AtomicReferenceArray<long[]> row, CellConsumer action) {
+        for (int blockIndex = 0; blockIndex < BLOCKS_PER_ROW; blockIndex++) {
+            long[] block = row.get(blockIndex);
+            if (block == null) {
+                continue;
+            }
+            for (int cell = 0; cell < BLOCK_CELLS; cell++) {
+                long votes = sum(block, cell);
+                if (votes != 0) {
+                    action.accept(candidateId, blockIndex * BLOCK_STATES + cell / AGE_BUCKETS, cell % AGE_BUCKETS, votes);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param candidateId ID kandidáta.
+     * @return Celkový počet hlasov kandidáta.
+     */
+    public long getCandidateVotes(int candidateId) {
+        AtomicReferenceArray<long[]> row = row(candidateId);
+        if (row == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int blockIndex = 0; blockIndex < BLOCKS_PER_ROW; blockIndex++) {
+            long[] block = row.get(blockIndex);
+            if (block != null) {
+                for (int cell = 0; cell < BLOCK_CELLS; cell++) {
+                    total += sum(block, cell);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param candidate Meno kandidáta.
+     * @return Celkový počet hlasov kandidáta.
+     */
+    public long getCandidateVotes(String candidate) {
+        return getCandidateVotes(CandidateRegistry.findId(candidate));
+    }
+
+    /**
+     * @param stateId ID štátu z {@link CountryRegistry}.
+     * @return Celkový počet hlasov odovzdaných v štáte.
+     */
+    public long getStateTotal(int stateId) {
+        if (stateId < 0) {
+            return 0;
+        }
+        AtomicReferenceArray<long[]>[] current = rows;
+        long total = 0;
+        for (AtomicReferenceArray<long[]> row : current) {
+            long[] block = row == null ? null : row.get(stateId / BLOCK_STATES);
+            if (block != null) {
+                for (int bucket = 0; bucket < AGE_BUCKETS; bucket++) {
+                    total += sum(block, cell(stateId, bucket));
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @return Celkový počet hlasov odovzdaných v štáte.
+     */
+    public long getStateTotal(String state) {
+        return getStateTotal(CountryRegistry.findId(state));
+    }
+
+    /**
+     * Spočíta súčty všetkých štátov jedným prechodom matice.
+     * @return Pole indexované ID štátu.
+     */
+    public long[] getStateTotals() {
+        long[] totals = new long[CountryRegistry.MAX_IDS];
+        forEachCell((candidateId, stateId, bucket, votes) -> totals[stateId] += votes);
+        // states are registered before their first vote, so the size read now covers every ID seen
+        return Arrays.copyOf(totals, CountryRegistry.size());
+    }
+
+    /**
+     * Spočíta hlasy vekových skupín jedným prechodom matice.
+     * @return Pole s dĺžkou {@link #AGE_BUCKETS}: do 18, 18 – 30, 31 – 60 a nad 60 rokov.
+     */
+    public long[] getAgeBucketTotals() {
+        long[] totals = new long[AGE_BUCKETS];
+        forEachCell((candidateId, stateId, bucket, votes) -> totals[bucket] += votes);
+        return totals;
+    }
+
+    /**
+     * Prejde všetkých kandidátov s ich celkovým počtom hlasov v poradí registrácie.
+     * @param action Akcia volaná pre každého kandidáta.
+     */
+    public void forEachCandidate(ObjLongConsumer<String> action) {
+        AtomicReferenceArray<long[]>[] current = rows;
+        for (int candidateId = 0; candidateId < current.length; candidateId++) {
+            if (current[candidateId] != null) {
+                action.accept(CandidateRegistry.nameOf(candidateId), getCandidateVotes(candidateId));
+            }
+        }
+    }
+
+    /**
+     * Prejde všetky štáty s aspoň jedným hlasom a celkovým počtom hlasov odovzdaných v danom štáte.
+     * @param action Akcia volaná pre každý štát.
+     */
+    public void forEachStateTotal(ObjLongConsumer<String> action) {
+        long[] totals = getStateTotals();
+        for (int stateId = 0; stateId < totals.length; stateId++) {
+            if (totals[stateId] != 0) {
+                action.accept(CountryRegistry.nameOf(stateId), totals[stateId]);
+            }
+        }
+    }
+
+    /**
+     * Prejde počty hlasov pre každú dvojicu štát/kandidát.
+     * @param action Akcia volaná pre každú dvojicu.
+     */
+    public void forEachStateVotes(StateVotesConsumer action) {
+        AtomicReferenceArray<long[]>[] current = rows;
+        long[] byState = new long[CountryRegistry.MAX_IDS];
+        for (int candidateId = 0; candidateId < current.length; candidateId++) {
+            if (current[candidateId] == null) {
+                continue;
+            }
+            Arrays.fill(byState, 0);
+            forEachCell(candidateId, current[candidateId], (candidate, stateId, bucket, votes) -> byState[stateId] += votes);
+            String candidate = CandidateRegistry.nameOf(candidateId);
+            for (int stateId = 0; stateId < byState.length; stateId++) {
+                if (byState[stateId] != 0) {
+                    action.accept(CountryRegistry.nameOf(stateId), candidate, byState[stateId]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Počty hlasov podľa presného veku voliča.
+     */
+    public AgeHistogram getAges() {
+        return ages;
+    }
+
+    /**
+     * @return Poradie kandidátov podľa celkového počtu hlasov.
+     */
+    public Leaderboard getNationalLeaderboard() {
+        return nationalLeaderboard;
+    }
+
+    /**
+     * @param stateId ID štátu z {@link CountryRegistry}.
+     * @return Poradie kandidátov v štáte alebo null, ak v štáte ešte nikto nevolil.
+     */
+    public Leaderboard getLeaderboard(int stateId) {
+        return stateId >= 0 && stateId < CountryRegistry.MAX_IDS ? stateLeaderboards.get(stateId) : null;
+    }
+
+    /**
+     * @return Súčty hlasov podľa PSČ, okresov a krajov.
+     */
+    public RegionRollup getRegions() {
+        return regions;
+    }
+
+    /**
+     * Celkový počet započítaných hlasov. Hodnota počas hlasovania nikdy neklesá, preto slúži
+     * aj ako verzia výsledkov.
+     * @return Počet započítaných hlasov.
+     */
+    public long getTotalVotes() {
+        return totalVotes.sum();
+    }
+
+    public long getCount18to30() {
+        return getAgeBucketTotals()[FROM_18_TO_30];
+    }
+
+    public long getCount31to60() {
+        return getAgeBucketTotals()[FROM_31_TO_60];
+    }
+
+    public long getCountOver60() {
+        return getAgeBucketTotals()[OVER_60];
+    }
+
+    /**
+     * Príjemca počtu hlasov pre jednu dvojicu štát/kandidát.
+     */
+    public interface StateVotesConsumer {
+        void accept(String state, String candidate, long votes);
+    }
+
+    /**
+     * Príjemca počtu hlasov jednej bunky matice.
+     */
+    public interface CellConsumer {
+        void accept(int candidateId, int stateId, int bucket, long votes);
+    }
+}
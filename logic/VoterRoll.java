@@ -0,0 +1,299 @@
+package logic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Trieda {@code VoterRoll} je zoznam voličov oprávnených voliť, namapovaný zo súboru do pamäte.
+ * <p>
+ * Súbor je hotová hašovacia tabuľka s otvoreným adresovaním podľa odtlačku ID
+ * ({@link VoterIdSet#hash(CharSequence)}), takže sa pri otvorení nič neparsuje ani nevytvárajú objekty
+ * na halde; stránky súboru načíta operačný systém až pri prvom prístupe. Vyhľadanie voliča prejde
+ * zvyčajne jeden alebo dva susedné sloty, tabuľka je naplnená najviac do polovice.
+ * </p>
+ * <p>
+ * Súbor začína 64-bajtovou hlavičkou ({@code VROL}, verzia, počet bitov indexu slotu, počet voličov)
+ * a nasledujú sloty po 16 bajtoch v poradí little-endian: odtlačok ID (8 B, 0 pre prázdny slot), PSČ (4 B),
+ * kód štátu ISO 3166 alpha-2 (2 B, 0 pre neznámy štát), vek (1 B) a príznaky (1 B). Súbor vytvorí
+ * {@link #create(Path, long)}, napr. cez nástroj {@code ingest.VoterRollBuilder}.
+ * </p>
+ */
+public final class VoterRoll implements Closeable {
+    private static final int MAGIC = 0x564F524C; // "VROL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    private static final int CHUNK_SLOT_BITS = 26; // 1 GiB per mapping, below the 2 GiB limit of a buffer
+    private static final int MIN_SLOT_BITS = 4;
+    private static final int FLAG_ELIGIBLE = 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long mask;
+    private final long size;
+
+    private VoterRoll(FileChannel channel, MappedByteBuffer[] chunks, long mask, long size) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.mask = mask;
+        this.size = size;
+    }
+
+    /**
+     * Otvorí súbor zoznamu voličov a namapuje ho do pamäte.
+     * @param path Cesta k súboru vytvorenému {@link #create(Path, long)}.
+     * @return Otvorený zoznam.
+     * @throws IOException ak súbor nemožno čítať alebo nemá platný formát.
+     */
+    public static VoterRoll open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a voter roll: " + path);
+            }
+            int slotBits = header.getInt(8);
+            long size = header.getLong(12);
+            if (slotBits < MIN_SLOT_BITS || slotBits > 40
+                    || channel.size() != fileSize(slotBits)) {
+                throw new IOException("Voter roll is truncated or corrupt: " + path);
+            }
+            return new VoterRoll(channel, map(channel, slotBits, FileChannel.MapMode.READ_ONLY), (1L << slotBits) - 1, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Veľkosť súboru s {@code 1 << slotBits} slotmi v bajtoch.
+     */
+    static long fileSize(int slotBits) {
+        // long shift: from 2^27 slots on the table alone is 2 GiB or more
+        return HEADER_BYTES + ((long) SLOT_BYTES << slotBits);
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, int slotBits, FileChannel.MapMode mode) throws IOException {
+        long slots = 1L << slotBits;
+        long chunkSlots = 1L << CHUNK_SLOT_BITS;
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((slots + chunkSlots - 1) / chunkSlots)];
+        for (int i = 0; i < chunks.length; i++) {
+            long first = i * chunkSlots;
+            long bytes = Math.min(chunkSlots, slots - first) * SLOT_BYTES;
+            chunks[i] = channel.map(mode, HEADER_BYTES + first * SLOT_BYTES, bytes);
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    /**
+     * @return Počet voličov v zozname.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Overí, či volič smie voliť a či sa jeho údaje zhodujú so zoznamom.
+     * @param ID Identifikačné číslo voliča.
+     * @param age Vek voliča.
+     * @param state Názov alebo kód štátu voliča.
+     * @param psc PSČ voliča.
+     * @return Výsledok overenia.
+     */
+    public Eligibility check(String ID, int age, String state, int psc) {
+        if (ID == null) {
+            return Eligibility.NOT_REGISTERED;
+        }
+        return check(VoterIdSet.hash(ID), age, CountryRegistry.idOf(state), psc);
+    }
+
+    /**
+     * Overí voliča podľa odtlačku ID a štátu zadaného ako ID z {@link CountryRegistry}; nič nealokuje.
+     * @see #check(String, int, String, int)
+     */
+    public Eligibility check(long idHash, int age, int stateId, int psc) {
+        long slot = find(idHash);
+        if (slot < 0) {
+            return Eligibility.NOT_REGISTERED;
+        }
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        if ((chunk.get(offset + 15) & FLAG_ELIGIBLE) == 0) {
+            return Eligibility.NOT_ELIGIBLE;
+        }
+        if ((chunk.get(offset + 14) & 0xFF) != age) {
+            return Eligibility.AGE_MISMATCH;
+        }
+        short isoCode = chunk.getShort(offset + 12);
+        // an unknown state on the ballot has no code, so it never matches a stored one
+        if (isoCode != 0 && isoCode != isoCode(CountryRegistry.isoCodeOf(stateId))) {
+            return Eligibility.STATE_MISMATCH;
+        }
+        if (chunk.getInt(offset + 8) != psc) {
+            return Eligibility.PSC_MISMATCH;
+        }
+        return Eligibility.ELIGIBLE;
+    }
+
+    /**
+     * @param ID Identifikačné číslo voliča.
+     * @return true, ak je volič v zozname, aj keď nesmie voliť.
+     */
+    public boolean contains(String ID) {
+        return ID != null && find(VoterIdSet.hash(ID)) >= 0;
+    }
+
+    private long find(long idHash) {
+        for (long slot = idHash & mask; ; slot = (slot + 1) & mask) {
+            long stored = chunk(slot).getLong(offset(slot));
+            if (stored == idHash) {
+                return slot;
+            }
+            if (stored == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private MappedByteBuffer chunk(long slot) {
+        return chunks[(int) (slot >>> CHUNK_SLOT_BITS)];
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot & ((1L << CHUNK_SLOT_BITS) - 1)) * SLOT_BYTES;
+    }
+
+    private static short isoCode(String code) {
+        return code == null || code.length() != 2 ? 0 : (short) (code.charAt(0) << 8 | code.charAt(1));
+    }
+
+    /**
+     * Zatvorí súbor. Mapovanie uvoľní až garbage collector, preto sa zoznam po zatvorení nesmie používať.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Začne vytvárať nový súbor zoznamu voličov. Súbor sa zapisuje vedľa cieľa a na miesto sa presunie
+     * až pri {@link Writer#close()}, takže otvorený zoznam nikdy nevidí rozpísaný súbor.
+     * @param path Cesta k výslednému súboru.
+     * @param expectedVoters Najväčší počet voličov, ktorí sa do súboru zapíšu.
+     * @return Zapisovač voličov.
+     * @throws IOException ak súbor nemožno vytvoriť.
+     */
+    public static Writer create(Path path, long expectedVoters) throws IOException {
+        int slotBits = MIN_SLOT_BITS;
+        while ((1L << slotBits) < expectedVoters * 2) {
+            slotBits++;
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // sparse until written; unused slots read back as zero, the empty marker
+            channel.write(ByteBuffer.wrap(new byte[1]), fileSize(slotBits) - 1);
+            return new Writer(path, temporary, channel, slotBits, map(channel, slotBits, FileChannel.MapMode.READ_WRITE));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Zapisovač nového súboru zoznamu voličov.
+     */
+    public static final class Writer implements Closeable {
+        private final Path path;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final int slotBits;
+        private final MappedByteBuffer[] chunks;
+        private final long mask;
+        private long size;
+
+        private Writer(Path path, Path temporary, FileChannel channel, int slotBits, MappedByteBuffer[] chunks) {
+            this.path = path;
+            this.temporary = temporary;
+            this.channel = channel;
+            this.slotBits = slotBits;
+            this.chunks = chunks;
+            this.mask = (1L << slotBits) - 1;
+        }
+
+        /**
+         * Pridá voliča do zoznamu.
+         * @param ID Identifikačné číslo voliča.
+         * @param age Vek voliča v deň volieb, od 0 do 255.
+         * @param isoCode Dvojpísmenový kód štátu ISO 3166 alebo null, ak sa štát neoveruje.
+         * @param psc PSČ voliča.
+         * @param eligible false pre voliča, ktorý je v zozname, ale nesmie voliť.
+         * @return true, ak bol volič pridaný; false, ak už v zozname je.
+         */
+        public boolean add(String ID, int age, String isoCode, int psc, boolean eligible) {
+            if (age < 0 || age > 255) {
+                throw new IllegalArgumentException("Age out of range: " + age);
+            }
+            if (size * 2 >= mask + 1) {
+                throw new IllegalStateException("Voter roll is full");
+            }
+            long idHash = VoterIdSet.hash(ID);
+            long slot = idHash & mask;
+            while (true) {
+                MappedByteBuffer chunk = chunks[(int) (slot >>> CHUNK_SLOT_BITS)];
+                int offset = offset(slot);
+                long stored = chunk.getLong(offset);
+                if (stored == idHash) {
+                    return false;
+                }
+                if (stored == 0) {
+                    chunk.putLong(offset, idHash);
+                    chunk.putInt(offset + 8, psc);
+                    chunk.putShort(offset + 12, isoCode(isoCode));
+                    chunk.put(offset + 14, (byte) age);
+                    chunk.put(offset + 15, (byte) (eligible ? FLAG_ELIGIBLE : 0));
+                    size++;
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Zapíše hlavičku, uloží súbor na disk a presunie ho na cieľové miesto.
+         * @throws IOException ak súbor nemožno zapísať.
+         */
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                for (MappedByteBuffer chunk : chunks) {
+                    chunk.force();
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, slotBits).putLong(12, size);
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -1,68 +1,585 @@
 package logic;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import metrics.AddVoteEvent;
+import metrics.Counter;
+import metrics.DuplicateVoteEvent;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.ResultsRenderEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
 
 public class VotingManager {
-    private static final Map<String, Integer> votes = new HashMap<>();
-    private static final Set<String> hasVotedIDs = new HashSet<>();
-    private static final Map<String, Map<String, Integer>> votesByState = new HashMap<>();
+    private static final VoteTally tally = new VoteTally();
+    private static final VoterIdSet hasVotedIDs = new VoterIdSet();
+    private static final TurnoutSeries turnout = new TurnoutSeries();
+    private static final List<ResultsSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 60_000;
+
+    private static final Counter acceptedVotes = Metrics.counter("votes.accepted");
+    private static final Counter duplicateVotes = Metrics.counter("votes.duplicate");
+    private static final Counter rejectedVotes = Metrics.counter("votes.rejected");
+    private static final LatencyHistogram addVoteLatency = Metrics.histogram("addVote.latency");
+    private static final LatencyHistogram addVotesLatency = Metrics.histogram("addVotes.latency");
+    private static final LatencyHistogram renderLatency = Metrics.histogram("results.formatted.latency");
 
-    private static int count18to30 = 0;
-    private static int count31to60 = 0;
-    private static int countOver60 = 0;
+    private static volatile VoteJournal journal;
+    private static volatile LongConsumer acceptedIdListener;
+    private static volatile VoterRoll voterRoll;
+    private static volatile ResultsSnapshot resultsSnapshot;
+    private static final ReentrantLock snapshotLock = new ReentrantLock();
+    private static VoteSnapshotter snapshotter;
 
+    static {
+        Metrics.gauge("votes.total", tally::getTotalVotes);
+        Metrics.gauge("voters.size", hasVotedIDs::size);
+        Metrics.gauge("journal.durableBytes", () -> {
+            VoteJournal current = journal;
+            return current == null ? 0 : current.durableSize();
+        });
+    }
+
+    /**
+     * Obnoví hlasy z posledného snapshotu a žurnálu na disku a odteraz do žurnálu zapisuje každý
+     * prijatý hlas. Na pozadí sa každú minútu zapisuje nový snapshot.
+     * Volá sa raz pri štarte aplikácie, skôr než sa začne hlasovať.
+     * @param path Cesta k súboru žurnálu.
+     * @throws IOException ak žurnál nemožno prečítať alebo otvoriť na zápis.
+     */
+    public static synchronized void openJournal(Path path) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("Vote journal is already open");
+        }
+        journal = VoteJournal.open(path, tally, hasVotedIDs);
+        snapshotter = VoteSnapshotter.start(path, journal, tally, hasVotedIDs, SNAPSHOT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Zapíše zostávajúce hlasy na disk, zatvorí žurnál a zapíše posledný snapshot.
+     */
+    public static synchronized void closeJournal() {
+        VoteJournal current = journal;
+        journal = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close vote journal: " + e.getMessage());
+            }
+            try {
+                snapshotter.close();
+            } catch (IOException e) {
+                System.err.println("Failed to write vote snapshot: " + e.getMessage());
+            }
+            snapshotter = null;
+        }
+    }
+
+    /**
+     * Odteraz prijme iba hlasy voličov zo zoznamu voličov, ktorých vek, štát a PSČ sa so zoznamom zhodujú.
+     * Predchádzajúci zoznam sa zatvorí.
+     * @param path Cesta k súboru vytvorenému {@link VoterRoll#create(Path, long)}.
+     * @throws IOException ak zoznam nemožno otvoriť.
+     */
+    public static synchronized void openVoterRoll(Path path) throws IOException {
+        VoterRoll previous = voterRoll;
+        voterRoll = VoterRoll.open(path);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Overí voliča v zozname voličov bez odovzdania hlasu, napr. pred zobrazením hlasovacieho lístka.
+     * @return Výsledok overenia; {@link Eligibility#ELIGIBLE}, ak sa zoznam voličov nepoužíva.
+     */
+    public static Eligibility checkEligibility(String ID, int age, String state, int psc) {
+        VoterRoll roll = voterRoll;
+        if (roll == null) {
+            return Eligibility.ELIGIBLE;
+        }
+        return ID == null ? Eligibility.NOT_REGISTERED : roll.check(ID, age, state, psc);
+    }
+
+    /**
+     * @param ID Identifikačné číslo voliča.
+     * @return true, ak volič s týmto ID už hlasoval; pre null false.
+     */
     public static boolean hasAlreadyVoted(String ID) {
-        return hasVotedIDs.contains(ID);
+        return ID != null && hasVotedIDs.contains(ID);
+    }
+
+    /**
+     * Nastaví príjemcu odtlačku ID každého prijatého hlasu, napr. pre replikáciu medzi volebnými
+     * miestnosťami. Príjemca sa volá vo vlákne, ktoré hlas spracúva, a nesmie blokovať.
+     * @param listener Príjemca odtlačkov alebo null.
+     */
+    public static void setAcceptedIdListener(LongConsumer listener) {
+        acceptedIdListener = listener;
+    }
+
+    /**
+     * Zaznamená voliča, ktorý hlasoval v inej volebnej miestnosti, aby sa jeho ďalší hlas odmietol.
+     * Hlas sa nezapočíta a nezapíše do žurnálu.
+     * @param idHash Odtlačok ID získaný {@link VoterIdSet#hash(CharSequence)}.
+     * @return true, ak volič ešte nebol známy; false, ak už hlasoval alebo bol zaznamenaný.
+     */
+    public static boolean markVotedElsewhere(long idHash) {
+        return hasVotedIDs.addHash(idHash);
+    }
+
+    public static boolean addVote(String candidate, String voterName, int age, String state, String ID, int psc) {
+        return addVote(candidate, voterName, age, state, ID, psc, VoteChannel.UNSPECIFIED);
+    }
+
+    /**
+     * Započíta hlas voliča odovzdaný zadaným spôsobom hlasovania.
+     * @return true, ak bol hlas prijatý; false, ak volič s rovnakým ID už hlasoval, nie je v zozname voličov
+     * alebo lístok nemá kandidáta či ID.
+     */
+    public static boolean addVote(String candidate, String voterName, int age, String state, String ID, int psc,
+                                  VoteChannel channel) {
+        return castVote(candidate, voterName, age, state, ID, psc, channel) == VoteOutcome.ACCEPTED;
     }
 
-    public static synchronized boolean addVote(String candidate, String voterName, int age, String state, String ID, int psc) {
-        if (hasVotedIDs.contains(ID)) {
+    /**
+     * Započíta hlas voliča odovzdaný zadaným spôsobom hlasovania a vráti, ako sa s ním naložilo.
+     * @return {@link VoteOutcome#ACCEPTED}, {@link VoteOutcome#DUPLICATE}, ak volič s rovnakým ID už hlasoval,
+     * alebo {@link VoteOutcome#REJECTED}, ak nie je v zozname voličov alebo lístok nemá kandidáta či ID.
+     */
+    public static VoteOutcome castVote(String candidate, String voterName, int age, String state, String ID, int psc,
+                                       VoteChannel channel) {
+        if (candidate == null || candidate.isEmpty()) {
+            recordRejected(channel);
+            return VoteOutcome.REJECTED;
+        }
+        return castVote(CandidateRegistry.idOf(candidate), age, CountryRegistry.idOf(state), ID, psc, channel);
+    }
+
+    /**
+     * Započíta hlas voliča so štátom zadaným ako ID z {@link CountryRegistry}.
+     * @return true, ak bol hlas prijatý; false, ak volič s rovnakým ID už hlasoval alebo nie je v zozname voličov.
+     */
+    public static boolean addVote(String candidate, String voterName, int age, int stateId, String ID, int psc) {
+        if (candidate == null || candidate.isEmpty()) {
+            recordRejected(VoteChannel.UNSPECIFIED);
             return false;
         }
+        return addVote(CandidateRegistry.idOf(candidate), voterName, age, stateId, ID, psc, VoteChannel.UNSPECIFIED);
+    }
+
+    /**
+     * Započíta hlas voliča s kandidátom a štátom zadanými ako ID z {@link CandidateRegistry}
+     * a {@link CountryRegistry}. Prijatý hlas nič nealokuje.
+     * @return true, ak bol hlas prijatý; false, ak volič s rovnakým ID už hlasoval alebo nie je v zozname voličov.
+     */
+    public static boolean addVote(int candidateId, String voterName, int age, int stateId, String ID, int psc,
+                                  VoteChannel channel) {
+        return castVote(candidateId, age, stateId, ID, psc, channel) == VoteOutcome.ACCEPTED;
+    }
+
+    private static VoteOutcome castVote(int candidateId, int age, int stateId, String ID, int psc, VoteChannel channel) {
+        if (ID == null || ID.isEmpty()) {
+            // the same check as processVotes; an empty ID would otherwise be accepted once, then be a duplicate
+            recordRejected(channel);
+            return VoteOutcome.REJECTED;
+        }
+        if (!Metrics.ENABLED) {
+            return processVote(candidateId, age, stateId, ID, psc, channel);
+        }
+        AddVoteEvent event = new AddVoteEvent();
+        event.begin();
+        long start = System.nanoTime();
+        VoteOutcome outcome = processVote(candidateId, age, stateId, ID, psc, channel);
+        addVoteLatency.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.channel = channel.name();
+            event.outcome = outcome.name();
+            event.ballots = 1;
+            event.commit();
+        }
+        return outcome;
+    }
+
+    private static VoteOutcome processVote(int candidateId, int age, int stateId, String ID, int psc, VoteChannel channel) {
+        long idHash = VoterIdSet.hash(ID);
+        VoterRoll roll = voterRoll;
+        // checked before deduplication, so a refused voter can still vote once the mistake is corrected
+        if (roll != null && roll.check(idHash, age, stateId, psc) != Eligibility.ELIGIBLE) {
+            recordRejected(channel);
+            return VoteOutcome.REJECTED;
+        }
+        VoteJournal currentJournal = journal;
+        if (currentJournal != null) {
+            // refuses before the voter is marked, so a failed journal does not burn the ID
+            currentJournal.beginCommit();
+        }
+        boolean added;
+        try {
+            added = recordVote(currentJournal, candidateId, age, stateId, psc, idHash);
+        } finally {
+            if (currentJournal != null) {
+                currentJournal.endCommit();
+            }
+        }
+        if (!added) {
+            turnout.record(channel, false);
+            duplicateVotes.increment();
+            if (Metrics.ENABLED) {
+                DuplicateVoteEvent duplicate = new DuplicateVoteEvent();
+                if (duplicate.shouldCommit()) {
+                    duplicate.channel = channel.name();
+                    duplicate.commit();
+                }
+            }
+            return VoteOutcome.DUPLICATE;
+        }
+        turnout.record(channel, true);
+        acceptedVotes.increment();
+        LongConsumer listener = acceptedIdListener;
+        if (listener != null) {
+            listener.accept(idHash);
+        }
+        for (ResultsSubscription subscription : subscriptions) {
+            subscription.markDirty(candidateId, stateId);
+        }
+        return VoteOutcome.ACCEPTED;
+    }
 
-        state = (state == null || state.trim().isEmpty()) ? "Undetermined" : state;
-        votes.put(candidate, votes.getOrDefault(candidate, 0) + 1);
-        countVotesByAge(age);
-        recordStateVotes(state, candidate);
-        hasVotedIDs.add(ID);
+    private static boolean recordVote(VoteJournal currentJournal, int candidateId, int age, int stateId, int psc,
+                                      long idHash) {
+        // add() succeeds for exactly one caller per ID, so no lock is needed around the tally
+        if (!hasVotedIDs.addHash(idHash)) {
+            return false;
+        }
+        if (currentJournal != null) {
+            try {
+                currentJournal.append(candidateId, stateId, age, psc, idHash);
+            } catch (RuntimeException e) {
+                // the vote is not on disk, so the voter may try again
+                hasVotedIDs.removeHash(idHash);
+                throw e;
+            }
+        }
+        tally.record(candidateId, age, stateId, psc);
         return true;
     }
 
-    private static void countVotesByAge(int age) {
-        if (age >= 18 && age <= 30) {
-            count18to30++;
-        } else if (age > 30 && age <= 60) {
-            count31to60++;
-        } else if (age > 60) {
-            countOver60++;
+    /**
+     * Spracuje celú dávku lístkov naraz. Deduplikácia zamkne každý segment množiny ID iba raz,
+     * žurnál zapíše dávku pod jedným zámkom a súčty sa pripočítajú priamo do matice bez alokácií.
+     * Lístok bez kandidáta alebo ID a lístok voliča, ktorý neprešiel overením v zozname voličov, sa odmietne.
+     *
+     * @param batch Dávka lístkov.
+     * @return Výsledok spracovania každého lístka a súhrnné počty.
+     */
+    public static BatchResult addVotes(List<Ballot> batch) {
+        return addVotes(batch, VoteChannel.UNSPECIFIED);
+    }
+
+    /**
+     * Spracuje celú dávku lístkov odovzdaných zadaným spôsobom hlasovania.
+     * @see #addVotes(List)
+     */
+    public static BatchResult addVotes(List<Ballot> batch, VoteChannel channel) {
+        if (!Metrics.ENABLED) {
+            return processVotes(batch, channel);
         }
+        AddVoteEvent event = new AddVoteEvent();
+        event.begin();
+        long start = System.nanoTime();
+        BatchResult result = processVotes(batch, channel);
+        addVotesLatency.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.channel = channel.name();
+            event.outcome = "BATCH";
+            event.ballots = result.size();
+            event.commit();
+        }
+        return result;
     }
 
-    private static void recordStateVotes(String state, String candidate) {
-        votesByState.computeIfAbsent(state, k -> new HashMap<>()).merge(candidate, 1, Integer::sum);
+    private static BatchResult processVotes(List<Ballot> batch, VoteChannel channel) {
+        int size = batch.size();
+        VoteOutcome[] outcomes = new VoteOutcome[size];
+        int[] candidateIds = new int[size];
+        int[] stateIds = new int[size];
+        long[] idHashes = new long[size];
+        VoterRoll roll = voterRoll;
+        for (int i = 0; i < size; i++) {
+            Ballot ballot = batch.get(i);
+            if (ballot == null || ballot.getCandidate() == null || ballot.getCandidate().isEmpty()
+                    || ballot.getID() == null || ballot.getID().isEmpty()) {
+                outcomes[i] = VoteOutcome.REJECTED;
+            } else {
+                // a zero hash makes VoterIdSet.addAll skip the rejected ballot
+                idHashes[i] = VoterIdSet.hash(ballot.getID());
+                candidateIds[i] = CandidateRegistry.idOf(ballot.getCandidate());
+                stateIds[i] = CountryRegistry.idOf(ballot.getState());
+                if (roll != null && roll.check(idHashes[i], ballot.getAge(), stateIds[i], ballot.getPsc()) != Eligibility.ELIGIBLE) {
+                    outcomes[i] = VoteOutcome.REJECTED;
+                    idHashes[i] = 0;
+                }
+            }
+        }
+
+        VoteJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.beginCommit();
+        }
+        try {
+            boolean[] added = new boolean[size];
+            hasVotedIDs.addAll(idHashes, size, added);
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i] == null) {
+                    outcomes[i] = added[i] ? VoteOutcome.ACCEPTED : VoteOutcome.DUPLICATE;
+                }
+            }
+
+            if (currentJournal != null) {
+                try {
+                    currentJournal.appendAll(batch, candidateIds, stateIds, idHashes, outcomes);
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < size; i++) {
+                        if (added[i]) {
+                            hasVotedIDs.removeHash(idHashes[i]);
+                        }
+                    }
+                    throw e;
+                }
+            }
+            tally.recordAll(candidateIds, batch, stateIds, outcomes);
+        } finally {
+            if (currentJournal != null) {
+                currentJournal.endCommit();
+            }
+        }
+        if (!subscriptions.isEmpty()) {
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i] == VoteOutcome.ACCEPTED) {
+                    for (ResultsSubscription subscription : subscriptions) {
+                        subscription.markDirty(candidateIds[i], stateIds[i]);
+                    }
+                }
+            }
+        }
+        LongConsumer listener = acceptedIdListener;
+        if (listener != null) {
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i] == VoteOutcome.ACCEPTED) {
+                    listener.accept(idHashes[i]);
+                }
+            }
+        }
+        BatchResult result = new BatchResult(outcomes);
+        long now = TurnoutSeries.nowSecond();
+        turnout.record(channel, true, result.getAccepted(), now);
+        turnout.record(channel, false, result.getDuplicates() + result.getRejected(), now);
+        acceptedVotes.add(result.getAccepted());
+        duplicateVotes.add(result.getDuplicates());
+        rejectedVotes.add(result.getRejected());
+        if (Metrics.ENABLED && result.getDuplicates() > 0) {
+            DuplicateVoteEvent duplicate = new DuplicateVoteEvent();
+            if (duplicate.isEnabled()) {
+                for (int i = 0; i < size; i++) {
+                    if (outcomes[i] == VoteOutcome.DUPLICATE) {
+                        duplicate = new DuplicateVoteEvent();
+                        duplicate.channel = channel.name();
+                        duplicate.commit();
+                    }
+                }
+            }
+        }
+        return result;
     }
 
-    public static String getFormattedResults() {
-        StringBuilder results = new StringBuilder("<html>");
-        votes.forEach((candidate, totalVotes) -> results.append("Candidate: ").append(candidate)
-            .append(", Total number of votes: ").append(totalVotes).append("<br>"));
-
-        results.append("Age demographics:<br>")
-            .append("18-30: ").append(count18to30).append("<br>")
-            .append("31-60: ").append(count31to60).append("<br>")
-            .append("60+: ").append(countOver60).append("<br>");
-
-        results.append("Votes by state:<br>");
-        votesByState.forEach((state, candidateVotes) -> {
-            int totalVotesByState = candidateVotes.values().stream().mapToInt(Integer::intValue).sum();
-            results.append("State: ").append(state.isEmpty() ? "Undetermined" : state)
-                .append(", Total votes: ").append(totalVotesByState).append("<br>");
-        });
+    /**
+     * Započíta lístok, ktorý sa odmietol ešte pred odovzdaním, napr. pre neplatné údaje,
+     * do priebehu účasti.
+     * @param channel Spôsob hlasovania.
+     */
+    public static void recordRejected(VoteChannel channel) {
+        turnout.record(channel, false);
+        rejectedVotes.increment();
+    }
+
+    /**
+     * @return Počty prijatých a odmietnutých lístkov po sekundách, minútach a hodinách.
+     */
+    public static TurnoutSeries getTurnout() {
+        return turnout;
+    }
+
+    /**
+     * Vráti verziu výsledkov, ktorá sa zvyšuje s každým prijatým hlasom.
+     * @return Aktuálna verzia výsledkov.
+     */
+    public static long getVersion() {
+        return tally.getTotalVotes();
+    }
+
+    /**
+     * Začne odber zmien výsledkov. Prvá doručená zmena obsahuje všetky doterajšie súčty.
+     * @return Nový odber, ktorý treba po použití zatvoriť.
+     */
+    public static ResultsSubscription subscribe() {
+        ResultsSubscription subscription = new ResultsSubscription(tally, subscriptions);
+        // register before the initial scan so no key created in between is missed
+        subscriptions.add(subscription);
+        subscription.markAll();
+        return subscription;
+    }
+
+    /**
+     * Prejde všetky nenulové súčty podľa kandidáta, štátu a vekovej skupiny, napr. pre odoslanie
+     * čiastkových výsledkov uzla koordinátorovi.
+     * @param action Akcia volaná pre každú bunku.
+     */
+    public static void forEachResultCell(VoteTally.CellConsumer action) {
+        tally.forEachCell(action);
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @param district Okres, teda prvé tri číslice PSČ.
+     * @return Počet hlasov odovzdaných v okrese.
+     */
+    public static long getDistrictTotal(String state, int district) {
+        return tally.getRegions().getDistrictTotal(CountryRegistry.findId(state), district);
+    }
+
+    /**
+     * @param state Názov štátu.
+     * @param region Kraj, teda prvá číslica PSČ.
+     * @return Počet hlasov odovzdaných v kraji.
+     */
+    public static long getRegionTotal(String state, int region) {
+        return tally.getRegions().getRegionTotal(CountryRegistry.findId(state), region);
+    }
 
-        results.append("</html>");
-        return results.toString();
+    /**
+     * @param state Názov štátu.
+     * @param psc PSČ.
+     * @return Počet hlasov voličov s daným PSČ.
+     */
+    public static long getPscTotal(String state, int psc) {
+        return tally.getRegions().getPscTotal(CountryRegistry.findId(state), psc);
+    }
+
+    /**
+     * @return Najaktívnejšie okresy zoradené podľa počtu hlasov.
+     */
+    public static List<RegionRollup.District> getTopDistricts() {
+        return tally.getRegions().getTopDistricts();
+    }
+
+    /**
+     * @param state Názov štátu alebo null pre celú krajinu.
+     * @return Priebežné poradie kandidátov alebo null, ak v štáte ešte nikto nevolil.
+     */
+    private static Leaderboard leaderboard(String state) {
+        if (state == null) {
+            return tally.getNationalLeaderboard();
+        }
+        int stateId = CountryRegistry.findId(state);
+        return stateId < 0 ? null : tally.getLeaderboard(stateId);
+    }
+
+    /**
+     * @param state Názov štátu alebo null pre celú krajinu.
+     * @return Kandidát s najviac hlasmi alebo null, ak ešte nikto nevolil.
+     */
+    public static String getLeader(String state) {
+        Leaderboard board = leaderboard(state);
+        return board == null ? null : board.getLeader();
+    }
+
+    /**
+     * @param state Názov štátu alebo null pre celú krajinu.
+     * @return O koľko hlasov vedie prvý kandidát pred druhým.
+     */
+    public static long getLeaderMargin(String state) {
+        Leaderboard board = leaderboard(state);
+        return board == null ? 0 : board.getMargin();
+    }
+
+    /**
+     * @param state Názov štátu alebo null pre celú krajinu.
+     * @param k Najväčší počet kandidátov.
+     * @return Prvých {@code k} kandidátov zoradených podľa počtu hlasov.
+     */
+    public static List<Leaderboard.Standing> getTopCandidates(String state, int k) {
+        Leaderboard board = leaderboard(state);
+        return board == null ? List.of() : board.getTop(k);
+    }
+
+    /**
+     * Spočíta hlasy voličov s vekom v uzavretom rozsahu {@code [fromAge, toAge]}.
+     * @param candidate Meno kandidáta alebo null pre všetkých kandidátov.
+     * @param state Názov štátu alebo null pre všetky štáty.
+     * @param fromAge Najnižší vek.
+     * @param toAge Najvyšší vek.
+     * @return Počet hlasov; 0 pre neznámeho kandidáta alebo štát.
+     */
+    public static long getVotesByAge(String candidate, String state, int fromAge, int toAge) {
+        int candidateId = candidate == null ? AgeHistogram.ANY : CandidateRegistry.findId(candidate);
+        int stateId = state == null ? AgeHistogram.ANY : CountryRegistry.findId(state);
+        if (candidateId == -1 && candidate != null || stateId == -1 && state != null) {
+            return 0;
+        }
+        return tally.getAges().getVotes(candidateId, stateId, fromAge, toAge);
+    }
+
+    /**
+     * Vráti obraz výsledkov k aktuálnej verzii. Kým nepribudne hlas, všetci čitatelia dostanú ten istý
+     * obraz. Nový obraz vytvára vždy iba jeden čitateľ; ostatní medzitým bez čakania dostanú predchádzajúci.
+     * Príjem hlasov na čitateľov nikdy nečaká.
+     * @return Nemenný obraz výsledkov.
+     */
+    public static ResultsSnapshot getResultsSnapshot() {
+        ResultsSnapshot current = resultsSnapshot;
+        if (current != null && current.getVersion() == tally.getTotalVotes()) {
+            return current;
+        }
+        if (!snapshotLock.tryLock()) {
+            // another reader is building the next one; the previous snapshot is still consistent
+            return current != null ? current : ResultsSnapshot.of(tally, tally.getTotalVotes());
+        }
+        try {
+            current = resultsSnapshot;
+            long version = tally.getTotalVotes();
+            if (current == null || current.getVersion() != version) {
+                current = ResultsSnapshot.of(tally, version);
+                resultsSnapshot = current;
+            }
+            return current;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public static String getFormattedResults() {
+        if (!Metrics.ENABLED) {
+            return getResultsSnapshot().getFormattedResults();
+        }
+        ResultsRenderEvent event = new ResultsRenderEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String results = getResultsSnapshot().getFormattedResults();
+        renderLatency.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = "formatted";
+            event.characters = results.length();
+            event.commit();
+        }
+        return results;
     }
-}
\ No newline at end of file
+}
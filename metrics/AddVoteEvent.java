@@ -0,0 +1,28 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Udalosť JFR pre spracovanie jedného hlasu alebo dávky hlasov vo {@code VotingManager}.
+ */
+@Name("voting.AddVote")
+@Label("Add Vote")
+@Category("Voting")
+@Description("Processing of one ballot or one batch of ballots")
+@StackTrace(false)
+public final class AddVoteEvent extends Event {
+    @Label("Channel")
+    public String channel;
+
+    @Label("Outcome")
+    @Description("Outcome of a single ballot, or BATCH for a batch")
+    public String outcome;
+
+    @Label("Ballots")
+    public int ballots;
+}
@@ -0,0 +1,36 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trieda {@code Counter} je počítadlo udalostí v {@link Metrics}.
+ * <p>
+ * Pripočítanie ide do {@link LongAdder}, takže súbežné vlákna sa nebijú o jednu premennú.
+ * Ak sú metriky vypnuté, pripočítanie nerobí nič.
+ * </p>
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (Metrics.ENABLED) {
+            value.increment();
+        }
+    }
+
+    public void add(long delta) {
+        if (Metrics.ENABLED) {
+            value.add(delta);
+        }
+    }
+
+    /**
+     * @return Súčet doteraz pripočítaných hodnôt.
+     */
+    public long get() {
+        return value.sum();
+    }
+}
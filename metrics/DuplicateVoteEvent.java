@@ -0,0 +1,21 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Udalosť JFR pre lístok voliča, ktorý už hlasoval. ID voliča sa nezaznamenáva.
+ */
+@Name("voting.DuplicateVote")
+@Label("Duplicate Vote")
+@Category("Voting")
+@Description("Ballot rejected because the voter ID has already voted")
+@StackTrace(false)
+public final class DuplicateVoteEvent extends Event {
+    @Label("Channel")
+    public String channel;
+}
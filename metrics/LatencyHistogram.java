@@ -0,0 +1,94 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Trieda {@code LatencyHistogram} zaznamenáva latencie v nanosekundách do logaritmicko-lineárnych
+ * košov v štýle HdrHistogram.
+ * <p>
+ * Každá mocnina dvoch je rozdelená na 64 košov, takže percentily majú relatívnu chybu pod 1,6 %
+ * pri pevnej veľkosti histogramu. Zápis je jedna atomická inkrementácia a je bezpečný z viacerých vlákien.
+ * Hodnoty nad približne 18 minút sa započítajú do posledného koša.
+ * </p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT >> 1;
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+
+    /**
+     * Zaznamená jednu hodnotu.
+     * @param nanos Latencia v nanosekundách; záporné hodnoty sa počítajú ako nula.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(index(Math.min(Math.max(nanos, 0), MAX_VALUE)));
+    }
+
+    private static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long sub = index - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * @return Počet zaznamenaných hodnôt.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile Percentil v rozsahu 0 až 100, napr. 99.9.
+     * @return Najväčšia hodnota, pod ktorou leží zadaný podiel záznamov, alebo 0 pre prázdny histogram.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(snapshot.length - 1);
+    }
+
+    /**
+     * @return Najväčšia zaznamenaná hodnota s presnosťou koša.
+     */
+    public long getMax() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueIn(i);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,92 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Trieda {@code Metrics} je register počítadiel, meradiel a histogramov latencií v procese.
+ * <p>
+ * Metriky sa registrujú podľa mena raz, zvyčajne do statickej premennej, a potom sa už iba
+ * zapisujú. Celý register sa dá kedykoľvek vypísať cez {@link #dump()}, napr. na {@code GET /metrics}
+ * HTTP servera. Metriky sú predvolene zapnuté; s {@code -Dvoting.metrics=false} je {@link #ENABLED}
+ * konštanta false a JIT kód zápisov úplne vypustí.
+ * </p>
+ */
+public final class Metrics {
+    /** Či sa metriky zapisujú; nastavuje sa vlastnosťou {@code voting.metrics} pri štarte. */
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("voting.metrics"));
+
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * @param name Meno počítadla, napr. {@code votes.accepted}.
+     * @return Počítadlo s daným menom; pri prvom volaní sa vytvorí.
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Zaregistruje meradlo, ktorého hodnota sa zistí až pri výpise. Meradlo s rovnakým menom nahradí.
+     * @param name Meno meradla, napr. {@code channel.online.queued}.
+     * @param value Funkcia vracajúca aktuálnu hodnotu.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Vráti histogram latencií. Zápis doň treba podmieniť {@link #ENABLED}, aby sa pri vypnutých
+     * metrikách nemerala ani doba.
+     * @param name Meno histogramu, napr. {@code addVote.latency}.
+     * @return Histogram s daným menom; pri prvom volaní sa vytvorí.
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * @return Textový výpis všetkých metrík, jedna metrika na riadok, zoradené podľa mena.
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder(64 * (counters.size() + gauges.size() + histograms.size()));
+        dump(out);
+        return out.toString();
+    }
+
+    /**
+     * Vypíše všetky metriky. Latencie histogramov sú v nanosekundách.
+     * @param out Cieľ výpisu.
+     */
+    public static void dump(Appendable out) {
+        try {
+            for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+                out.append("counter ").append(counter.getKey()).append(' ')
+                    .append(Long.toString(counter.getValue().get())).append('\n');
+            }
+            for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+                out.append("gauge ").append(gauge.getKey()).append(' ')
+                    .append(Long.toString(gauge.getValue().getAsLong())).append('\n');
+            }
+            for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                out.append("histogram ").append(entry.getKey())
+                    .append(" count=").append(Long.toString(histogram.getCount()))
+                    .append(" p50=").append(Long.toString(histogram.getValueAtPercentile(50)))
+                    .append(" p99=").append(Long.toString(histogram.getValueAtPercentile(99)))
+                    .append(" p99.9=").append(Long.toString(histogram.getValueAtPercentile(99.9)))
+                    .append(" max=").append(Long.toString(histogram.getMax())).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
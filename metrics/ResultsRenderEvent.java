@@ -0,0 +1,25 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Udalosť JFR pre zostavenie textu výsledkov hlasovania.
+ */
+@Name("voting.ResultsRender")
+@Label("Results Render")
+@Category("Voting")
+@StackTrace(false)
+public final class ResultsRenderEvent extends Event {
+    @Label("View")
+    public String view;
+
+    @Label("Characters")
+    public int characters;
+
+    @Label("Rows")
+    public int rows;
+}
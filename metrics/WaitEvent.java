@@ -0,0 +1,31 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Udalosť JFR pre čakanie lístkov na zámok alebo vo fronte, napr. na voľné miesto v pruhu žurnálu
+ * alebo vo fronte kanála hlasovania.
+ */
+@Name("voting.Wait")
+@Label("Ballot Wait")
+@Category("Voting")
+@Description("Time ballots spent waiting for a lock or in a queue")
+@StackTrace(false)
+public final class WaitEvent extends Event {
+    @Label("Resource")
+    public String resource;
+
+    @Label("Waited")
+    @Description("Longest wait among the ballots covered by this event")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waited;
+
+    @Label("Ballots")
+    public int ballots;
+}
@@ -0,0 +1,263 @@
+package simulator;
+
+import logic.VirtualThreads;
+import logic.VoteOutcome;
+import logic.VotingManager;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import volici.OnlineVolic;
+import volici.Volic;
+import volici.VolicPostov;
+import volici.ZTPvolic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trieda {@code ElectionSimulator} simuluje záťaž volebného dňa bez grafického rozhrania.
+ * <p>
+ * Generuje syntetických voličov ako {@link OnlineVolic}, {@link VolicPostov} a {@link ZTPvolic}
+ * so skreslenými rozdeleniami štátu, veku, PSČ a kandidáta a nechá ich súbežne hlasovať cez ich
+ * metódy hlasovania do {@link VotingManager}. Každý volič hlasuje vo vlastnom virtuálnom vlákne
+ * (na JVM bez virtuálnych vlákien v poole platformových vlákien). Časť voličov zámerne znovu použije
+ * ID iného voliča, aby sa overilo odmietanie duplicít.
+ * </p>
+ * <p>
+ * S prepínačom {@code async} voliči hlasujú cez {@link Volic#hlasujAsync} a lístky spracúvajú fronty
+ * jednotlivých spôsobov hlasovania po dávkach.
+ * </p>
+ * <p>
+ * Spustenie: {@code java simulator.ElectionSimulator [pocetVolicov] [podielDuplicit] [subeznost] [async]},
+ * predvolene 1 000 000 voličov, 0.01 a 10 000 súbežných hlasovaní.
+ * </p>
+ */
+public class ElectionSimulator {
+    private static final String[] STATES = {"Slovakia", "Czechia", "Hungary", "Austria", "Poland", "Ukraine",
+        "Germany", "United Kingdom", "Ireland", "France", "Italy", "Spain", "Netherlands", "Belgium",
+        "Switzerland", "Norway", "Sweden", "Canada", "United States", "Australia"};
+    private static final String[] CANDIDATES = {"Ivan Prvy", "Alexander Pekny", "Jana Mala", "Peter Novy", "Eva Stara"};
+    private static final double[] CANDIDATE_WEIGHTS = {0.34, 0.29, 0.18, 0.12, 0.07};
+    private static final String[] FIRST_NAMES = {"Jan", "Peter", "Maria", "Anna", "Jozef", "Zuzana", "Martin", "Eva"};
+    private static final String[] LAST_NAMES = {"Novak", "Horvath", "Kovac", "Varga", "Toth", "Nagy", "Balaz", "Molnar"};
+
+    private final int voters;
+    private final double duplicateRate;
+    private final int concurrency;
+    private final boolean async;
+
+    private final double[] stateCdf = zipfCdf(STATES.length, 1.3);
+    private final double[] districtCdf = zipfCdf(190, 0.9);
+    private final double[] candidateCdf = cdf(CANDIDATE_WEIGHTS);
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param voters Počet unikátnych voličov.
+     * @param duplicateRate Podiel pokusov o opakované hlasovanie s ID iného voliča.
+     * @param concurrency Najväčší počet súčasne rozpracovaných hlasovaní.
+     * @param async true, ak majú voliči hlasovať asynchrónne cez fronty spôsobov hlasovania.
+     */
+    public ElectionSimulator(int voters, double duplicateRate, int concurrency, boolean async) {
+        this.voters = voters;
+        this.duplicateRate = duplicateRate;
+        this.concurrency = concurrency;
+        this.async = async;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        int voters = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double duplicateRate = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        boolean async = args.length > 3 && args[3].equals("async");
+        new ElectionSimulator(voters, duplicateRate, concurrency, async).run();
+    }
+
+    /**
+     * Spustí simuláciu a vypíše priebežnú aj záverečnú štatistiku.
+     * @throws InterruptedException ak bolo hlavné vlákno prerušené.
+     */
+    public void run() throws InterruptedException {
+        int duplicates = (int) (voters * duplicateRate);
+        int attempts = voters + duplicates;
+        long stride = duplicates == 0 ? Long.MAX_VALUE : attempts / duplicates;
+        System.out.printf("Simulating %d voters and %d duplicate attempts %s%n", voters, duplicates,
+            async ? "through the batching channel queues"
+                : "on " + (VirtualThreads.isAvailable() ? "virtual" : "platform") + " threads");
+
+        int fallbackThreads = Math.min(concurrency, Runtime.getRuntime().availableProcessors() * 4);
+        Semaphore inFlight = new Semaphore(concurrency);
+        Thread progress = startProgressReporter();
+        long start = System.nanoTime();
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor(fallbackThreads);
+        try {
+            SplittableRandom random = new SplittableRandom(2024);
+            int originals = 0;
+            int duplicated = 0;
+            for (long attempt = 0; attempt < attempts; attempt++) {
+                boolean duplicate = duplicated < duplicates && originals > 0 && attempt % stride == stride - 1;
+                int idIndex = duplicate ? random.nextInt(originals) : originals;
+                if (duplicate) {
+                    duplicated++;
+                } else {
+                    originals++;
+                }
+                SplittableRandom voterRandom = random.split();
+                inFlight.acquire();
+                if (async) {
+                    voteAsync(voterRandom, idIndex).whenComplete((ok, error) -> inFlight.release());
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        vote(voterRandom, idIndex);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(concurrency);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        }
+        long elapsed = System.nanoTime() - start;
+        progress.interrupt();
+        report(attempts, duplicates, elapsed);
+    }
+
+    private void vote(SplittableRandom random, int idIndex) {
+        Volic volic = createVoter(random, "SIM" + idIndex);
+        String candidate = CANDIDATES[sample(candidateCdf, random)];
+        long begin = System.nanoTime();
+        boolean ok = volic.hlasuj(candidate);
+        latency.record(System.nanoTime() - begin);
+        if (ok) {
+            accepted.increment();
+        } else {
+            rejected.increment();
+        }
+    }
+
+    private CompletableFuture<VoteOutcome> voteAsync(SplittableRandom random, int idIndex) {
+        Volic volic = createVoter(random, "SIM" + idIndex);
+        String candidate = CANDIDATES[sample(candidateCdf, random)];
+        long begin = System.nanoTime();
+        return volic.hlasujAsync(candidate).whenComplete((outcome, error) -> {
+            latency.record(System.nanoTime() - begin);
+            if (outcome == VoteOutcome.ACCEPTED) {
+                accepted.increment();
+            } else {
+                rejected.increment();
+            }
+        });
+    }
+
+    private Volic createVoter(SplittableRandom random, String id) {
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + ' ' + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String address = "Hlavna " + (1 + random.nextInt(200));
+        String state = STATES[sample(stateCdf, random)];
+        int psc = (810 + sample(districtCdf, random)) * 100 + random.nextInt(100);
+        int age = age(random);
+        double channel = random.nextDouble();
+        if (channel < 0.6) {
+            return new OnlineVolic(name, address, age, state, id, psc);
+        } else if (channel < 0.9) {
+            return new VolicPostov(name, address, age, state, id, psc);
+        }
+        return new ZTPvolic(name, address, age, state, id, psc);
+    }
+
+    private static int age(SplittableRandom random) {
+        double band = random.nextDouble();
+        if (band < 0.25) {
+            return 18 + random.nextInt(13);
+        } else if (band < 0.75) {
+            return 31 + random.nextInt(30);
+        }
+        return 61 + random.nextInt(35);
+    }
+
+    private static double[] zipfCdf(int size, double exponent) {
+        double[] weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, exponent);
+        }
+        return cdf(weights);
+    }
+
+    private static double[] cdf(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cdf = new double[weights.length];
+        double running = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i] / total;
+            cdf[i] = running;
+        }
+        cdf[cdf.length - 1] = 1.0;
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Thread startProgressReporter() {
+        Thread reporter = new Thread(() -> {
+            long last = 0;
+            try {
+                while (true) {
+                    Thread.sleep(1000);
+                    long done = accepted.sum() + rejected.sum();
+                    System.out.printf("  %,d votes/s (%,d total)%n", done - last, done);
+                    last = done;
+                }
+            } catch (InterruptedException e) {
+                // simulation finished
+            }
+        }, "simulator-progress");
+        reporter.setDaemon(true);
+        reporter.start();
+        return reporter;
+    }
+
+    private void report(int attempts, int duplicates, long elapsedNanos) {
+        long acceptedVotes = accepted.sum();
+        long rejectedVotes = rejected.sum();
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("attempts:            %,d in %.2f s%n", attempts, seconds);
+        System.out.printf("sustained rate:      %,.0f votes/s%n", attempts / seconds);
+        System.out.printf("accepted:            %,d%n", acceptedVotes);
+        System.out.printf("rejected:            %,d (%.2f %% of attempts)%n", rejectedVotes, 100.0 * rejectedVotes / attempts);
+        System.out.printf("duplicate rejection: %.2f %% of %,d duplicate attempts%n",
+            duplicates == 0 ? 100.0 : 100.0 * rejectedVotes / duplicates, duplicates);
+        System.out.printf("%-21sp50 %,d ns, p99 %,d ns, p99.9 %,d ns, max %,d ns%n",
+            async ? "hlasujAsync latency:" : "addVote latency:", latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+            latency.getValueAtPercentile(99.9), latency.getMax());
+        if (Metrics.ENABLED) {
+            System.out.println();
+            System.out.print(Metrics.dump());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package cluster;
+
+import logic.CandidateRegistry;
+import logic.CountryRegistry;
+import logic.VoteTally;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Zlúčenie delt {@link ReplicaOrigin} musí byť idempotentné a nezávislé od poradia, v akom delty prídu.
+ */
+class ReplicaOriginMergeTest {
+    private static final int STATE = CountryRegistry.idOf(CountryRegistry.nameOf(1));
+    private static final long FIRST = ReplicaOrigin.cellKey(CandidateRegistry.idOf("Replica Test First"), STATE,
+        VoteTally.FROM_18_TO_30);
+    private static final long SECOND = ReplicaOrigin.cellKey(CandidateRegistry.idOf("Replica Test Second"), STATE,
+        VoteTally.OVER_60);
+
+    @Test
+    void applyingTheSameDeltaTwiceChangesNothing() throws IOException {
+        ReplicaOrigin source = new ReplicaOrigin("station-a#1");
+        vote(source, FIRST, 1, 100);
+        vote(source, SECOND, 1, 200);
+        byte[] delta = delta(source, 0, 0);
+
+        ReplicaOrigin replica = new ReplicaOrigin(source.id);
+        assertEquals(List.of(100L, 200L), apply(replica, delta));
+        Map<Long, Long> once = totals(replica);
+        assertEquals(List.of(), apply(replica, delta));
+        assertEquals(once, totals(replica));
+        assertEquals(2, replica.getHashCount());
+        assertEquals(totals(source), once);
+    }
+
+    @Test
+    void deltasMergeToTheSameStateInAnyOrder() throws IOException {
+        ReplicaOrigin source = new ReplicaOrigin("station-a#1");
+        vote(source, FIRST, 1, 100);
+        byte[] early = delta(source, 0, 0);
+        int knownHashes = source.getHashCount();
+        long knownVersion = source.getCellVersion();
+        vote(source, FIRST, 2, 101);
+        vote(source, SECOND, 1, 102);
+        byte[] late = delta(source, knownHashes, knownVersion);
+        byte[] full = delta(source, 0, 0);
+
+        ReplicaOrigin inOrder = new ReplicaOrigin(source.id);
+        apply(inOrder, early);
+        apply(inOrder, late);
+        ReplicaOrigin fullFirst = new ReplicaOrigin(source.id);
+        apply(fullFirst, full);
+        assertTrue(apply(fullFirst, early).isEmpty());
+        assertTrue(apply(fullFirst, late).isEmpty());
+        ReplicaOrigin lateFirst = new ReplicaOrigin(source.id);
+        apply(lateFirst, late);
+        apply(lateFirst, early);
+        apply(lateFirst, full);
+
+        for (ReplicaOrigin replica : List.of(inOrder, fullFirst, lateFirst)) {
+            assertEquals(totals(source), totals(replica));
+            assertEquals(3, replica.getHashCount());
+            assertEquals(source.getCellVersion(), replica.getCellVersion());
+        }
+    }
+
+    @Test
+    void deltaStartingPastTheKnownHashesKeepsNoGap() throws IOException {
+        ReplicaOrigin source = new ReplicaOrigin("station-a#1");
+        vote(source, FIRST, 1, 100);
+        vote(source, FIRST, 2, 101);
+        byte[] tail = delta(source, 1, 0);
+
+        ReplicaOrigin replica = new ReplicaOrigin(source.id);
+        assertTrue(apply(replica, tail).isEmpty());
+        assertEquals(0, replica.getHashCount());
+        assertEquals(List.of(100L, 101L), apply(replica, delta(source, 0, 0)));
+    }
+
+    private static void vote(ReplicaOrigin origin, long cell, long votes, long hash) {
+        origin.appendHash(hash);
+        origin.setCell(cell, votes);
+    }
+
+    private static byte[] delta(ReplicaOrigin origin, int knownHashes, long knownVersion) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            origin.writeDelta(out, new ShardProtocol.SymbolWriter(), knownHashes, knownVersion);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Long> apply(ReplicaOrigin origin, byte[] delta) throws IOException {
+        List<Long> added = new ArrayList<>();
+        origin.readDelta(new DataInputStream(new ByteArrayInputStream(delta)), new ShardProtocol.SymbolReader(),
+            added::add);
+        return added;
+    }
+
+    private static Map<Long, Long> totals(ReplicaOrigin origin) {
+        Map<Long, Long> totals = new HashMap<>();
+        origin.addTo(totals);
+        return totals;
+    }
+}
@@ -0,0 +1,108 @@
+package logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Obnova {@link VoteJournal} po páde uprostred zápisu rámca.
+ */
+class VoteJournalRecoveryTest {
+    private static final int CANDIDATE = CandidateRegistry.idOf("Journal Test Candidate");
+    private static final int STATE = CountryRegistry.idOf(CountryRegistry.nameOf(1));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornTailFrameIsCutOff() throws IOException {
+        Path path = directory.resolve("votes.journal");
+        long durable;
+        try (VoteJournal journal = VoteJournal.open(path, new VoteTally(), new VoterIdSet())) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(CANDIDATE, STATE, 30, 81101, i + 1);
+            }
+            durable = journal.durableSize();
+        }
+        // the header of a frame whose payload never reached the disk
+        write(path, Files.size(path), ByteBuffer.allocate(6).putInt(64).putShort((short) 7).flip());
+
+        VoteTally tally = new VoteTally();
+        VoterIdSet ids = new VoterIdSet();
+        try (VoteJournal journal = VoteJournal.open(path, tally, ids)) {
+            assertEquals(durable, Files.size(path));
+            assertEquals(3, tally.getCandidateVotes(CANDIDATE));
+            assertEquals(3, ids.size());
+            journal.append(CANDIDATE, STATE, 30, 81101, 4);
+        }
+
+        tally = new VoteTally();
+        ids = new VoterIdSet();
+        try (VoteJournal journal = VoteJournal.open(path, tally, ids)) {
+            assertEquals(4, tally.getCandidateVotes(CANDIDATE));
+            assertTrue(ids.containsHash(4));
+        }
+    }
+
+    @Test
+    void frameWithBadChecksumIsCutOff() throws IOException {
+        Path path = directory.resolve("votes.journal");
+        long durable;
+        try (VoteJournal journal = VoteJournal.open(path, new VoteTally(), new VoterIdSet())) {
+            for (int i = 0; i < 4; i++) {
+                journal.append(CANDIDATE, STATE, 30, 81101, i + 1);
+            }
+            durable = journal.durableSize();
+            // append waits for its own commit, so this vote is alone in the last frame
+            journal.append(CANDIDATE, STATE, 45, 81101, 5);
+        }
+        long size = Files.size(path);
+        ByteBuffer last = ByteBuffer.allocate(1);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.read(last, size - 1);
+        }
+        write(path, size - 1, ByteBuffer.wrap(new byte[] {(byte) ~last.get(0)}));
+
+        VoteTally tally = new VoteTally();
+        VoterIdSet ids = new VoterIdSet();
+        try (VoteJournal journal = VoteJournal.open(path, tally, ids)) {
+            assertEquals(durable, Files.size(path));
+            assertEquals(4, tally.getCandidateVotes(CANDIDATE));
+            assertTrue(ids.containsHash(4));
+            assertFalse(ids.containsHash(5));
+        }
+    }
+
+    @Test
+    void statesAreStoredByIsoCode() throws IOException {
+        Path path = directory.resolve("votes.journal");
+        try (VoteJournal journal = VoteJournal.open(path, new VoteTally(), new VoterIdSet())) {
+            journal.append(CANDIDATE, CountryRegistry.idOf("SK"), 30, 81101, 1);
+            journal.append(CANDIDATE, CountryRegistry.UNDETERMINED, 30, 81101, 2);
+        }
+        JournalReader reader = new JournalReader();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            reader.read(channel, VoteJournal.FILE_HEADER, channel.size(), (candidate, state, age, psc, idHash) -> {
+            });
+        }
+        // a display name would depend on the language of the JVM that wrote the journal
+        assertEquals(List.of("SK", ""), reader.states());
+    }
+
+    private static void write(Path path, long position, ByteBuffer data) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(data, position);
+        }
+    }
+}
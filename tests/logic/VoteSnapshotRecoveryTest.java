@@ -0,0 +1,67 @@
+package logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Obnova zo snapshotu {@link VoteSnapshotter} a zvyšku žurnálu za ním.
+ */
+class VoteSnapshotRecoveryTest {
+    private static final int FIRST = CandidateRegistry.idOf("Snapshot Test First");
+    private static final int SECOND = CandidateRegistry.idOf("Snapshot Test Second");
+    private static final int STATE = CountryRegistry.idOf(CountryRegistry.nameOf(1));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotAndJournalTailRestoreEveryVote() throws IOException {
+        Path path = directory.resolve("votes.journal");
+        Path crashed = Files.createDirectory(directory.resolve("crashed")).resolve("votes.journal");
+        VoteTally tally = new VoteTally();
+        VoterIdSet ids = new VoterIdSet();
+        long snapshotOffset;
+        try (VoteJournal journal = VoteJournal.open(path, tally, ids);
+             VoteSnapshotter snapshotter = VoteSnapshotter.start(path, journal, tally, ids, Long.MAX_VALUE)) {
+            for (int i = 1; i <= 3; i++) {
+                record(journal, tally, ids, FIRST, 25, i);
+            }
+            snapshotter.checkpoint();
+            snapshotOffset = journal.durableSize();
+            record(journal, tally, ids, SECOND, 70, 4);
+            record(journal, tally, ids, FIRST, 40, 5);
+            // the state a crash right now would leave behind: an older snapshot and a longer journal
+            Files.copy(path, crashed);
+            Files.copy(VoteSnapshot.pathFor(path), VoteSnapshot.pathFor(crashed));
+        }
+
+        VoteTally restored = new VoteTally();
+        VoterIdSet restoredIds = new VoterIdSet();
+        try (VoteJournal journal = VoteJournal.open(crashed, restored, restoredIds)) {
+            assertEquals(snapshotOffset, journal.restoredOffset());
+            assertEquals(4, restored.getCandidateVotes(FIRST));
+            assertEquals(1, restored.getCandidateVotes(SECOND));
+            assertEquals(5, restored.getStateTotal(STATE));
+            assertArrayEquals(tally.getAgeBucketTotals(), restored.getAgeBucketTotals());
+            assertEquals(5, restoredIds.size());
+            for (long hash = 1; hash <= 5; hash++) {
+                assertTrue(restoredIds.containsHash(hash));
+            }
+        }
+    }
+
+    private static void record(VoteJournal journal, VoteTally tally, VoterIdSet ids, int candidateId, int age,
+                               long idHash) {
+        ids.addHash(idHash);
+        journal.append(candidateId, STATE, age, 81101, idHash);
+        tally.record(candidateId, age, STATE, 81101);
+    }
+}
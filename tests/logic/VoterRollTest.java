@@ -0,0 +1,56 @@
+package logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Formát súboru {@link VoterRoll} a overenie voliča podľa neho.
+ */
+class VoterRollTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void fileSizeDoesNotOverflowForLargeRolls() {
+        assertEquals(64 + 16L * 16, VoterRoll.fileSize(4));
+        assertEquals(64 + (1L << 31), VoterRoll.fileSize(27));
+        assertEquals(64 + (1L << 32), VoterRoll.fileSize(28));
+        assertEquals(64 + (1L << 44), VoterRoll.fileSize(40));
+    }
+
+    @Test
+    void createdFileHasTheSizeOpenExpects() throws IOException {
+        Path path = directory.resolve("voters.roll");
+        try (VoterRoll.Writer writer = VoterRoll.create(path, 100)) {
+            writer.add("SK100", 30, "SK", 81101, true);
+        }
+        assertEquals(VoterRoll.fileSize(8), Files.size(path));
+        try (VoterRoll roll = VoterRoll.open(path)) {
+            assertEquals(1, roll.size());
+            assertEquals(Eligibility.ELIGIBLE, roll.check("SK100", 30, "SK", 81101));
+        }
+    }
+
+    @Test
+    void unknownStateDoesNotPassAStoredState() throws IOException {
+        Path path = directory.resolve("voters.roll");
+        try (VoterRoll.Writer writer = VoterRoll.create(path, 100)) {
+            writer.add("SK100", 30, "SK", 81101, true);
+            writer.add("SK101", 30, null, 81101, true);
+        }
+        try (VoterRoll roll = VoterRoll.open(path)) {
+            assertEquals(Eligibility.STATE_MISMATCH, roll.check("SK100", 30, "Slovakiaa", 81101));
+            assertEquals(Eligibility.STATE_MISMATCH, roll.check("SK100", 30, "CZ", 81101));
+            assertEquals(Eligibility.STATE_MISMATCH,
+                roll.check(VoterIdSet.hash("SK100"), 30, CountryRegistry.UNDETERMINED, 81101));
+            // a roll entry without a state accepts any state
+            assertEquals(Eligibility.ELIGIBLE, roll.check("SK101", 30, "Slovakiaa", 81101));
+        }
+    }
+}
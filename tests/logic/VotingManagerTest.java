@@ -0,0 +1,35 @@
+package logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Odmietnutie neplatných lístkov v {@link VotingManager}; jednotlivý hlas a dávka sa musia zhodovať.
+ */
+class VotingManagerTest {
+    @Test
+    void singleVoteRejectsEmptyCandidateAndId() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(VoteOutcome.REJECTED,
+                VotingManager.castVote("Ivan Prvy", "Test Voter", 30, "SK", "", 81101, VoteChannel.UNSPECIFIED));
+            assertEquals(VoteOutcome.REJECTED,
+                VotingManager.castVote("", "Test Voter", 30, "SK", "VMT-empty-candidate", 81101, VoteChannel.UNSPECIFIED));
+        }
+        assertEquals(VoteOutcome.ACCEPTED,
+            VotingManager.castVote("Ivan Prvy", "Test Voter", 30, "SK", "VMT-empty-candidate", 81101, VoteChannel.UNSPECIFIED));
+    }
+
+    @Test
+    void batchRejectsTheSameBallots() {
+        BatchResult result = VotingManager.addVotes(Arrays.asList(
+            new Ballot("Ivan Prvy", "Test Voter", 30, "SK", "", 81101),
+            new Ballot("", "Test Voter", 30, "SK", "VMT-batch", 81101),
+            new Ballot("Ivan Prvy", "Test Voter", 30, "SK", "VMT-batch", 81101)), VoteChannel.UNSPECIFIED);
+        assertEquals(VoteOutcome.REJECTED, result.getOutcome(0));
+        assertEquals(VoteOutcome.REJECTED, result.getOutcome(1));
+        assertEquals(VoteOutcome.ACCEPTED, result.getOutcome(2));
+    }
+}
@@ -0,0 +1,62 @@
+package validation;
+
+/**
+ * Trieda {@code FieldError} spája pole s dôvodom, pre ktorý neprešlo validáciou.
+ * <p>
+ * Inštancie sú vopred vytvorené pre každú dvojicu poľa a chyby, takže validácia nič nealokuje.
+ * Kód chyby je {@code 100 * kód poľa + kód chyby}, napr. 203 pre neplatný znak v mene.
+ * </p>
+ */
+public final class FieldError {
+    private static final FieldError[][] ERRORS = new FieldError[VoterField.values().length][ValidationError.values().length];
+
+    static {
+        for (VoterField field : VoterField.values()) {
+            for (ValidationError error : ValidationError.values()) {
+                ERRORS[field.ordinal()][error.ordinal()] = new FieldError(field, error);
+            }
+        }
+    }
+
+    private final VoterField field;
+    private final ValidationError error;
+    private final String name;
+
+    private FieldError(VoterField field, ValidationError error) {
+        this.field = field;
+        this.error = error;
+        this.name = field.name() + '_' + error.name();
+    }
+
+    /**
+     * @param field Pole, ktoré neprešlo validáciou.
+     * @param error Dôvod chyby.
+     * @return Zdieľaná inštancia pre danú dvojicu.
+     */
+    public static FieldError of(VoterField field, ValidationError error) {
+        return ERRORS[field.ordinal()][error.ordinal()];
+    }
+
+    public VoterField getField() {
+        return field;
+    }
+
+    public ValidationError getError() {
+        return error;
+    }
+
+    /**
+     * @return Číselný kód chyby poľa.
+     */
+    public int getCode() {
+        return field.getCode() * 100 + error.getCode();
+    }
+
+    /**
+     * @return Názov chyby v tvare {@code POLE_CHYBA}, napr. {@code NAME_INVALID_CHARACTER}.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
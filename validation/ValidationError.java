@@ -0,0 +1,37 @@
+package validation;
+
+/**
+ * Dôvod, pre ktorý hodnota poľa neprešla validáciou.
+ * <p>
+ * Každý dôvod má stabilný číselný kód, ktorý sa môže posielať klientom a zapisovať do protokolov.
+ * </p>
+ */
+public enum ValidationError {
+    /** Hodnota chýba alebo obsahuje iba medzery. */
+    EMPTY(1),
+    /** Hodnota je dlhšia, ako pole dovoľuje. */
+    TOO_LONG(2),
+    /** Hodnota obsahuje nepovolený znak. */
+    INVALID_CHARACTER(3),
+    /** Hodnota nie je celé číslo. */
+    NOT_NUMERIC(4),
+    /** Číselná hodnota je mimo povoleného rozsahu. */
+    OUT_OF_RANGE(5),
+    /** Hodnota nemá predpísaný tvar, napr. adresa bez čísla domu. */
+    INVALID_FORMAT(6),
+    /** Hodnota nie je medzi povolenými, napr. kandidát, ktorý nekandiduje. */
+    UNKNOWN(7);
+
+    private final int code;
+
+    ValidationError(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return Číselný kód chyby.
+     */
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,28 @@
+package validation;
+
+/**
+ * Pole hlasovacieho lístka alebo formulára voliča, ktoré sa validuje.
+ */
+public enum VoterField {
+    CANDIDATE(1),
+    NAME(2),
+    AGE(3),
+    ID(4),
+    PSC(5),
+    ADDRESS(6),
+    /** Riadok alebo formulár ako celok, napr. nesprávny počet stĺpcov. */
+    ROW(7);
+
+    private final int code;
+
+    VoterField(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return Číselný kód poľa.
+     */
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,238 @@
+package validation;
+
+import logic.Ballot;
+
+import java.util.List;
+
+/**
+ * Trieda {@code VoterValidator} overuje údaje voliča a hlasovacie lístky.
+ * <p>
+ * Každý validátor prejde hodnotu jediný raz bez regulárnych výrazov a bez alokácií a namiesto
+ * boolean vráti dôvod chyby, alebo {@code null}, ak je hodnota platná. Mená a ulice môžu obsahovať
+ * písmená ľubovoľnej abecedy vrátane diakritiky.
+ * </p>
+ */
+public final class VoterValidator {
+    public static final int MIN_AGE = 18;
+    public static final int MAX_AGE = 120;
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_ID_LENGTH = 32;
+    private static final int MAX_PSC_DIGITS = 9; // always fits in an int
+    private static final int MAX_ADDRESS_LENGTH = 200;
+
+    private VoterValidator() {
+    }
+
+    /**
+     * Overí meno voliča alebo kandidáta: písmená, medzery, spojovník, apostrof a bodka,
+     * aspoň jedno písmeno.
+     * @param name Meno na overenie.
+     * @return Dôvod chyby alebo null, ak je meno platné.
+     */
+    public static ValidationError validateName(CharSequence name) {
+        if (name == null) {
+            return ValidationError.EMPTY;
+        }
+        int length = name.length();
+        if (length > MAX_NAME_LENGTH) {
+            return ValidationError.TOO_LONG;
+        }
+        boolean letter = false;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c < 0x80) {
+                if (isAsciiLetter(c)) {
+                    letter = true;
+                } else if (c != ' ' && c != '-' && c != '\'' && c != '.') {
+                    return ValidationError.INVALID_CHARACTER;
+                }
+            } else if (Character.isHighSurrogate(c)) {
+                if (!Character.isLetter(Character.codePointAt(name, i))) {
+                    return ValidationError.INVALID_CHARACTER;
+                }
+                letter = true;
+                i++;
+            } else if (Character.isLetter(c)) {
+                letter = true;
+            } else if (!Character.isSpaceChar(c) && Character.getType(c) != Character.NON_SPACING_MARK) {
+                // combining marks allow decomposed diacritics such as "c" + U+030C
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return letter ? null : ValidationError.EMPTY;
+    }
+
+    /**
+     * Overí identifikačné číslo voliča: písmená a číslice ASCII, spojovník a lomka.
+     * @param id ID na overenie.
+     * @return Dôvod chyby alebo null, ak je ID platné.
+     */
+    public static ValidationError validateId(CharSequence id) {
+        if (id == null || id.length() == 0) {
+            return ValidationError.EMPTY;
+        }
+        int length = id.length();
+        if (length > MAX_ID_LENGTH) {
+            return ValidationError.TOO_LONG;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (!isAsciiLetter(c) && !isDigit(c) && c != '-' && c != '/') {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Overí poštové smerovacie číslo: najviac 9 číslic.
+     * @param psc PSČ na overenie.
+     * @return Dôvod chyby alebo null, ak je PSČ platné.
+     */
+    public static ValidationError validatePsc(CharSequence psc) {
+        if (psc == null || psc.length() == 0) {
+            return ValidationError.EMPTY;
+        }
+        int length = psc.length();
+        for (int i = 0; i < length; i++) {
+            if (!isDigit(psc.charAt(i))) {
+                return ValidationError.NOT_NUMERIC;
+            }
+        }
+        return length > MAX_PSC_DIGITS ? ValidationError.TOO_LONG : null;
+    }
+
+    /**
+     * Overí vek voliča zadaný ako text.
+     * @param age Vek na overenie.
+     * @return Dôvod chyby alebo null, ak je vek číslo od 18 do 120.
+     */
+    public static ValidationError validateAge(CharSequence age) {
+        if (age == null || age.length() == 0) {
+            return ValidationError.EMPTY;
+        }
+        int length = age.length();
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = age.charAt(i);
+            if (!isDigit(c)) {
+                return ValidationError.NOT_NUMERIC;
+            }
+            // stop accumulating once the value is out of range anyway
+            value = Math.min(value * 10 + (c - '0'), MAX_AGE + 1);
+        }
+        return validateAge(value);
+    }
+
+    /**
+     * Overí vek voliča.
+     * @param age Vek na overenie.
+     * @return {@link ValidationError#OUT_OF_RANGE}, ak vek nie je od 18 do 120 rokov, inak null.
+     */
+    public static ValidationError validateAge(int age) {
+        return age < MIN_AGE || age > MAX_AGE ? ValidationError.OUT_OF_RANGE : null;
+    }
+
+    /**
+     * Overí adresu v tvare "ulica číslo", napr. {@code Hlavná 12}, {@code Nám. SNP 1520/3A}.
+     * Ulica môže obsahovať písmená, číslice, medzery, bodky, spojovníky a apostrofy; číslo domu
+     * začína číslicou, môže obsahovať lomku a končiť písmenom.
+     * @param address Adresa na overenie.
+     * @return Dôvod chyby alebo null, ak je adresa platná.
+     */
+    public static ValidationError validateAddress(CharSequence address) {
+        if (address == null || address.length() == 0) {
+            return ValidationError.EMPTY;
+        }
+        int length = address.length();
+        if (length > MAX_ADDRESS_LENGTH) {
+            return ValidationError.TOO_LONG;
+        }
+        // walk backwards once: house number first, then the street
+        int i = length - 1;
+        if (isAsciiLetter(address.charAt(i))) {
+            i--;
+        }
+        char first = 0;
+        while (i >= 0 && address.charAt(i) != ' ') {
+            char c = address.charAt(i);
+            if (!isDigit(c) && (c != '/' || first == '/' || first == 0)) {
+                return c == '/' || isAllowedInStreet(c) ? ValidationError.INVALID_FORMAT : ValidationError.INVALID_CHARACTER;
+            }
+            first = c;
+            i--;
+        }
+        if (!isDigit(first) || i < 0) {
+            return ValidationError.INVALID_FORMAT;
+        }
+        boolean letter = false;
+        for (; i >= 0; i--) {
+            char c = address.charAt(i);
+            if (Character.isLetter(c) || Character.getType(c) == Character.NON_SPACING_MARK) {
+                letter = true;
+            } else if (!isAllowedInStreet(c)) {
+                return ValidationError.INVALID_CHARACTER;
+            }
+        }
+        return letter ? null : ValidationError.INVALID_FORMAT;
+    }
+
+    /**
+     * Overí všetky polia hlasovacieho lístka.
+     * @param ballot Lístok na overenie.
+     * @return Prvá nájdená chyba alebo null, ak je lístok platný.
+     */
+    public static FieldError validate(Ballot ballot) {
+        ValidationError error;
+        if ((error = validateName(ballot.getCandidate())) != null) {
+            return FieldError.of(VoterField.CANDIDATE, error);
+        }
+        if ((error = validateName(ballot.getVoterName())) != null) {
+            return FieldError.of(VoterField.NAME, error);
+        }
+        if ((error = validateAge(ballot.getAge())) != null) {
+            return FieldError.of(VoterField.AGE, error);
+        }
+        if ((error = validateId(ballot.getID())) != null) {
+            return FieldError.of(VoterField.ID, error);
+        }
+        if (ballot.getPsc() < 0) {
+            return FieldError.of(VoterField.PSC, ValidationError.OUT_OF_RANGE);
+        }
+        return null;
+    }
+
+    /**
+     * Overí dávku lístkov, napr. pri hromadnom importe alebo dávkovom HTTP príjme.
+     * @param ballots Lístky na overenie; pri prvku null sa zodpovedajúci prvok {@code errors} nezmení,
+     *                takže v ňom môže zostať chyba zistená už pri čítaní riadku.
+     * @param errors Pole aspoň s dĺžkou dávky, do ktorého sa zapíše chyba každého lístka alebo null.
+     * @return Počet lístkov s chybou.
+     */
+    public static int validateAll(List<Ballot> ballots, FieldError[] errors) {
+        int invalid = 0;
+        for (int i = 0; i < ballots.size(); i++) {
+            Ballot ballot = ballots.get(i);
+            if (ballot != null) {
+                errors[i] = validate(ballot);
+            }
+            if (errors[i] != null) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
+
+    private static boolean isAllowedInStreet(char c) {
+        return c == ' ' || c == '.' || c == '-' || c == '\'' || isDigit(c) || Character.isLetter(c);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        char lower = (char) (c | 0x20);
+        return lower >= 'a' && lower <= 'z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
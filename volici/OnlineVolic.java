@@ -10,7 +10,7 @@ import hlasovanie.*;
  * možnosť hlasovania prostredníctvom internetu.
  * </p>
  */
-class OnlineVolic extends Volic {
+public class OnlineVolic extends Volic {
 
     /**
      * Konštruktor pre {@code OnlineVolic}, ktorý inicializuje voliča s danými atribútmi
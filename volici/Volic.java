@@ -1,8 +1,13 @@
 package volici;
 
 import hlasovanie.Hlasovanie2;
+import logic.VoteOutcome;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Trieda {@code Volic} predstavuje základný model voliča v hlasovacom systéme.
@@ -49,13 +54,89 @@ public class Volic {
 
     /**
      * Vykoná hlasovanie za voliča pomocou všetkých dostupných metód hlasovania.
-     * Pre každú metódu v zozname volá metódu hlasuj pre zadaného kandidáta.
+     * Pre každú metódu v zozname odovzdá hlas voliča pre zadaného kandidáta.
      *
      * @param kandidat Meno kandidáta, pre ktorého sa má hlasovať.
+     * @return true, ak niektorá metóda hlas prijala; false, ak bol hlas odmietnutý.
      */
-    public void hlasuj(String kandidat) {
+    public boolean hlasuj(String kandidat) {
+        boolean prijaty = false;
         for (Hlasovanie2 metoda : metodyHlasovania) {
-            metoda.hlasuj(kandidat);
+            prijaty |= metoda.hlasuj(this, kandidat);
+        }
+        return prijaty;
+    }
+
+    /**
+     * Odovzdá hlas súčasne všetkými dostupnými metódami hlasovania a nečaká na ich spracovanie.
+     * <p>
+     * Na každú metódu sa čaká najviac jej vlastný čas {@link Hlasovanie2#getTimeout()}; lístok, ktorý
+     * sa nestihol spracovať, sa v kanáli aj tak spracuje neskôr. Výsledok je {@code ACCEPTED}, ak hlas
+     * prijala niektorá metóda. Inak skončí chybou prvej metódy, ktorá nestihla odpovedať alebo zlyhala,
+     * a ak žiadna nezlyhala, je {@code DUPLICATE} alebo {@code REJECTED}.
+     * </p>
+     *
+     * @param kandidat Meno kandidáta, pre ktorého sa má hlasovať.
+     * @return Výsledok hlasovania.
+     */
+    public CompletableFuture<VoteOutcome> hlasujAsync(String kandidat) {
+        if (metodyHlasovania.isEmpty()) {
+            return CompletableFuture.completedFuture(VoteOutcome.REJECTED);
+        }
+        List<CompletableFuture<VoteOutcome>> vysledky = new ArrayList<>(metodyHlasovania.size());
+        for (Hlasovanie2 metoda : metodyHlasovania) {
+            // the copy times out on its own, the channel still completes the original
+            vysledky.add(metoda.hlasujAsync(this, kandidat).copy()
+                .orTimeout(metoda.getTimeout().toNanos(), TimeUnit.NANOSECONDS));
+        }
+        return CompletableFuture.allOf(vysledky.toArray(new CompletableFuture<?>[0]))
+            .handle((ignored, chyba) -> spojVysledky(vysledky));
+    }
+
+    private static VoteOutcome spojVysledky(List<CompletableFuture<VoteOutcome>> vysledky) {
+        VoteOutcome najlepsi = VoteOutcome.REJECTED;
+        RuntimeException prvaChyba = null;
+        for (CompletableFuture<VoteOutcome> vysledok : vysledky) {
+            try {
+                VoteOutcome outcome = vysledok.join();
+                if (outcome == VoteOutcome.ACCEPTED) {
+                    return outcome;
+                } else if (outcome == VoteOutcome.DUPLICATE) {
+                    najlepsi = outcome;
+                }
+            } catch (RuntimeException e) {
+                if (prvaChyba == null) {
+                    prvaChyba = e;
+                }
+            }
         }
+        if (prvaChyba != null) {
+            throw prvaChyba instanceof CompletionException ? (CompletionException) prvaChyba : new CompletionException(prvaChyba);
+        }
+        return najlepsi;
+    }
+
+    public String getMeno() {
+        return meno;
+    }
+
+    public String getAdresa() {
+        return adresa;
+    }
+
+    public int getVek() {
+        return vek;
+    }
+
+    public String getStat() {
+        return stat;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public int getPsc() {
+        return psc;
     }
 }
\ No newline at end of file
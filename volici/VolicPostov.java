@@ -9,7 +9,7 @@ import hlasovanie.*;
  * metód hlasovania pre voliča.
  * </p>
  */
-class VolicPostov extends Volic {
+public class VolicPostov extends Volic {
 
     /**
      * Konštruktor pre {@code VolicPostov}, ktorý inicializuje voliča s danými atribútmi
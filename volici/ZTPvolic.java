@@ -9,7 +9,7 @@ import hlasovanie.*;
  * do zoznamu dostupných metód hlasovania pre voliča.
  * </p>
  */
-class ZTPvolic extends Volic {
+public class ZTPvolic extends Volic {
 
     /**
      * Konštruktor pre {@code ZTPvolic}, ktorý inicializuje voliča s danými atribútmi